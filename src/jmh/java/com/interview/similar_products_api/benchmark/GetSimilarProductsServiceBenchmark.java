@@ -0,0 +1,65 @@
+package com.interview.similar_products_api.benchmark;
+
+import com.interview.similar_products_api.application.service.GetSimilarProductsService;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class GetSimilarProductsServiceBenchmark {
+
+    @Param({ "5", "20" })
+    private int fanOut;
+
+    @Param({ "NONE", "FIXED", "LOG_NORMAL", "LONG_TAIL" })
+    private LatencyDistribution latency;
+
+    @Param({ "virtual", "fixed-64" })
+    private String executor;
+
+    private ExecutorService executorService;
+    private GetSimilarProductsService service;
+
+    @Setup
+    public void setUp() {
+        executorService = executor.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(64);
+        service = new GetSimilarProductsService(new InMemoryProductRepository(fanOut, latency), executorService,
+                Duration.ofSeconds(5), new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Benchmark
+    public List<ProductDetail> getSimilarProducts() {
+        return service.getSimilarProducts("1").products();
+    }
+}
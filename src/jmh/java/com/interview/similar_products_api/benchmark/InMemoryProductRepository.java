@@ -0,0 +1,36 @@
+package com.interview.similar_products_api.benchmark;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class InMemoryProductRepository implements ProductRepository {
+
+    private final List<String> similarIds;
+    private final LatencyDistribution latency;
+
+    public InMemoryProductRepository(int fanOut, LatencyDistribution latency) {
+        this.similarIds = IntStream.rangeClosed(2, fanOut + 1).mapToObj(String::valueOf).toList();
+        this.latency = latency;
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        latency.pause();
+        return similarIds;
+    }
+
+    @Override
+    public ProductLookup getProductDetail(String productId) {
+        latency.pause();
+        return ProductLookup.found(product(productId));
+    }
+
+    public static ProductDetail product(String productId) {
+        return new ProductDetail(productId, "Product " + productId, new BigDecimal("19.99"), true);
+    }
+}
@@ -0,0 +1,39 @@
+package com.interview.similar_products_api.benchmark;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.port.out.ReactiveProductRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Reactive twin of {@link InMemoryProductRepository}: latency is a timer
+ * instead of a sleeping thread.
+ */
+public class InMemoryReactiveProductRepository implements ReactiveProductRepository {
+
+    private final List<String> similarIds;
+    private final LatencyDistribution latency;
+
+    public InMemoryReactiveProductRepository(int fanOut, LatencyDistribution latency) {
+        this.similarIds = IntStream.rangeClosed(2, fanOut + 1).mapToObj(String::valueOf).toList();
+        this.latency = latency;
+    }
+
+    @Override
+    public Mono<List<String>> getSimilarProductIds(String productId) {
+        return delayed(Mono.just(similarIds));
+    }
+
+    @Override
+    public Mono<ProductDetail> getProductDetail(String productId) {
+        return delayed(Mono.fromSupplier(() -> InMemoryProductRepository.product(productId)));
+    }
+
+    private <T> Mono<T> delayed(Mono<T> value) {
+        Duration delay = latency.next();
+        return delay.isZero() ? value : Mono.delay(delay).then(value);
+    }
+}
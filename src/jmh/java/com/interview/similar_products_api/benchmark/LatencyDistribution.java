@@ -0,0 +1,49 @@
+package com.interview.similar_products_api.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+public enum LatencyDistribution {
+    NONE {
+        @Override
+        long nextMicros(ThreadLocalRandom random) {
+            return 0;
+        }
+    },
+    FIXED {
+        @Override
+        long nextMicros(ThreadLocalRandom random) {
+            return 1_000;
+        }
+    },
+    LOG_NORMAL {
+        @Override
+        long nextMicros(ThreadLocalRandom random) {
+            return Math.round(1_000 * Math.exp(0.5 * random.nextGaussian()));
+        }
+    },
+    LONG_TAIL {
+        @Override
+        long nextMicros(ThreadLocalRandom random) {
+            return random.nextInt(100) == 0 ? 20_000 : 1_000;
+        }
+    };
+
+    abstract long nextMicros(ThreadLocalRandom random);
+
+    public Duration next() {
+        return Duration.ofNanos(nextMicros(ThreadLocalRandom.current()) * 1_000);
+    }
+
+    public void pause() {
+        long micros = nextMicros(ThreadLocalRandom.current());
+        if (micros <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(micros / 1_000, (int) (micros % 1_000) * 1_000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.interview.similar_products_api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.infrastructure.web.ProductJsonCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductJsonSerializationBenchmark {
+
+    @Param({ "5", "50" })
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ProductJsonCache productJsonCache;
+    private List<ProductDetail> products;
+    private ByteArrayOutputStream responseBody;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        productJsonCache = new ProductJsonCache(objectMapper, new SimpleMeterRegistry());
+        products = IntStream.rangeClosed(1, size)
+                .mapToObj(id -> InMemoryProductRepository.product(String.valueOf(id)))
+                .toList();
+        responseBody = new ByteArrayOutputStream(size * 128);
+        productJsonCache.writeArray(products, responseBody);
+    }
+
+    @Benchmark
+    public byte[] serializeProductList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    /** What the Jackson message converter does: stream the list into the response body. */
+    @Benchmark
+    public int writeWithJackson() throws IOException {
+        responseBody.reset();
+        objectMapper.writeValue(responseBody, products);
+        return responseBody.size();
+    }
+
+    /** What {@code PreSerializedProductListConverter} does with a warm cache. */
+    @Benchmark
+    public int writePreSerialized() throws IOException {
+        responseBody.reset();
+        productJsonCache.writeArray(products, responseBody);
+        return responseBody.size();
+    }
+}
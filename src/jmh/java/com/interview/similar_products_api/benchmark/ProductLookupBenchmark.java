@@ -0,0 +1,99 @@
+package com.interview.similar_products_api.benchmark;
+
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.infrastructure.config.AppConfig;
+import com.interview.similar_products_api.infrastructure.config.CodecProperties;
+import com.interview.similar_products_api.infrastructure.config.TransportProperties;
+import com.interview.similar_products_api.infrastructure.rest.ProductRestClientAdapter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a missing product detail: the adapter reading the 404 into a
+ * {@link ProductLookup}, against the previous approach of a status handler
+ * throwing {@link ProductNotFoundException} that is caught and turned into
+ * an empty {@link Optional}. Both share one client and the local stub, so
+ * {@code gc.alloc.rate.norm} shows what the exception costs per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ProductLookupBenchmark {
+
+    private StubProductServer server;
+    private ExecutorService virtualThreadExecutor;
+    private ClientHttpRequestFactory requestFactory;
+    private RestClient restClient;
+    private ProductRestClientAdapter adapter;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StubProductServer();
+        virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        TransportProperties transport = new TransportProperties(TransportProperties.Protocol.HTTP_1_1,
+                Duration.ofSeconds(1), Duration.ofSeconds(5), TransportProperties.ClientExecutor.DEFAULT,
+                new TransportProperties.Pool(64, 64, Duration.ofSeconds(30), Duration.ofSeconds(10),
+                        Duration.ofMillis(100)));
+
+        AppConfig appConfig = new AppConfig();
+        requestFactory = appConfig.upstreamRequestFactory(transport, virtualThreadExecutor, new SimpleMeterRegistry());
+        restClient = appConfig.restClient(requestFactory, new CodecProperties(true, 4096), server.url());
+        adapter = new ProductRestClientAdapter(restClient);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (requestFactory instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+        virtualThreadExecutor.shutdownNow();
+        server.close();
+    }
+
+    @Benchmark
+    public ProductLookup missingProductAsResult() {
+        return adapter.getProductDetail("missing-1");
+    }
+
+    @Benchmark
+    public Optional<ProductDetail> missingProductAsException() {
+        try {
+            return Optional.ofNullable(restClient.get()
+                    .uri("/product/{productId}", "missing-1")
+                    .retrieve()
+                    .onStatus(status -> status.value() == 404, (request, response) -> {
+                        throw new ProductNotFoundException("missing-1");
+                    })
+                    .body(ProductDetail.class));
+        } catch (ProductNotFoundException ex) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.interview.similar_products_api.benchmark;
+
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.infrastructure.config.AppConfig;
+import com.interview.similar_products_api.infrastructure.config.CodecProperties;
+import com.interview.similar_products_api.infrastructure.config.TransportProperties;
+import com.interview.similar_products_api.infrastructure.rest.ProductRestClientAdapter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the upstream transports against a local stub: pooled HTTP/1.1
+ * keep-alive through Apache HttpClient, and h2c through the JDK client with
+ * either executor. The executor only applies to the JDK client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ProductRestClientAdapterBenchmark {
+
+    @Param({ "HTTP_1_1", "HTTP_2" })
+    public TransportProperties.Protocol protocol;
+
+    @Param({ "DEFAULT", "VIRTUAL" })
+    public TransportProperties.ClientExecutor executor;
+
+    private StubProductServer server;
+    private ExecutorService virtualThreadExecutor;
+    private ClientHttpRequestFactory requestFactory;
+    private ProductRestClientAdapter adapter;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StubProductServer();
+        virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        TransportProperties transport = new TransportProperties(protocol, Duration.ofSeconds(1),
+                Duration.ofSeconds(5), executor,
+                new TransportProperties.Pool(64, 64, Duration.ofSeconds(30), Duration.ofSeconds(10),
+                        Duration.ofMillis(100)));
+
+        AppConfig appConfig = new AppConfig();
+        requestFactory = appConfig.upstreamRequestFactory(transport, virtualThreadExecutor, new SimpleMeterRegistry());
+        adapter = new ProductRestClientAdapter(
+                appConfig.restClient(requestFactory, new CodecProperties(true, 4096), server.url()));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (requestFactory instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+        virtualThreadExecutor.shutdownNow();
+        server.close();
+    }
+
+    @Benchmark
+    public ProductLookup getProductDetail() {
+        return adapter.getProductDetail("2");
+    }
+
+    @Benchmark
+    public List<String> getSimilarProductIds() {
+        return adapter.getSimilarProductIds("1");
+    }
+}
@@ -0,0 +1,55 @@
+package com.interview.similar_products_api.benchmark;
+
+import com.interview.similar_products_api.application.service.ReactiveGetSimilarProductsService;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ResultOrder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Same workload as {@link GetSimilarProductsServiceBenchmark}, served by the
+ * reactive service, to compare the two execution models.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ReactiveGetSimilarProductsServiceBenchmark {
+
+    @Param({ "5", "20" })
+    private int fanOut;
+
+    @Param({ "NONE", "FIXED", "LOG_NORMAL", "LONG_TAIL" })
+    private LatencyDistribution latency;
+
+    private ReactiveGetSimilarProductsService service;
+
+    @Setup
+    public void setUp() {
+        service = new ReactiveGetSimilarProductsService(new InMemoryReactiveProductRepository(fanOut, latency),
+                Duration.ofSeconds(5), 32, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public List<ProductDetail> getSimilarProducts() {
+        return service.getSimilarProducts("1", ResultOrder.ORIGINAL).collectList().block();
+    }
+}
@@ -0,0 +1,87 @@
+package com.interview.similar_products_api.benchmark;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http2.Http2Protocol;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Minimal local stand-in for the product service: every product exists and
+ * has five similar ids, except ids starting with {@code missing}, which
+ * answer 404. Runs on embedded Tomcat so it answers HTTP/1.1 with
+ * keep-alive as well as h2c upgrades.
+ */
+public class StubProductServer implements AutoCloseable {
+
+    private static final byte[] SIMILAR_IDS = "[\"2\",\"3\",\"4\",\"5\",\"6\"]".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NOT_FOUND = "Product not found".getBytes(StandardCharsets.UTF_8);
+
+    private final Tomcat tomcat = new Tomcat();
+    private final Connector connector = new Connector();
+
+    public StubProductServer() throws IOException {
+        tomcat.setBaseDir(Files.createTempDirectory("stub-product-server").toString());
+        connector.setPort(0);
+        connector.addUpgradeProtocol(new Http2Protocol());
+        tomcat.getService().addConnector(connector);
+        tomcat.setConnector(connector);
+
+        StandardContext context = (StandardContext) tomcat.addContext("", null);
+        context.setClearReferencesThreadLocals(false);
+        context.setClearReferencesRmiTargets(false);
+        Tomcat.addServlet(context, "products", new ProductServlet());
+        context.addServletMappingDecoded("/*", "products");
+        try {
+            tomcat.start();
+        } catch (LifecycleException ex) {
+            throw new IOException("Could not start stub product server", ex);
+        }
+    }
+
+    public String url() {
+        return "http://localhost:" + connector.getLocalPort() + "/";
+    }
+
+    private static byte[] detail(String productId) {
+        return ("{\"id\":\"" + productId + "\",\"name\":\"Product " + productId
+                + "\",\"price\":19.99,\"availability\":true}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            tomcat.stop();
+            tomcat.destroy();
+        } catch (LifecycleException ex) {
+            throw new IOException("Could not stop stub product server", ex);
+        }
+    }
+
+    private static final class ProductServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            String path = request.getRequestURI();
+            if (path.startsWith("/product/missing")) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                response.setContentLength(NOT_FOUND.length);
+                response.getOutputStream().write(NOT_FOUND);
+                return;
+            }
+            byte[] body = path.endsWith("/similarids")
+                    ? SIMILAR_IDS
+                    : detail(path.substring("/product/".length()));
+            response.setContentType("application/json");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+}
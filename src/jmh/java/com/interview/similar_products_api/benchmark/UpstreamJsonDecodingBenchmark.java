@@ -0,0 +1,99 @@
+package com.interview.similar_products_api.benchmark;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.infrastructure.rest.ProductJsonCodec;
+import com.interview.similar_products_api.infrastructure.rest.ProductJsonConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads upstream bodies the way {@code RestClient} does, through a message
+ * converter: the default Jackson converter compared with
+ * {@link ProductJsonConverter}. Compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpstreamJsonDecodingBenchmark {
+
+    private static final Type ID_LIST = new ParameterizedTypeReference<List<String>>() {
+    }.getType();
+
+    private MappingJackson2HttpMessageConverter jacksonConverter;
+    private ProductJsonConverter productJsonConverter;
+    private byte[] detail;
+    private byte[] similarIds;
+
+    @Setup
+    public void setUp() {
+        jacksonConverter = new MappingJackson2HttpMessageConverter();
+        productJsonConverter = new ProductJsonConverter(new ProductJsonCodec(4096));
+        detail = "{\"id\":\"2\",\"name\":\"Product 2\",\"price\":19.99,\"availability\":true}"
+                .getBytes(StandardCharsets.UTF_8);
+        similarIds = "[\"2\",\"3\",\"4\",\"5\",\"6\"]".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object readDetailWithJackson() throws IOException {
+        return jacksonConverter.read(ProductDetail.class, null, json(detail));
+    }
+
+    @Benchmark
+    public Object readDetailWithCodec() throws IOException {
+        return productJsonConverter.read(ProductDetail.class, null, json(detail));
+    }
+
+    @Benchmark
+    public Object readSimilarIdsWithJackson() throws IOException {
+        return jacksonConverter.read(ID_LIST, null, json(similarIds));
+    }
+
+    @Benchmark
+    public Object readSimilarIdsWithCodec() throws IOException {
+        return productJsonConverter.read(ID_LIST, null, json(similarIds));
+    }
+
+    private static HttpInputMessage json(byte[] body) {
+        return new JsonInputMessage(new ByteArrayInputStream(body));
+    }
+
+    private record JsonInputMessage(InputStream getBody) implements HttpInputMessage {
+
+        private static final HttpHeaders HEADERS = HttpHeaders.readOnlyHttpHeaders(jsonHeaders());
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return HEADERS;
+        }
+
+        private static HttpHeaders jsonHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            return headers;
+        }
+    }
+}
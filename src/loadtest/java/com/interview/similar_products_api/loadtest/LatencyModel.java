@@ -0,0 +1,44 @@
+package com.interview.similar_products_api.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Response delay of a simulated endpoint, written as {@code none},
+ * {@code fixed:<duration>} or {@code lognormal:<median>:<sigma>}.
+ */
+public sealed interface LatencyModel {
+
+    LatencyModel NONE = new Fixed(Duration.ZERO);
+
+    Duration next();
+
+    static LatencyModel parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        return switch (parts[0]) {
+            case "none" -> NONE;
+            case "fixed" -> new Fixed(DurationStyle.detectAndParse(parts[1]));
+            case "lognormal" -> new LogNormal(DurationStyle.detectAndParse(parts[1]), Double.parseDouble(parts[2]));
+            default -> throw new IllegalArgumentException("Unknown latency model: " + spec);
+        };
+    }
+
+    record Fixed(Duration delay) implements LatencyModel {
+
+        @Override
+        public Duration next() {
+            return delay;
+        }
+    }
+
+    record LogNormal(Duration median, double sigma) implements LatencyModel {
+
+        @Override
+        public Duration next() {
+            double factor = Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+            return Duration.ofNanos(Math.round(median.toNanos() * factor));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.interview.similar_products_api.loadtest;
+
+import com.interview.similar_products_api.SimilarProductsApiApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the k6 scenarios of the README without Docker: starts a
+ * {@link SimulatedProductService}, starts the application against it on a
+ * random port, and drives each scenario with {@link OpenModelLoad} in turn.
+ *
+ * <p>Tuned with system properties: {@code loadtest.rate} (requests per
+ * second, 200), {@code loadtest.duration} (per scenario, 10s),
+ * {@code loadtest.scenarios} (comma separated, all by default),
+ * {@code loadtest.warmup} (unreported {@code normal} load before the
+ * scenarios, 0s like k6) and {@code loadtest.request-timeout} (60s), plus the per-id properties read by
+ * {@link SimulatedCatalog}. Application properties can be set the same way,
+ * e.g. {@code -Dspring.profiles.active=reactive}, or as program arguments.
+ */
+public final class LoadTestHarness {
+
+    private static final Map<String, String> SCENARIOS = new LinkedHashMap<>();
+
+    static {
+        SCENARIOS.put("normal", "/product/1/similar");
+        SCENARIOS.put("notFound", "/product/4/similar");
+        SCENARIOS.put("error", "/product/5/similar");
+        SCENARIOS.put("slow", "/product/2/similar");
+        SCENARIOS.put("verySlow", "/product/3/similar");
+    }
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.getInteger("loadtest.rate", 200);
+        Duration duration = DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "10s"));
+        Duration warmup = DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "0s"));
+        Duration requestTimeout = DurationStyle.detectAndParse(System.getProperty("loadtest.request-timeout", "60s"));
+        String scenarioNames = System.getProperty("loadtest.scenarios", String.join(",", SCENARIOS.keySet()));
+        List<String> scenarios = Arrays.stream(scenarioNames.split(",")).map(String::trim).toList();
+
+        List<OpenModelLoad.Result> results = new ArrayList<>();
+        try (SimulatedProductService upstream = new SimulatedProductService(SimulatedCatalog.fromSystemProperties());
+                ConfigurableApplicationContext application = startApplication(upstream.url(), args);
+                OpenModelLoad load = new OpenModelLoad(requestTimeout)) {
+            int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+            if (!warmup.isZero()) {
+                System.out.printf("Warming up: %d req/s for %s%n", rate, warmup);
+                load.run(URI.create("http://localhost:" + port + SCENARIOS.get("normal")), rate, warmup);
+            }
+            for (String scenario : scenarios) {
+                String path = SCENARIOS.get(scenario);
+                if (path == null) {
+                    throw new IllegalArgumentException("Unknown scenario " + scenario + ", expected one of "
+                            + SCENARIOS.keySet());
+                }
+                System.out.printf("Running %s: %d req/s for %s against %s%n", scenario, rate, duration, path);
+                results.add(load.run(URI.create("http://localhost:" + port + path), rate, duration));
+            }
+        }
+        print(scenarios, results);
+    }
+
+    private static ConfigurableApplicationContext startApplication(String upstreamUrl, String[] args) {
+        // command line arguments, so they take precedence over application.yaml
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0", "--external-api.url=" + upstreamUrl));
+        arguments.addAll(Arrays.asList(args));
+        return new SpringApplicationBuilder(SimilarProductsApiApplication.class)
+                .main(SimilarProductsApiApplication.class)
+                .run(arguments.toArray(String[]::new));
+    }
+
+    private static void print(List<String> scenarios, List<OpenModelLoad.Result> results) {
+        System.out.printf("%n%-10s %9s %7s %6s %6s %6s %6s %9s %9s %9s %9s %9s%n", "scenario", "req/s", "2xx",
+                "404", "5xx", "503", "error", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (int i = 0; i < results.size(); i++) {
+            OpenModelLoad.Result result = results.get(i);
+            System.out.printf("%-10s %9.1f %7d %6d %6d %6d %6d %9.1f %9.1f %9.1f %9.1f %9.1f%n", scenarios.get(i),
+                    result.throughput(), result.success(), result.notFound(), result.serverError(), result.shed(),
+                    result.failed(), result.percentileMillis(50), result.percentileMillis(90),
+                    result.percentileMillis(99), result.percentileMillis(99.9), result.maxMillis());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.interview.similar_products_api.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are started at a fixed arrival rate
+ * whether or not earlier ones have completed, the way real clients arrive.
+ * Latency is measured from the time a request was scheduled to start, not
+ * from when it was sent, so a stalled generator or server shows up in the
+ * percentiles instead of being hidden by coordinated omission.
+ */
+public class OpenModelLoad implements AutoCloseable {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final Duration requestTimeout;
+
+    public OpenModelLoad(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .build();
+    }
+
+    public Result run(URI target, int ratePerSecond, Duration duration) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long total = duration.toNanos() / intervalNanos;
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        StatusCounts statuses = new StatusCounts();
+        HttpRequest request = HttpRequest.newBuilder(target).timeout(requestTimeout).GET().build();
+
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[(int) total];
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            waitUntil(intendedStart);
+            inFlight[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        recorder.recordValue(Math.min(System.nanoTime() - intendedStart, HIGHEST_TRACKABLE_NANOS));
+                        statuses.record(response == null ? -1 : response.statusCode());
+                    });
+        }
+        CompletableFuture.allOf(inFlight).exceptionally(failure -> null).join();
+        long elapsed = System.nanoTime() - start;
+        return new Result(target.getPath(), recorder.getIntervalHistogram(), statuses.success.sum(),
+                statuses.notFound.sum(), statuses.serverError.sum(), statuses.shed.sum(), statuses.failed.sum(),
+                elapsed);
+    }
+
+    private static void waitUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static final class StatusCounts {
+
+        final LongAdder success = new LongAdder();
+        final LongAdder notFound = new LongAdder();
+        final LongAdder serverError = new LongAdder();
+        final LongAdder shed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+
+        void record(int status) {
+            if (status < 0) {
+                failed.increment();
+            } else if (status == 503) {
+                shed.increment();
+            } else if (status >= 500) {
+                serverError.increment();
+            } else if (status == 404) {
+                notFound.increment();
+            } else if (status < 300) {
+                success.increment();
+            } else {
+                failed.increment();
+            }
+        }
+    }
+
+    public record Result(String path, Histogram latency, long success, long notFound, long serverError, long shed,
+            long failed, long elapsedNanos) {
+
+        public double throughput() {
+            return latency.getTotalCount() / (elapsedNanos / 1e9);
+        }
+
+        public double percentileMillis(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        public double maxMillis() {
+            return latency.getMaxValue() / 1e6;
+        }
+    }
+
+    @Override
+    public void close() {
+        client.shutdownNow();
+        executor.shutdownNow();
+    }
+}
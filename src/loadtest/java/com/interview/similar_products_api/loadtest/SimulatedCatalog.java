@@ -0,0 +1,92 @@
+package com.interview.similar_products_api.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Products served by {@link SimulatedProductService}. Starts from the data of
+ * the {@code simulado} mock used by the k6 scenarios, and can be tuned per id
+ * with system properties:
+ * <ul>
+ *     <li>{@code loadtest.latency.<id>=fixed:100ms|lognormal:50ms:0.5|none}</li>
+ *     <li>{@code loadtest.error-rate.<id>=0.05}</li>
+ *     <li>{@code loadtest.similar-ids.<id>=2,3,4}</li>
+ * </ul>
+ * Ids that are not listed exist, answer after {@code loadtest.default-latency}
+ * and have {@code loadtest.fan-out} synthetic similar ids.
+ */
+public class SimulatedCatalog {
+
+    private final Map<String, SimulatedProduct> products = new ConcurrentHashMap<>();
+    private final LatencyModel defaultLatency;
+    private final int fanOut;
+
+    private SimulatedCatalog(LatencyModel defaultLatency, int fanOut) {
+        this.defaultLatency = defaultLatency;
+        this.fanOut = fanOut;
+    }
+
+    public static SimulatedCatalog fromSystemProperties() {
+        Properties properties = System.getProperties();
+        SimulatedCatalog catalog = new SimulatedCatalog(
+                LatencyModel.parse(properties.getProperty("loadtest.default-latency", "none")),
+                Integer.parseInt(properties.getProperty("loadtest.fan-out", "5")));
+        catalog.addSimuladoProducts();
+        properties.stringPropertyNames().forEach(name -> catalog.applyOverride(name, properties.getProperty(name)));
+        return catalog;
+    }
+
+    public SimulatedProduct get(String id) {
+        return products.computeIfAbsent(id, this::syntheticProduct);
+    }
+
+    /**
+     * Same ids, similar ids, delays and failures as the {@code simulado} mock:
+     * 100, 1000 and 10000 answer after 1s, 5s and 50s, 5 does not exist and
+     * 6 fails.
+     */
+    private void addSimuladoProducts() {
+        put(existing("1", List.of("2", "3", "4")));
+        put(existing("2", List.of("3", "100", "1000")));
+        put(existing("3", List.of("100", "1000", "10000")));
+        put(existing("4", List.of("1", "2", "5")));
+        put(new SimulatedProduct("5", false, List.of("1", "2", "6"), LatencyModel.NONE, 0));
+        put(existing("6", List.of()).withErrorRate(1));
+        put(existing("100", List.of()).withLatency(new LatencyModel.Fixed(Duration.ofSeconds(1))));
+        put(existing("1000", List.of()).withLatency(new LatencyModel.Fixed(Duration.ofSeconds(5))));
+        put(existing("10000", List.of()).withLatency(new LatencyModel.Fixed(Duration.ofSeconds(50))));
+    }
+
+    private void applyOverride(String name, String value) {
+        if (name.startsWith("loadtest.latency.")) {
+            String id = name.substring("loadtest.latency.".length());
+            put(get(id).withLatency(LatencyModel.parse(value)));
+        } else if (name.startsWith("loadtest.error-rate.")) {
+            String id = name.substring("loadtest.error-rate.".length());
+            put(get(id).withErrorRate(Double.parseDouble(value)));
+        } else if (name.startsWith("loadtest.similar-ids.")) {
+            String id = name.substring("loadtest.similar-ids.".length());
+            put(get(id).withSimilarIds(Arrays.stream(value.split(",")).map(String::trim).toList()));
+        }
+    }
+
+    private SimulatedProduct syntheticProduct(String id) {
+        List<String> similarIds = IntStream.rangeClosed(1, fanOut)
+                .mapToObj(i -> id + "-" + i)
+                .toList();
+        return new SimulatedProduct(id, true, similarIds, defaultLatency, 0);
+    }
+
+    private static SimulatedProduct existing(String id, List<String> similarIds) {
+        return new SimulatedProduct(id, true, similarIds, LatencyModel.NONE, 0);
+    }
+
+    private void put(SimulatedProduct product) {
+        products.put(product.id(), product);
+    }
+}
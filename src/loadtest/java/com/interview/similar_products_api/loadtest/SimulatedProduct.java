@@ -0,0 +1,28 @@
+package com.interview.similar_products_api.loadtest;
+
+import java.util.List;
+
+/**
+ * How the simulated product service answers for one product id. A product
+ * that does not exist answers 404 on both endpoints; otherwise each call
+ * waits for the latency model and then fails with 500 at the error rate.
+ */
+public record SimulatedProduct(
+        String id,
+        boolean exists,
+        List<String> similarIds,
+        LatencyModel latency,
+        double errorRate) {
+
+    public SimulatedProduct withSimilarIds(List<String> similarIds) {
+        return new SimulatedProduct(id, exists, similarIds, latency, errorRate);
+    }
+
+    public SimulatedProduct withLatency(LatencyModel latency) {
+        return new SimulatedProduct(id, exists, similarIds, latency, errorRate);
+    }
+
+    public SimulatedProduct withErrorRate(double errorRate) {
+        return new SimulatedProduct(id, exists, similarIds, latency, errorRate);
+    }
+}
@@ -0,0 +1,137 @@
+package com.interview.similar_products_api.loadtest;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http2.Http2Protocol;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded stand-in for the product service that answers from a
+ * {@link SimulatedCatalog}. Delayed responses are written from a scheduler
+ * through async servlet requests, so products configured with long delays do
+ * not hold a request thread and cannot run the simulator out of threads.
+ */
+public class SimulatedProductService implements AutoCloseable {
+
+    private final Tomcat tomcat = new Tomcat();
+    private final Connector connector = new Connector();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("simulated-latency").daemon().factory());
+
+    public SimulatedProductService(SimulatedCatalog catalog) throws IOException {
+        tomcat.setBaseDir(Files.createTempDirectory("simulated-product-service").toString());
+        connector.setPort(0);
+        connector.setProperty("maxConnections", "-1");
+        connector.addUpgradeProtocol(new Http2Protocol());
+        tomcat.getService().addConnector(connector);
+        tomcat.setConnector(connector);
+
+        StandardContext context = (StandardContext) tomcat.addContext("", null);
+        context.setClearReferencesThreadLocals(false);
+        context.setClearReferencesRmiTargets(false);
+        Tomcat.addServlet(context, "products", new ProductServlet(catalog, scheduler)).setAsyncSupported(true);
+        context.addServletMappingDecoded("/*", "products");
+        try {
+            tomcat.start();
+        } catch (LifecycleException ex) {
+            throw new IOException("Could not start simulated product service", ex);
+        }
+    }
+
+    public String url() {
+        return "http://localhost:" + connector.getLocalPort() + "/";
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            scheduler.shutdownNow();
+            tomcat.stop();
+            tomcat.destroy();
+        } catch (LifecycleException ex) {
+            throw new IOException("Could not stop simulated product service", ex);
+        }
+    }
+
+    private static final class ProductServlet extends HttpServlet {
+
+        private static final String SIMILAR_IDS_SUFFIX = "/similarids";
+
+        private final SimulatedCatalog catalog;
+        private final ScheduledExecutorService scheduler;
+
+        private ProductServlet(SimulatedCatalog catalog, ScheduledExecutorService scheduler) {
+            this.catalog = catalog;
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            String path = request.getRequestURI().substring("/product/".length());
+            boolean similarIds = path.endsWith(SIMILAR_IDS_SUFFIX);
+            SimulatedProduct product = catalog.get(similarIds
+                    ? path.substring(0, path.length() - SIMILAR_IDS_SUFFIX.length())
+                    : path);
+
+            Duration delay = product.latency().next();
+            if (delay.isZero() || delay.isNegative()) {
+                respond(product, similarIds, response);
+                return;
+            }
+            AsyncContext async = request.startAsync();
+            async.setTimeout(0);
+            scheduler.schedule(() -> {
+                try {
+                    respond(product, similarIds, (HttpServletResponse) async.getResponse());
+                } catch (IOException ex) {
+                    // the client gave up waiting
+                } finally {
+                    async.complete();
+                }
+            }, delay.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        private static void respond(SimulatedProduct product, boolean similarIds, HttpServletResponse response)
+                throws IOException {
+            if (!product.exists()) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if (ThreadLocalRandom.current().nextDouble() < product.errorRate()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                return;
+            }
+            byte[] body = (similarIds ? similarIdsJson(product) : detailJson(product))
+                    .getBytes(StandardCharsets.UTF_8);
+            response.setContentType("application/json");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+
+        private static String similarIdsJson(SimulatedProduct product) {
+            return product.similarIds().stream()
+                    .map(id -> "\"" + id + "\"")
+                    .collect(Collectors.joining(",", "[", "]"));
+        }
+
+        private static String detailJson(SimulatedProduct product) {
+            return "{\"id\":\"" + product.id() + "\",\"name\":\"Product " + product.id()
+                    + "\",\"price\":19.99,\"availability\":true}";
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.interview.similar_products_api.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast each packaging of the application becomes useful: the
+ * time from launching the process to the first successful
+ * {@code /product/1/similar} against a {@link SimulatedProductService}, and
+ * the resident set size right after that request.
+ *
+ * <p>Runs the modes built by the {@code fast-startup} profile from
+ * {@code startup.directory}: {@code jar} (plain JVM), {@code aot} (Spring AOT
+ * initializers), {@code cds} and {@code aot-cds} (with the class data sharing
+ * archives of the training runs), plus {@code native} when the binary at
+ * {@code startup.native} exists. Tuned with system properties:
+ * {@code startup.modes} (comma separated, all available by default),
+ * {@code startup.runs} (per mode, 5) and {@code startup.timeout} (60s).
+ * Resident set size is read from {@code /proc} and left out elsewhere.
+ */
+public final class StartupBenchmark {
+
+    private static final String PROBE_PATH = "/product/1/similar";
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(5);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Path.of(System.getProperty("startup.directory", "target/fast-startup"));
+        String jar = System.getProperty("startup.jar", "similar-products-api-0.0.1-SNAPSHOT.jar");
+        Path nativeImage = Path.of(System.getProperty("startup.native", "target/similar-products-api"));
+        int runs = Integer.getInteger("startup.runs", 5);
+        Duration timeout = DurationStyle.detectAndParse(System.getProperty("startup.timeout", "60s"));
+
+        Map<String, List<String>> modes = modes(directory, jar, nativeImage);
+        String selected = System.getProperty("startup.modes");
+        if (selected != null) {
+            List<String> names = Arrays.stream(selected.split(",")).map(String::trim).toList();
+            for (String name : names) {
+                if (!modes.containsKey(name)) {
+                    throw new IllegalArgumentException("Unavailable mode " + name + ", expected one of "
+                            + modes.keySet());
+                }
+            }
+            modes.keySet().retainAll(names);
+        }
+
+        Map<String, List<Sample>> results = new LinkedHashMap<>();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        try (SimulatedProductService upstream = new SimulatedProductService(SimulatedCatalog.fromSystemProperties())) {
+            for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                List<Sample> samples = new ArrayList<>();
+                for (int run = 0; run < runs; run++) {
+                    Sample sample = measure(mode.getValue(), directory, upstream.url(), client, timeout);
+                    System.out.printf("%-8s run %d: %7.1f ms, %6.1f MB%n", mode.getKey(), run + 1,
+                            sample.millis(), sample.rssMegabytes());
+                    samples.add(sample);
+                }
+                results.put(mode.getKey(), samples);
+            }
+        }
+        print(results);
+    }
+
+    private static Map<String, List<String>> modes(Path directory, String jar, Path nativeImage) {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("jar", List.of(java, "-jar", jar));
+        modes.put("aot", List.of(java, "-Dspring.aot.enabled=true", "-jar", jar));
+        modes.put("cds", List.of(java, "-XX:SharedArchiveFile=application.jsa", "-Xlog:cds=off", "-jar", jar));
+        modes.put("aot-cds", List.of(java, "-XX:SharedArchiveFile=application-aot.jsa", "-Xlog:cds=off",
+                "-Dspring.aot.enabled=true", "-jar", jar));
+        if (!Files.isRegularFile(directory.resolve(jar))) {
+            System.out.printf("No extracted jar at %s, run ./mvnw -Pfast-startup package first%n",
+                    directory.resolve(jar));
+            modes.clear();
+        }
+        if (Files.isExecutable(nativeImage)) {
+            modes.put("native", List.of(nativeImage.toAbsolutePath().toString()));
+        }
+        return modes;
+    }
+
+    private static Sample measure(List<String> command, Path directory, String upstreamUrl, HttpClient client,
+            Duration timeout) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> arguments = new ArrayList<>(command);
+        arguments.addAll(List.of("--server.port=" + port, "--external-api.url=" + upstreamUrl,
+                "--logging.level.root=WARN"));
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port + PROBE_PATH))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(arguments)
+                .directory(directory.toFile())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            long deadline = started + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(String.join(" ", command) + " exited with "
+                            + process.exitValue());
+                }
+                if (succeeds(client, probe)) {
+                    long elapsed = System.nanoTime() - started;
+                    return new Sample(elapsed / 1_000_000.0, residentSetMegabytes(process.pid()));
+                }
+                Thread.sleep(POLL_INTERVAL);
+            }
+            throw new IllegalStateException(String.join(" ", command) + " did not answer within " + timeout);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static boolean succeeds(HttpClient client, HttpRequest probe) throws InterruptedException {
+        try {
+            return client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException ex) {
+            // not listening yet
+            return false;
+        }
+    }
+
+    private static double residentSetMegabytes(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) / 1024.0;
+                }
+            }
+        } catch (IOException ex) {
+            // no procfs on this platform
+        }
+        return Double.NaN;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void print(Map<String, List<Sample>> results) {
+        System.out.printf("%n%-8s %5s %9s %9s %9s %9s%n", "mode", "runs", "min ms", "p50 ms", "max ms", "p50 MB");
+        results.forEach((mode, samples) -> {
+            double[] millis = samples.stream().mapToDouble(Sample::millis).sorted().toArray();
+            double[] megabytes = samples.stream().mapToDouble(Sample::rssMegabytes).sorted().toArray();
+            System.out.printf("%-8s %5d %9.1f %9.1f %9.1f %9.1f%n", mode, samples.size(), millis[0],
+                    median(millis), millis[millis.length - 1], median(megabytes));
+        });
+    }
+
+    private static double median(double[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+
+    private record Sample(double millis, double rssMegabytes) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.interview.similar_products_api.application.service;
+
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.model.ProductChangeType;
+import com.interview.similar_products_api.domain.port.in.ApplyProductChangesCommand;
+import com.interview.similar_products_api.domain.port.out.ProductChangeListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class ApplyProductChangesService implements ApplyProductChangesCommand {
+
+    private final ProductChangeListener productChangeListener;
+    private final Counter upserts;
+    private final Counter deletes;
+
+    public ApplyProductChangesService(ProductChangeListener productChangeListener, MeterRegistry meterRegistry) {
+        this.productChangeListener = productChangeListener;
+        this.upserts = changeCounter(meterRegistry, ProductChangeType.UPSERT);
+        this.deletes = changeCounter(meterRegistry, ProductChangeType.DELETE);
+    }
+
+    @Override
+    public void applyChanges(List<ProductChange> changes) {
+        for (ProductChange change : changes) {
+            productChangeListener.onProductChange(change);
+            (change.type() == ProductChangeType.UPSERT ? upserts : deletes).increment();
+        }
+    }
+
+    private static Counter changeCounter(MeterRegistry meterRegistry, ProductChangeType type) {
+        return Counter.builder("product.changes")
+                .description("Product change events applied to the caches")
+                .tag("type", type.name().toLowerCase())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,49 @@
+package com.interview.similar_products_api.application.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * A {@link CompletableFuture} whose {@link #cancel(boolean)} reaches the task
+ * computing it: a task not started yet never runs, and a running one is
+ * interrupted when {@code mayInterruptIfRunning} is set, so a blocking
+ * upstream call is abandoned instead of running on after nobody waits for
+ * it. {@link CompletableFuture#supplyAsync} cannot do this, its futures are
+ * only completed by the task, never connected to it. Dependent stages are
+ * plain futures, so cancel the one returned here.
+ */
+public final class CancellableFuture<T> extends CompletableFuture<T> {
+
+    private final FutureTask<Void> task;
+
+    private CancellableFuture(Supplier<T> supplier) {
+        this.task = new FutureTask<>(() -> {
+            try {
+                complete(supplier.get());
+            } catch (Throwable ex) {
+                completeExceptionally(ex);
+            }
+        }, null);
+    }
+
+    /**
+     * Runs the supplier on the executor, completing the returned future with
+     * its result or with whatever it threw.
+     */
+    public static <T> CancellableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        CancellableFuture<T> future = new CancellableFuture<>(supplier);
+        executor.execute(future.task);
+        return future;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            task.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+}
@@ -1,43 +1,407 @@
 package com.interview.similar_products_api.application.service;
 
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamTimeoutException;
 import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductFilter;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.model.ResultOrder;
+import com.interview.similar_products_api.domain.model.SimilarProducts;
+import com.interview.similar_products_api.domain.model.SimilarProductsPage;
+import com.interview.similar_products_api.domain.model.SimilarProductsPageRequest;
+import com.interview.similar_products_api.domain.model.SimilarProductsResult;
 import com.interview.similar_products_api.domain.port.in.GetSimilarProductsQuery;
 import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class GetSimilarProductsService implements GetSimilarProductsQuery {
 
     private final ProductRepository productRepository;
     private final ExecutorService executorService;
+    private final Duration deadline;
+    private final Counter truncatedResponses;
+    private final DistributionSummary fanOut;
+    private final DistributionSummary pageDetailsFetched;
+    private final Counter omittedNotFound;
+    private final Counter omittedUpstreamError;
+    private final Counter omittedTimeout;
+    private final Counter omittedDeadline;
+    private final Counter omittedRejected;
 
     public GetSimilarProductsService(ProductRepository productRepository,
-            ExecutorService executorService) {
+            ExecutorService executorService,
+            @Value("${similar-products.deadline:2s}") Duration deadline,
+            MeterRegistry meterRegistry) {
         this.productRepository = productRepository;
         this.executorService = executorService;
+        this.deadline = deadline;
+        this.truncatedResponses = Counter.builder("similar.products.truncated")
+                .description("Responses returned with only the details ready before the deadline")
+                .register(meterRegistry);
+        this.fanOut = DistributionSummary.builder("similar.products.fanout")
+                .description("Number of similar ids returned for a product")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.pageDetailsFetched = DistributionSummary.builder("similar.products.page.fetched")
+                .description("Number of product details fetched to fill a page")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.omittedNotFound = omittedCounter(meterRegistry, "not_found");
+        this.omittedUpstreamError = omittedCounter(meterRegistry, "upstream_error");
+        this.omittedTimeout = omittedCounter(meterRegistry, "timeout");
+        this.omittedDeadline = omittedCounter(meterRegistry, "deadline");
+        this.omittedRejected = omittedCounter(meterRegistry, "rejected");
     }
 
+    /**
+     * The whole list, complete unless a detail was omitted for any reason
+     * other than the product not existing.
+     */
     @Override
-    public List<ProductDetail> getSimilarProducts(String productId) {
-        List<String> similarIds = productRepository.getSimilarProductIds(productId);
-        if (similarIds == null || similarIds.isEmpty()) {
-            return List.of();
+    public SimilarProducts getSimilarProducts(String productId) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        List<String> ids = similarIds(productId, deadlineNanos);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<CompletableFuture<ProductDetail>> futures = fetchDetails(ids, deadlineNanos, failed);
+        try (Stream<ProductDetail> similarProducts = details(futures, ResultOrder.ORIGINAL, deadlineNanos)) {
+            List<ProductDetail> products = similarProducts.toList();
+            boolean truncated = futures.stream().anyMatch(CompletableFuture::isCancelled);
+            return new SimilarProducts(ids, products, !failed.get() && !truncated);
         }
+    }
 
-        List<CompletableFuture<ProductDetail>> futures = similarIds.stream()
-                .map(id -> CompletableFuture
-                        .supplyAsync(() -> productRepository.getProductDetail(id).orElse(null), executorService)
-                        .exceptionally(ex -> null))
-                .toList();
+    /**
+     * Fetches details in rounds of as many ids as products are still needed,
+     * starting at {@code pageRequest.start()}, so filtered out or missing
+     * products are topped up from later ids and nothing past a full page is
+     * fetched. At the deadline the page is returned as it is, and the next
+     * one resumes from the first id without an answer.
+     */
+    @Override
+    public SimilarProductsPage getSimilarProductsPage(String productId, SimilarProductsPageRequest pageRequest) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        List<String> ids = similarIds(productId, deadlineNanos);
+
+        ProductFilter filter = pageRequest.filter();
+        List<ProductDetail> products = new ArrayList<>(Math.min(pageRequest.limit(), ids.size()));
+        int toSkip = pageRequest.offset();
+        int next = Math.min(pageRequest.start(), ids.size());
+        int fetched = 0;
+        AtomicBoolean failed = new AtomicBoolean();
+        while (products.size() < pageRequest.limit() && next < ids.size()) {
+            // a request without a limit asks for Integer.MAX_VALUE, so the sum is taken as a long
+            long needed = (long) toSkip + pageRequest.limit() - products.size();
+            int end = (int) Math.min(ids.size(), next + needed);
+            List<CompletableFuture<ProductDetail>> round = ids.subList(next, end)
+                    .stream()
+                    .map(id -> fetchDetail(id, deadlineNanos, failed))
+                    .toList();
+            fetched += round.size();
+            for (CompletableFuture<ProductDetail> future : round) {
+                ProductDetail productDetail = awaitUntil(future, deadlineNanos);
+                if (!future.isDone()) {
+                    // not omitted, the next page asks for these ids again
+                    round.forEach(pending -> pending.cancel(true));
+                    truncatedResponses.increment();
+                    pageDetailsFetched.record(fetched);
+                    return new SimilarProductsPage(List.copyOf(products), next, false);
+                }
+                next++;
+                if (productDetail == null || !filter.matches(productDetail)) {
+                    continue;
+                }
+                if (toSkip > 0) {
+                    toSkip--;
+                } else {
+                    products.add(productDetail);
+                }
+            }
+        }
+        pageDetailsFetched.record(fetched);
+        return new SimilarProductsPage(List.copyOf(products), next < ids.size() ? next : SimilarProductsPage.END,
+                !failed.get());
+    }
 
-        return futures.stream()
-                .map(CompletableFuture::join)
-                .filter(Objects::nonNull)
+    @Override
+    public Stream<ProductDetail> streamSimilarProducts(String productId, ResultOrder order) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        List<String> ids = similarIds(productId, deadlineNanos);
+        return details(fetchDetails(ids, deadlineNanos, new AtomicBoolean()), order, deadlineNanos);
+    }
+
+    @Override
+    public Map<String, SimilarProductsResult> getSimilarProductsBatch(List<String> productIds) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+
+        Map<String, CompletableFuture<List<String>>> similarIdsByProduct = new LinkedHashMap<>();
+        for (String productId : productIds) {
+            similarIdsByProduct.computeIfAbsent(productId, id -> CancellableFuture.supplyAsync(
+                    () -> RequestDeadline.supplyWithin(deadlineNanos, () -> productRepository.getSimilarProductIds(id)),
+                    executorService));
+        }
+
+        Map<String, CompletableFuture<ProductDetail>> detailsById = new HashMap<>();
+        Map<String, SimilarProductsResult> results = new LinkedHashMap<>();
+        Map<String, List<String>> pendingProducts = new LinkedHashMap<>();
+        similarIdsByProduct.forEach((productId, similarIdsFuture) -> {
+            try {
+                List<String> similarIds = similarIdsFuture.get(deadlineNanos - System.nanoTime(),
+                        TimeUnit.NANOSECONDS);
+                List<String> ids = similarIds == null ? List.of() : similarIds;
+                fanOut.record(ids.size());
+                ids.forEach(id -> detailsById.computeIfAbsent(id, key -> fetchDetail(key, deadlineNanos)));
+                pendingProducts.put(productId, ids);
+                results.put(productId, null);
+            } catch (ExecutionException ex) {
+                results.put(productId, ex.getCause() instanceof ProductNotFoundException
+                        ? SimilarProductsResult.notFound()
+                        : SimilarProductsResult.upstreamError());
+            } catch (TimeoutException ex) {
+                similarIdsFuture.cancel(true);
+                results.put(productId, SimilarProductsResult.upstreamError());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                results.put(productId, SimilarProductsResult.upstreamError());
+            }
+        });
+
+        boolean truncated = false;
+        for (Map.Entry<String, List<String>> pending : pendingProducts.entrySet()) {
+            List<ProductDetail> products = new ArrayList<>(pending.getValue().size());
+            for (String id : pending.getValue()) {
+                // a detail shared with an earlier entry may already be cancelled past the deadline
+                CompletableFuture<ProductDetail> future = detailsById.get(id);
+                ProductDetail productDetail = truncated
+                        ? readyOrNull(future)
+                        : awaitUntil(future, deadlineNanos);
+                if (!future.isDone()) {
+                    truncated = true;
+                    omitPastDeadline(future);
+                }
+                if (productDetail != null) {
+                    products.add(productDetail);
+                }
+            }
+            results.put(pending.getKey(), SimilarProductsResult.ok(products));
+        }
+        if (truncated) {
+            truncatedResponses.increment();
+        }
+        return results;
+    }
+
+    private List<String> similarIds(String productId, long deadlineNanos) {
+        List<String> similarIds = RequestDeadline.supplyWithin(deadlineNanos,
+                () -> productRepository.getSimilarProductIds(productId));
+        List<String> ids = similarIds == null ? List.of() : similarIds;
+        fanOut.record(ids.size());
+        return ids;
+    }
+
+    private List<CompletableFuture<ProductDetail>> fetchDetails(List<String> ids, long deadlineNanos,
+            AtomicBoolean failed) {
+        return ids.stream()
+                .map(id -> fetchDetail(id, deadlineNanos, failed))
                 .toList();
     }
+
+    private Stream<ProductDetail> details(List<CompletableFuture<ProductDetail>> futures, ResultOrder order,
+            long deadlineNanos) {
+        if (futures.isEmpty()) {
+            return Stream.empty();
+        }
+        Spliterator<ProductDetail> details = order == ResultOrder.COMPLETION
+                ? new CompletionOrderDetails(futures, deadlineNanos)
+                : new OriginalOrderDetails(futures, deadlineNanos);
+        return StreamSupport.stream(details, false)
+                .onClose(() -> futures.forEach(future -> future.cancel(true)));
+    }
+
+    private CompletableFuture<ProductDetail> fetchDetail(String id, long deadlineNanos) {
+        return fetchDetail(id, deadlineNanos, new AtomicBoolean());
+    }
+
+    /**
+     * Fetches a detail on the executor, setting {@code failed} when the
+     * lookup failed rather than found the product or confirmed it missing. Failures are folded into the task
+     * rather than into a dependent stage, so the returned future is the one
+     * whose cancellation interrupts the upstream call.
+     */
+    private CompletableFuture<ProductDetail> fetchDetail(String id, long deadlineNanos, AtomicBoolean failed) {
+        return CancellableFuture.supplyAsync(() -> RequestDeadline.supplyWithin(deadlineNanos, () -> {
+            try {
+                ProductLookup productLookup = productRepository.getProductDetail(id);
+                // a lookup cut short by cancellation was already counted as past the deadline
+                if (Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                if (productLookup.isFailure()) {
+                    failed.set(true);
+                }
+                return detailOrOmit(productLookup);
+            } catch (RuntimeException ex) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                failed.set(true);
+                return omit(ex instanceof UpstreamTimeoutException ? omittedTimeout : omittedUpstreamError);
+            }
+        }), executorService);
+    }
+
+    private ProductDetail detailOrOmit(ProductLookup productLookup) {
+        return switch (productLookup) {
+            case ProductLookup.Found found -> found.detail();
+            case ProductLookup.NotFound notFound -> omit(omittedNotFound);
+            case ProductLookup.Timeout timeout -> omit(omittedTimeout);
+            case ProductLookup.UpstreamError error -> omit(omittedUpstreamError);
+            case ProductLookup.Rejected rejected -> omit(omittedRejected);
+        };
+    }
+
+    private void omitPastDeadline(CompletableFuture<ProductDetail> future) {
+        if (future.cancel(true)) {
+            omittedDeadline.increment();
+        }
+    }
+
+    private static ProductDetail omit(Counter reason) {
+        reason.increment();
+        return null;
+    }
+
+    private static Counter omittedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("similar.products.omitted")
+                .description("Similar products left out of a response")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private final class OriginalOrderDetails extends Spliterators.AbstractSpliterator<ProductDetail> {
+
+        private final List<CompletableFuture<ProductDetail>> futures;
+        private final long deadlineNanos;
+        private int next;
+        private boolean expired;
+
+        private OriginalOrderDetails(List<CompletableFuture<ProductDetail>> futures, long deadlineNanos) {
+            super(futures.size(), Spliterator.ORDERED | Spliterator.NONNULL);
+            this.futures = futures;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ProductDetail> action) {
+            while (next < futures.size()) {
+                CompletableFuture<ProductDetail> future = futures.get(next++);
+                ProductDetail productDetail = expired
+                        ? readyOrNull(future)
+                        : awaitUntil(future, deadlineNanos);
+                if (!future.isDone()) {
+                    if (!expired) {
+                        expired = true;
+                        truncatedResponses.increment();
+                    }
+                    omitPastDeadline(future);
+                }
+                if (productDetail != null) {
+                    action.accept(productDetail);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final class CompletionOrderDetails extends Spliterators.AbstractSpliterator<ProductDetail> {
+
+        private final List<CompletableFuture<ProductDetail>> futures;
+        private final BlockingQueue<CompletableFuture<ProductDetail>> completed = new LinkedBlockingQueue<>();
+        private final long deadlineNanos;
+        private int remaining;
+
+        private CompletionOrderDetails(List<CompletableFuture<ProductDetail>> futures, long deadlineNanos) {
+            super(futures.size(), Spliterator.NONNULL);
+            this.futures = futures;
+            this.deadlineNanos = deadlineNanos;
+            this.remaining = futures.size();
+            futures.forEach(future -> future.whenComplete((productDetail, ex) -> completed.add(future)));
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ProductDetail> action) {
+            while (remaining > 0) {
+                CompletableFuture<ProductDetail> future = pollUntilDeadline();
+                if (future == null) {
+                    remaining = 0;
+                    futures.stream()
+                            .filter(pending -> !pending.isDone())
+                            .forEach(GetSimilarProductsService.this::omitPastDeadline);
+                    truncatedResponses.increment();
+                    return false;
+                }
+                remaining--;
+                ProductDetail productDetail = future.getNow(null);
+                if (productDetail != null) {
+                    action.accept(productDetail);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private CompletableFuture<ProductDetail> pollUntilDeadline() {
+            try {
+                return completed.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private static ProductDetail readyOrNull(CompletableFuture<ProductDetail> future) {
+        return future.isCancelled() ? null : future.getNow(null);
+    }
+
+    /**
+     * The detail, or null when it failed, was cancelled or is not ready by
+     * the deadline.
+     */
+    private static ProductDetail awaitUntil(CompletableFuture<ProductDetail> future, long deadlineNanos) {
+        try {
+            return future.get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException | CancellationException ex) {
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
 }
@@ -0,0 +1,74 @@
+package com.interview.similar_products_api.application.service;
+
+import com.interview.similar_products_api.domain.exception.UpstreamTimeoutException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ResultOrder;
+import com.interview.similar_products_api.domain.port.in.ReactiveGetSimilarProductsQuery;
+import com.interview.similar_products_api.domain.port.out.ReactiveProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking variant of {@link GetSimilarProductsService}, active with the
+ * {@code reactive} profile. Details are fetched with at most
+ * {@code maxConcurrency} requests in flight per call, failed details are
+ * omitted, and whatever has not arrived by the deadline is cancelled.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveGetSimilarProductsService implements ReactiveGetSimilarProductsQuery {
+
+    private final ReactiveProductRepository productRepository;
+    private final Duration deadline;
+    private final int maxConcurrency;
+    private final Counter truncatedResponses;
+    private final Counter omittedUpstreamError;
+    private final Counter omittedTimeout;
+
+    public ReactiveGetSimilarProductsService(ReactiveProductRepository productRepository,
+            @Value("${similar-products.deadline:2s}") Duration deadline,
+            @Value("${similar-products.reactive.max-concurrency:32}") int maxConcurrency,
+            MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.deadline = deadline;
+        this.maxConcurrency = maxConcurrency;
+        this.truncatedResponses = Counter.builder("similar.products.truncated")
+                .description("Responses returned with only the details ready before the deadline")
+                .register(meterRegistry);
+        this.omittedUpstreamError = omittedCounter(meterRegistry, "upstream_error");
+        this.omittedTimeout = omittedCounter(meterRegistry, "timeout");
+    }
+
+    @Override
+    public Flux<ProductDetail> getSimilarProducts(String productId, ResultOrder order) {
+        Mono<Long> deadlineReached = Mono.delay(deadline).doOnNext(tick -> truncatedResponses.increment());
+        return productRepository.getSimilarProductIds(productId)
+                .flatMapMany(Flux::fromIterable)
+                .transform(similarIds -> order == ResultOrder.COMPLETION
+                        ? similarIds.flatMap(this::fetchDetail, maxConcurrency)
+                        : similarIds.flatMapSequential(this::fetchDetail, maxConcurrency))
+                .takeUntilOther(deadlineReached);
+    }
+
+    private Mono<ProductDetail> fetchDetail(String id) {
+        return productRepository.getProductDetail(id)
+                .onErrorResume(ex -> {
+                    (ex instanceof UpstreamTimeoutException ? omittedTimeout : omittedUpstreamError).increment();
+                    return Mono.empty();
+                });
+    }
+
+    private static Counter omittedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("similar.products.omitted")
+                .description("Similar products left out of a response")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
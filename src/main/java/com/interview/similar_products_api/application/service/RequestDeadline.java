@@ -0,0 +1,53 @@
+package com.interview.similar_products_api.application.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Carries the end-to-end deadline of the request being served on the current
+ * thread, so that layers below the service, such as retries, can tell how
+ * much time is left. Work handed to another thread has to be wrapped with
+ * {@link #propagate(Supplier)} to keep it.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Runs the supplier with the given {@link System#nanoTime()} deadline set,
+     * restoring whatever was set before.
+     */
+    public static <T> T supplyWithin(long deadlineNanos, Supplier<T> supplier) {
+        Long previous = DEADLINE_NANOS.get();
+        DEADLINE_NANOS.set(deadlineNanos);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                DEADLINE_NANOS.remove();
+            } else {
+                DEADLINE_NANOS.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Wraps the supplier so it runs within the current thread's deadline on
+     * whichever thread calls it.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> supplier) {
+        Long deadlineNanos = DEADLINE_NANOS.get();
+        return deadlineNanos == null ? supplier : () -> supplyWithin(deadlineNanos, supplier);
+    }
+
+    /**
+     * Nanoseconds until the deadline, negative once it has passed, or
+     * {@link Long#MAX_VALUE} when no deadline is set.
+     */
+    public static long remainingNanos() {
+        Long deadlineNanos = DEADLINE_NANOS.get();
+        return deadlineNanos == null ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+    }
+}
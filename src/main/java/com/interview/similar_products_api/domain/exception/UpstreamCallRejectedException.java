@@ -0,0 +1,12 @@
+package com.interview.similar_products_api.domain.exception;
+
+/**
+ * The call was not sent upstream because a local guard turned it away, so it
+ * says nothing about the health of the upstream service.
+ */
+public class UpstreamCallRejectedException extends ExternalServiceException {
+
+    public UpstreamCallRejectedException(String message) {
+        super(message);
+    }
+}
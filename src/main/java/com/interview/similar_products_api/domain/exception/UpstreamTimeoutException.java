@@ -0,0 +1,8 @@
+package com.interview.similar_products_api.domain.exception;
+
+public class UpstreamTimeoutException extends ExternalServiceException {
+
+    public UpstreamTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,23 @@
+package com.interview.similar_products_api.domain.model;
+
+import java.util.List;
+
+/**
+ * A change to a product pushed by the catalogue. An upsert carries the new
+ * detail, the new similar ids, or both; a delete carries neither.
+ */
+public record ProductChange(
+        ProductChangeType type,
+        String productId,
+        ProductDetail detail,
+        List<String> similarIds) {
+
+    public static ProductChange upsert(String productId, ProductDetail detail, List<String> similarIds) {
+        return new ProductChange(ProductChangeType.UPSERT, productId, detail,
+                similarIds == null ? null : List.copyOf(similarIds));
+    }
+
+    public static ProductChange delete(String productId) {
+        return new ProductChange(ProductChangeType.DELETE, productId, null, null);
+    }
+}
@@ -0,0 +1,6 @@
+package com.interview.similar_products_api.domain.model;
+
+public enum ProductChangeType {
+    UPSERT,
+    DELETE
+}
@@ -0,0 +1,28 @@
+package com.interview.similar_products_api.domain.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Conditions a similar product must meet to be returned. Null fields do not
+ * filter; a product without a price never matches a price range.
+ */
+public record ProductFilter(
+        Boolean available,
+        BigDecimal minPrice,
+        BigDecimal maxPrice) {
+
+    public static final ProductFilter NONE = new ProductFilter(null, null, null);
+
+    public boolean matches(ProductDetail productDetail) {
+        if (available != null && productDetail.availability() != available) {
+            return false;
+        }
+        if (minPrice == null && maxPrice == null) {
+            return true;
+        }
+        BigDecimal price = productDetail.price();
+        return price != null
+                && (minPrice == null || price.compareTo(minPrice) >= 0)
+                && (maxPrice == null || price.compareTo(maxPrice) <= 0);
+    }
+}
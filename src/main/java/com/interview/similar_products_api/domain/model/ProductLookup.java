@@ -0,0 +1,61 @@
+package com.interview.similar_products_api.domain.model;
+
+/**
+ * Outcome of looking up one product detail upstream. Missing products and
+ * failures are values rather than exceptions, so the per-id path of a
+ * similar products request never pays for capturing a stack trace.
+ */
+public sealed interface ProductLookup {
+
+    static ProductLookup found(ProductDetail detail) {
+        return new Found(detail);
+    }
+
+    static ProductLookup notFound() {
+        return NotFound.INSTANCE;
+    }
+
+    static ProductLookup upstreamError(String message, boolean retryable) {
+        return new UpstreamError(message, retryable);
+    }
+
+    static ProductLookup timeout(String message) {
+        return new Timeout(message);
+    }
+
+    static ProductLookup rejected(String message) {
+        return new Rejected(message);
+    }
+
+    /**
+     * Whether the upstream gave no answer about the product, as opposed to
+     * finding it or confirming it does not exist.
+     */
+    default boolean isFailure() {
+        return this instanceof UpstreamError || this instanceof Timeout || this instanceof Rejected;
+    }
+
+    record Found(ProductDetail detail) implements ProductLookup {
+    }
+
+    record NotFound() implements ProductLookup {
+
+        private static final NotFound INSTANCE = new NotFound();
+    }
+
+    /**
+     * Upstream error; client errors are marked not retryable.
+     */
+    record UpstreamError(String message, boolean retryable) implements ProductLookup {
+    }
+
+    record Timeout(String message) implements ProductLookup {
+    }
+
+    /**
+     * Not sent upstream because a local guard, such as the concurrency
+     * limit, turned the call away.
+     */
+    record Rejected(String message) implements ProductLookup {
+    }
+}
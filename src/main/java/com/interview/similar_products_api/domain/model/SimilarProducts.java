@@ -0,0 +1,16 @@
+package com.interview.similar_products_api.domain.model;
+
+import java.util.List;
+
+/**
+ * The similar products of a product, in the order of its similar ids, and
+ * whether the list is complete: it is not when some of them were left out
+ * because their detail could not be fetched in time or failed, rather than
+ * because they do not exist. An incomplete list is still worth returning,
+ * but not worth keeping.
+ */
+public record SimilarProducts(
+        List<String> similarIds,
+        List<ProductDetail> products,
+        boolean complete) {
+}
@@ -0,0 +1,21 @@
+package com.interview.similar_products_api.domain.model;
+
+import java.util.List;
+
+/**
+ * Products of one page, and the position in the similar ids the next page
+ * starts from, or {@link #END} when every similar id has been looked at. The
+ * page is not complete when it was cut short by the deadline or a detail
+ * failed, so the same request could get a different page next time.
+ */
+public record SimilarProductsPage(
+        List<ProductDetail> products,
+        int nextStart,
+        boolean complete) {
+
+    public static final int END = -1;
+
+    public boolean hasMore() {
+        return nextStart != END;
+    }
+}
@@ -0,0 +1,19 @@
+package com.interview.similar_products_api.domain.model;
+
+/**
+ * A page of similar products: the products matching {@code filter} found
+ * from position {@code start} of the similar ids, skipping the first
+ * {@code offset} of them and returning at most {@code limit}.
+ */
+public record SimilarProductsPageRequest(
+        int start,
+        int offset,
+        int limit,
+        ProductFilter filter) {
+
+    public SimilarProductsPageRequest {
+        if (start < 0 || offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("start and offset must not be negative and limit must be positive");
+        }
+    }
+}
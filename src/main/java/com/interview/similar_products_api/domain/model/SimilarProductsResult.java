@@ -0,0 +1,20 @@
+package com.interview.similar_products_api.domain.model;
+
+import java.util.List;
+
+public record SimilarProductsResult(
+        SimilarProductsStatus status,
+        List<ProductDetail> products) {
+
+    public static SimilarProductsResult ok(List<ProductDetail> products) {
+        return new SimilarProductsResult(SimilarProductsStatus.OK, products);
+    }
+
+    public static SimilarProductsResult notFound() {
+        return new SimilarProductsResult(SimilarProductsStatus.NOT_FOUND, List.of());
+    }
+
+    public static SimilarProductsResult upstreamError() {
+        return new SimilarProductsResult(SimilarProductsStatus.UPSTREAM_ERROR, List.of());
+    }
+}
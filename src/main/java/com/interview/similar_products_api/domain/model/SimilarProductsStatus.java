@@ -0,0 +1,7 @@
+package com.interview.similar_products_api.domain.model;
+
+public enum SimilarProductsStatus {
+    OK,
+    NOT_FOUND,
+    UPSTREAM_ERROR
+}
@@ -0,0 +1,9 @@
+package com.interview.similar_products_api.domain.port.in;
+
+import com.interview.similar_products_api.domain.model.ProductChange;
+
+import java.util.List;
+
+public interface ApplyProductChangesCommand {
+    void applyChanges(List<ProductChange> changes);
+}
@@ -1,9 +1,22 @@
 package com.interview.similar_products_api.domain.port.in;
 
 import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ResultOrder;
+import com.interview.similar_products_api.domain.model.SimilarProducts;
+import com.interview.similar_products_api.domain.model.SimilarProductsPage;
+import com.interview.similar_products_api.domain.model.SimilarProductsPageRequest;
+import com.interview.similar_products_api.domain.model.SimilarProductsResult;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface GetSimilarProductsQuery {
-    List<ProductDetail> getSimilarProducts(String productId);
+    SimilarProducts getSimilarProducts(String productId);
+
+    SimilarProductsPage getSimilarProductsPage(String productId, SimilarProductsPageRequest pageRequest);
+
+    Stream<ProductDetail> streamSimilarProducts(String productId, ResultOrder order);
+
+    Map<String, SimilarProductsResult> getSimilarProductsBatch(List<String> productIds);
 }
@@ -0,0 +1,9 @@
+package com.interview.similar_products_api.domain.port.in;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ResultOrder;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveGetSimilarProductsQuery {
+    Flux<ProductDetail> getSimilarProducts(String productId, ResultOrder order);
+}
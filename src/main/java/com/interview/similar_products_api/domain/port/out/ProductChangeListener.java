@@ -0,0 +1,11 @@
+package com.interview.similar_products_api.domain.port.out;
+
+import com.interview.similar_products_api.domain.model.ProductChange;
+
+/**
+ * Receives product changes so that anything holding copies of product data
+ * can update or drop them in place.
+ */
+public interface ProductChangeListener {
+    void onProductChange(ProductChange change);
+}
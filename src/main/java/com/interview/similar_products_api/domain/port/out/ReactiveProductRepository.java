@@ -0,0 +1,17 @@
+package com.interview.similar_products_api.domain.port.out;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link ProductRepository}. A missing product
+ * detail completes empty instead of returning {@code Optional.empty()}.
+ */
+public interface ReactiveProductRepository {
+
+    Mono<List<String>> getSimilarProductIds(String productId);
+
+    Mono<ProductDetail> getProductDetail(String productId);
+}
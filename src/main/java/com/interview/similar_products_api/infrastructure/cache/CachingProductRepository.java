@@ -0,0 +1,114 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.model.ProductChangeType;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.ProductCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps product details in memory in front of the upstream repository.
+ * Caffeine's W-TinyLFU policy bounds the size, found and not-found entries
+ * get their own TTL, and entries older than {@code refreshAfter} are served
+ * stale while being reloaded on the given executor. Failed lookups are
+ * returned without being cached, and a failed reload keeps the stale entry.
+ */
+public class CachingProductRepository implements ProductRepository {
+
+    private final ProductRepository delegate;
+    private final LoadingCache<String, ProductLookup> details;
+    private final Duration ttl;
+
+    public CachingProductRepository(ProductRepository delegate, ProductCacheProperties properties,
+            Executor executor, MeterRegistry meterRegistry) {
+        this(delegate, properties, executor, Ticker.systemTicker());
+        CaffeineCacheMetrics.monitor(meterRegistry, details, "product-details");
+    }
+
+    CachingProductRepository(ProductRepository delegate, ProductCacheProperties properties,
+            Executor executor, Ticker ticker) {
+        this.delegate = delegate;
+        this.ttl = properties.ttl();
+        this.details = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(Expiry.writing((String id, ProductLookup lookup) -> lookup instanceof ProductLookup.Found
+                        ? properties.ttl()
+                        : properties.notFoundTtl()))
+                .refreshAfterWrite(properties.refreshAfter())
+                .executor(executor)
+                .ticker(ticker)
+                .recordStats()
+                .build(this::reload);
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        return delegate.getSimilarProductIds(productId);
+    }
+
+    @Override
+    public ProductLookup getProductDetail(String productId) {
+        ProductLookup cached = details.getIfPresent(productId);
+        if (cached != null) {
+            return cached;
+        }
+        ProductLookup productLookup = delegate.getProductDetail(productId);
+        if (!productLookup.isFailure()) {
+            details.put(productId, productLookup);
+        }
+        return productLookup;
+    }
+
+    /**
+     * Replaces the cached detail with the pushed one, or caches a deleted
+     * product as not found, so readers see the change before the TTL runs out.
+     */
+    public void apply(ProductChange change) {
+        if (change.type() == ProductChangeType.DELETE) {
+            details.put(change.productId(), ProductLookup.notFound());
+        } else if (change.detail() != null) {
+            details.put(change.productId(), ProductLookup.found(change.detail()));
+        }
+    }
+
+    /**
+     * Seeds the cache with a detail loaded elsewhere, expiring when the
+     * source entry does or after the configured TTL, whichever comes first.
+     */
+    public void warm(ProductDetail productDetail, Duration remainingTtl) {
+        Duration expiresAfter = remainingTtl.compareTo(ttl) < 0 ? remainingTtl : ttl;
+        details.policy().expireVariably().ifPresent(expiry -> expiry.putIfAbsent(productDetail.id(),
+                ProductLookup.found(productDetail), expiresAfter));
+    }
+
+    /**
+     * Loader used only by refresh-after-write. Caffeine keeps the current
+     * entry when a refresh throws, which is what a failed lookup should do;
+     * returning null would evict it instead.
+     */
+    private ProductLookup reload(String productId) {
+        ProductLookup productLookup = delegate.getProductDetail(productId);
+        if (productLookup.isFailure()) {
+            throw new RefreshFailedException(productId);
+        }
+        return productLookup;
+    }
+
+    private static final class RefreshFailedException extends RuntimeException {
+
+        private RefreshFailedException(String productId) {
+            super("Could not refresh product detail " + productId, null, false, false);
+        }
+    }
+}
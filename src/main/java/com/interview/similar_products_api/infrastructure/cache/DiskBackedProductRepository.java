@@ -0,0 +1,161 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.model.ProductChangeType;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.DiskCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Second cache tier kept in a {@link ProductCacheFile}, below the in-memory
+ * cache. Lookups that miss in memory are answered from disk while the entry
+ * is within its TTL, and upstream answers are appended to the file so they
+ * survive a restart. Not-found answers are not persisted.
+ *
+ * <p>The file is a cache, never a reason to fail a request: a lookup that
+ * hits an I/O error or a corrupt record is counted and goes to the delegate,
+ * a removal that could not be logged is counted, and an upstream
+ * answer is only written when the file is free, so a request never waits
+ * for another write or a compaction.
+ */
+public class DiskBackedProductRepository implements ProductRepository {
+
+    private final ProductRepository delegate;
+    private final ProductCacheFile cacheFile;
+    private final Clock clock;
+    private final Duration detailTtl;
+    private final Duration similarIdsTtl;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter skippedWrites;
+    private final Counter errors;
+
+    public DiskBackedProductRepository(ProductRepository delegate, ProductCacheFile cacheFile,
+            DiskCacheProperties properties, MeterRegistry meterRegistry) {
+        this(delegate, cacheFile, properties, Clock.systemUTC(), meterRegistry);
+    }
+
+    DiskBackedProductRepository(ProductRepository delegate, ProductCacheFile cacheFile,
+            DiskCacheProperties properties, Clock clock, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cacheFile = cacheFile;
+        this.clock = clock;
+        this.detailTtl = properties.detailTtl();
+        this.similarIdsTtl = properties.similarIdsTtl();
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.skippedWrites = Counter.builder("product.disk.cache.writes.skipped")
+                .description("Upstream answers not written because the file was busy or full")
+                .register(meterRegistry);
+        this.errors = Counter.builder("product.disk.cache.errors")
+                .description("Lookups and writes that failed on the product cache file")
+                .register(meterRegistry);
+        FunctionCounter.builder("product.disk.cache.evictions", cacheFile, ProductCacheFile::evictions)
+                .description("Live entries dropped by compactions to free half the file")
+                .register(meterRegistry);
+        FunctionCounter.builder("product.disk.cache.compaction.failures", cacheFile,
+                        ProductCacheFile::compactionFailures)
+                .description("Compactions that failed and left the current file in place")
+                .register(meterRegistry);
+        Gauge.builder("product.disk.cache.entries", cacheFile, ProductCacheFile::size)
+                .description("Live entries indexed in the product cache file")
+                .register(meterRegistry);
+        Gauge.builder("product.disk.cache.used", cacheFile, ProductCacheFile::usedBytes)
+                .description("Bytes written to the product cache file since the last compaction")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        List<String> cached = readSafely(() -> cacheFile.getSimilarIds(productId));
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        List<String> similarIds = delegate.getSimilarProductIds(productId);
+        if (similarIds != null) {
+            writeSafely(() -> cacheFile.tryPutSimilarIds(productId, similarIds,
+                    clock.instant().plus(similarIdsTtl)));
+        }
+        return similarIds;
+    }
+
+    @Override
+    public ProductLookup getProductDetail(String productId) {
+        ProductDetail cached = readSafely(() -> cacheFile.getDetail(productId));
+        if (cached != null) {
+            hits.increment();
+            return ProductLookup.found(cached);
+        }
+        misses.increment();
+        ProductLookup productLookup = delegate.getProductDetail(productId);
+        if (productLookup instanceof ProductLookup.Found found) {
+            writeSafely(() -> cacheFile.tryPutDetail(found.detail(), clock.instant().plus(detailTtl)));
+        }
+        return productLookup;
+    }
+
+    /**
+     * Writes pushed details and similar ids through to the file, or drops
+     * both for a deleted product.
+     */
+    public void apply(ProductChange change) {
+        if (change.type() == ProductChangeType.DELETE) {
+            writeSafely(() -> {
+                cacheFile.remove(change.productId());
+                return true;
+            });
+            return;
+        }
+        if (change.detail() != null) {
+            cacheFile.putDetail(change.detail(), clock.instant().plus(detailTtl));
+        }
+        if (change.similarIds() != null) {
+            cacheFile.putSimilarIds(change.productId(), change.similarIds(), clock.instant().plus(similarIdsTtl));
+        }
+    }
+
+    /**
+     * Runs a lookup, treating a failure as a miss: besides I/O errors, a
+     * record that passed its CRC but does not decode throws whatever the
+     * buffer or parser throws for it.
+     */
+    private <T> T readSafely(Supplier<T> lookup) {
+        try {
+            return lookup.get();
+        } catch (RuntimeException ex) {
+            errors.increment();
+            return null;
+        }
+    }
+
+    private void writeSafely(BooleanSupplier write) {
+        try {
+            if (!write.getAsBoolean()) {
+                skippedWrites.increment();
+            }
+        } catch (RuntimeException ex) {
+            errors.increment();
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("product.disk.cache")
+                .description("Lookups in the product cache file")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
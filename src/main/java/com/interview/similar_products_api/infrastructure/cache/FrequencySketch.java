@@ -0,0 +1,70 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Count-min sketch estimating how often each key was seen, in memory fixed
+ * by the width regardless of how many distinct keys pass through. Counters
+ * are halved every {@code 10 * width} increments so the estimate follows
+ * recent popularity rather than all-time totals.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final int DEPTH = SEEDS.length;
+
+    private final int widthMask;
+    private final long sampleSize;
+    private final AtomicIntegerArray counters;
+    private final AtomicLong additions = new AtomicLong();
+
+    FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(2, expectedKeys) * 2 - 1);
+        this.widthMask = width - 1;
+        this.sampleSize = 10L * width;
+        this.counters = new AtomicIntegerArray(DEPTH * width);
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        for (int row = 0; row < DEPTH; row++) {
+            counters.incrementAndGet(indexOf(hash, row));
+        }
+        if (additions.incrementAndGet() >= sampleSize) {
+            age();
+        }
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, counters.get(indexOf(hash, row)));
+        }
+        return frequency;
+    }
+
+    private synchronized void age() {
+        if (additions.get() < sampleSize) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+        additions.set(additions.get() >>> 1);
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * (widthMask + 1) + ((int) h & widthMask);
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        return hash ^ (hash >>> 16);
+    }
+}
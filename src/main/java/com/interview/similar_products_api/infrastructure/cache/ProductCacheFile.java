@@ -0,0 +1,535 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of product details and similar id lists in a memory-mapped
+ * file, with an in-memory index from key to the latest record.
+ *
+ * <p>Each record is {@code [int length][int crc32c][body]}, where the body is
+ * {@code [byte type][long expiresAtMillis][key][payload]}. The length is
+ * written last and a zero length follows every record, so a write torn by a
+ * crash leaves either a zero length or a CRC mismatch, and the startup scan
+ * stops there.
+ *
+ * <p>Lookups never lock: they read the index and the mapped buffer of the
+ * current {@link Log}, which compaction replaces as a whole. Writes are
+ * serialized by a lock. A write that does not fit is dropped, together with
+ * any older record of its key, and a compaction is started on a background
+ * thread: the live records are copied to a new file that atomically replaces
+ * the old one, keeping the entries that expire last within half the
+ * capacity, so a compaction always frees at least half the file.
+ */
+public final class ProductCacheFile implements AutoCloseable {
+
+    private static final int MAGIC = 0x53505243;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int TERMINATOR_BYTES = 4;
+    private static final byte DETAIL = 1;
+    private static final byte SIMILAR_IDS = 2;
+    private static final Duration COMPACTION_RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final Path path;
+    private final int capacity;
+    private final Clock clock;
+    private final Executor compactionExecutor;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong compactionFailures = new AtomicLong();
+    private volatile Log log;
+    private volatile int writePosition;
+    private FileChannel channel;
+    private Instant compactNotBefore = Instant.MIN;
+
+    private ProductCacheFile(Path path, int capacity, Clock clock, Executor compactionExecutor) {
+        this.path = path;
+        this.capacity = capacity;
+        this.clock = clock;
+        this.compactionExecutor = compactionExecutor;
+    }
+
+    public static ProductCacheFile open(Path path, long maxSizeBytes, Clock clock) {
+        return open(path, maxSizeBytes, clock, Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("product-cache-compaction").daemon().factory()));
+    }
+
+    static ProductCacheFile open(Path path, long maxSizeBytes, Clock clock, Executor compactionExecutor) {
+        int capacity = (int) Math.min(maxSizeBytes, Integer.MAX_VALUE);
+        ProductCacheFile file = new ProductCacheFile(path, capacity, clock, compactionExecutor);
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            file.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            file.load(file.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open product cache file " + path, ex);
+        }
+        return file;
+    }
+
+    public ProductDetail getDetail(String productId) {
+        ByteBuffer body = liveBody(log, new Key(DETAIL, productId));
+        return body == null ? null : readDetail(productId, body);
+    }
+
+    public List<String> getSimilarIds(String productId) {
+        ByteBuffer body = liveBody(log, new Key(SIMILAR_IDS, productId));
+        return body == null ? null : readSimilarIds(body);
+    }
+
+    /**
+     * Writes the detail, waiting for a compaction in progress.
+     */
+    public void putDetail(ProductDetail productDetail, Instant expiresAt) {
+        writeLock.lock();
+        try {
+            appendDetail(productDetail, expiresAt);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the detail unless another write or a compaction holds the file,
+     * for callers that must not wait, like a request filling the cache.
+     *
+     * @return whether the detail was written
+     */
+    public boolean tryPutDetail(ProductDetail productDetail, Instant expiresAt) {
+        if (!writeLock.tryLock()) {
+            return false;
+        }
+        try {
+            return appendDetail(productDetail, expiresAt);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void putSimilarIds(String productId, List<String> similarIds, Instant expiresAt) {
+        writeLock.lock();
+        try {
+            appendSimilarIds(productId, similarIds, expiresAt);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean tryPutSimilarIds(String productId, List<String> similarIds, Instant expiresAt) {
+        if (!writeLock.tryLock()) {
+            return false;
+        }
+        try {
+            return appendSimilarIds(productId, similarIds, expiresAt);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean appendDetail(ProductDetail productDetail, Instant expiresAt) {
+        byte[] name = utf8(productDetail.name());
+        byte[] unscaledPrice = productDetail.price() == null
+                ? null
+                : productDetail.price().unscaledValue().toByteArray();
+        ByteBuffer payload = ByteBuffer.allocate(
+                Integer.BYTES + length(name) + Integer.BYTES + length(unscaledPrice) + Integer.BYTES + 1);
+        putBytes(payload, name);
+        putBytes(payload, unscaledPrice);
+        if (unscaledPrice != null) {
+            payload.putInt(productDetail.price().scale());
+        }
+        payload.put(productDetail.availability() ? (byte) 1 : (byte) 0);
+        return append(DETAIL, productDetail.id(), expiresAt, payload.flip());
+    }
+
+    private boolean appendSimilarIds(String productId, List<String> similarIds, Instant expiresAt) {
+        List<byte[]> ids = similarIds.stream().map(ProductCacheFile::utf8).toList();
+        int size = Integer.BYTES;
+        for (byte[] id : ids) {
+            size += Integer.BYTES + length(id);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(size);
+        payload.putInt(ids.size());
+        ids.forEach(id -> putBytes(payload, id));
+        return append(SIMILAR_IDS, productId, expiresAt, payload.flip());
+    }
+
+    /**
+     * Drops the detail and similar ids of a product. Expired records are
+     * skipped when the file is loaded, so the removal is logged as records
+     * that expired at the epoch and survives a restart. A file too full for
+     * them is compacted first, in this thread; if that fails the entries are
+     * kept, so what is served never differs from what a restart would load.
+     */
+    public void remove(String productId) {
+        int length = recordLength(productId.getBytes(StandardCharsets.UTF_8).length, 0);
+        writeLock.lock();
+        try {
+            for (byte type : new byte[] { DETAIL, SIMILAR_IDS }) {
+                Key key = new Key(type, productId);
+                if (log.index().containsKey(key) && !hasRoom(length)) {
+                    compact();
+                }
+                // the compaction may have evicted it, leaving nothing to remove
+                if (!log.index().containsKey(key)) {
+                    continue;
+                }
+                if (!hasRoom(length)) {
+                    throw new UncheckedIOException("Could not log the removal of " + productId + " in " + path,
+                            new IOException("No room left after compaction"));
+                }
+                append(type, productId, Instant.EPOCH, ByteBuffer.allocate(0));
+                log.index().remove(key);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Visits every product detail that has not expired yet, with its expiry.
+     */
+    public void forEachDetail(BiConsumer<ProductDetail, Instant> action) {
+        Log current = log;
+        Instant now = clock.instant();
+        current.index().forEach((key, slot) -> {
+            if (key.type() == DETAIL && slot.expiresAt().isAfter(now)) {
+                action.accept(readDetail(key.productId(), body(current, slot)), slot.expiresAt());
+            }
+        });
+    }
+
+    public int size() {
+        return log.index().size();
+    }
+
+    public int usedBytes() {
+        return writePosition;
+    }
+
+    /**
+     * Live entries dropped by compactions to free half the file.
+     */
+    public long evictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Compactions that failed and left the current log in place.
+     */
+    public long compactionFailures() {
+        return compactionFailures.get();
+    }
+
+    @Override
+    public void close() {
+        if (compactionExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        writeLock.lock();
+        try {
+            log.buffer().force();
+            channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not close product cache file " + path, ex);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private ByteBuffer liveBody(Log current, Key key) {
+        Slot slot = current.index().get(key);
+        if (slot == null) {
+            return null;
+        }
+        if (!slot.expiresAt().isAfter(clock.instant())) {
+            current.index().remove(key, slot);
+            return null;
+        }
+        return body(current, slot);
+    }
+
+    /**
+     * Appends a record while holding the write lock. A record that does not
+     * fit is dropped along with the older one of its key, which would
+     * otherwise be served in its place, and a compaction is started.
+     */
+    private boolean append(byte type, String productId, Instant expiresAt, ByteBuffer payload) {
+        byte[] key = productId.getBytes(StandardCharsets.UTF_8);
+        int length = recordLength(key.length, payload.remaining());
+        if (!hasRoom(length)) {
+            startCompaction();
+            if (!hasRoom(length)) {
+                log.index().remove(new Key(type, productId));
+                return false;
+            }
+        }
+        MappedByteBuffer buffer = log.buffer();
+        int position = writePosition;
+        ByteBuffer body = buffer.slice(position + RECORD_HEADER_BYTES, length);
+        body.put(type).putLong(expiresAt.toEpochMilli()).putInt(key.length).put(key).put(payload);
+        buffer.putInt(position + RECORD_HEADER_BYTES + length, 0);
+        buffer.putInt(position + Integer.BYTES, crc(buffer.slice(position + RECORD_HEADER_BYTES, length)));
+        buffer.putInt(position, length);
+
+        log.index().put(new Key(type, productId), new Slot(position, length, expiresAt));
+        writePosition = position + RECORD_HEADER_BYTES + length;
+        return true;
+    }
+
+    private static int recordLength(int keyBytes, int payloadBytes) {
+        return 1 + Long.BYTES + Integer.BYTES + keyBytes + payloadBytes;
+    }
+
+    private boolean hasRoom(int length) {
+        return (long) writePosition + RECORD_HEADER_BYTES + length + TERMINATOR_BYTES <= capacity;
+    }
+
+    private void startCompaction() {
+        if (clock.instant().isBefore(compactNotBefore) || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            compactionExecutor.execute(this::compact);
+        } catch (RuntimeException ex) {
+            // shutting down
+            compacting.set(false);
+        }
+    }
+
+    /**
+     * Rewrites the kept records into a sibling file and atomically moves it
+     * over this one, so a crash leaves either the old or the new log intact.
+     * The new file stays open across the move and becomes the current log, so
+     * a failure at any step leaves the old log in use.
+     */
+    private void compact() {
+        writeLock.lock();
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        FileChannel target = null;
+        try {
+            Files.deleteIfExists(compacted);
+            target = FileChannel.open(compacted, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            MappedByteBuffer targetBuffer = target.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            targetBuffer.putInt(0, MAGIC).putInt(Integer.BYTES, VERSION);
+            ConcurrentMap<Key, Slot> targetIndex = new ConcurrentHashMap<>();
+            int position = FILE_HEADER_BYTES;
+            for (var entry : keptEntriesInFileOrder(clock.instant())) {
+                Slot slot = entry.getValue();
+                int recordBytes = RECORD_HEADER_BYTES + slot.length();
+                targetBuffer.put(position, log.buffer(), slot.position(), recordBytes);
+                targetIndex.put(entry.getKey(), new Slot(position, slot.length(), slot.expiresAt()));
+                position += recordBytes;
+            }
+            targetBuffer.putInt(position, 0);
+            targetBuffer.force();
+            Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            FileChannel previous = channel;
+            channel = target;
+            target = null;
+            log = new Log(targetBuffer, targetIndex);
+            writePosition = position;
+            closeQuietly(previous);
+        } catch (IOException | RuntimeException ex) {
+            compactionFailures.incrementAndGet();
+            compactNotBefore = clock.instant().plus(COMPACTION_RETRY_DELAY);
+            closeQuietly(target);
+            try {
+                Files.deleteIfExists(compacted);
+            } catch (IOException ignored) {
+                // retried with the next compaction
+            }
+        } finally {
+            compacting.set(false);
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * The live entries that fit in half the file, keeping those that expire
+     * last, in the order they were written.
+     */
+    private List<Map.Entry<Key, Slot>> keptEntriesInFileOrder(Instant now) {
+        List<Map.Entry<Key, Slot>> live = new ArrayList<>();
+        for (var entry : log.index().entrySet()) {
+            if (entry.getValue().expiresAt().isAfter(now)) {
+                live.add(entry);
+            }
+        }
+        live.sort(Comparator.comparing((Map.Entry<Key, Slot> entry) -> entry.getValue().expiresAt())
+                .reversed());
+        long budget = (capacity - FILE_HEADER_BYTES - TERMINATOR_BYTES) / 2;
+        List<Map.Entry<Key, Slot>> kept = new ArrayList<>();
+        for (var entry : live) {
+            budget -= RECORD_HEADER_BYTES + entry.getValue().length();
+            if (budget < 0) {
+                break;
+            }
+            kept.add(entry);
+        }
+        evictions.addAndGet(live.size() - kept.size());
+        kept.sort(Comparator.comparingInt(entry -> entry.getValue().position()));
+        return kept;
+    }
+
+    private static void closeQuietly(FileChannel fileChannel) {
+        if (fileChannel == null) {
+            return;
+        }
+        try {
+            fileChannel.close();
+        } catch (IOException ignored) {
+            // the mapping stays valid, nothing is lost
+        }
+    }
+
+    private void load(MappedByteBuffer buffer) {
+        ConcurrentMap<Key, Slot> index = new ConcurrentHashMap<>();
+        log = new Log(buffer, index);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            buffer.putInt(0, MAGIC).putInt(Integer.BYTES, VERSION).putInt(FILE_HEADER_BYTES, 0);
+            writePosition = FILE_HEADER_BYTES;
+            return;
+        }
+
+        Instant now = clock.instant();
+        int position = FILE_HEADER_BYTES;
+        while (position + RECORD_HEADER_BYTES <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || (long) position + RECORD_HEADER_BYTES + length > capacity) {
+                break;
+            }
+            ByteBuffer body = buffer.slice(position + RECORD_HEADER_BYTES, length);
+            if (crc(body.duplicate()) != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            byte type = body.get();
+            Instant expiresAt = Instant.ofEpochMilli(body.getLong());
+            Key key = new Key(type, getString(body));
+            if (expiresAt.isAfter(now)) {
+                index.put(key, new Slot(position, length, expiresAt));
+            } else {
+                index.remove(key);
+            }
+            position += RECORD_HEADER_BYTES + length;
+        }
+        // anything past the last valid record is a torn write, start appending over it
+        writePosition = position;
+        if (position + TERMINATOR_BYTES <= capacity) {
+            buffer.putInt(position, 0);
+        }
+    }
+
+    private static ByteBuffer body(Log current, Slot slot) {
+        ByteBuffer body = current.buffer().slice(slot.position() + RECORD_HEADER_BYTES, slot.length());
+        body.position(1 + Long.BYTES);
+        getString(body);
+        return body;
+    }
+
+    private static ProductDetail readDetail(String productId, ByteBuffer body) {
+        String name = getString(body);
+        BigDecimal price = getDecimal(body);
+        boolean availability = body.get() == 1;
+        return new ProductDetail(productId, name, price, availability);
+    }
+
+    private static List<String> readSimilarIds(ByteBuffer body) {
+        int count = body.getInt();
+        List<String> similarIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            similarIds.add(getString(body));
+        }
+        return List.copyOf(similarIds);
+    }
+
+    private static int crc(ByteBuffer body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putBytes(ByteBuffer target, byte[] bytes) {
+        if (bytes == null) {
+            target.putInt(-1);
+            return;
+        }
+        target.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer source) {
+        int length = source.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer source) {
+        int length = source.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        source.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), source.getInt());
+    }
+
+    /**
+     * A mapped file with the index of its records, swapped as one by a
+     * compaction so a lookup never pairs a slot with the wrong file.
+     */
+    private record Log(MappedByteBuffer buffer, ConcurrentMap<Key, Slot> index) {
+    }
+
+    private record Key(byte type, String productId) {
+    }
+
+    private record Slot(int position, int length, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.port.out.ProductChangeListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Forwards product changes to every cache tier that registered for them, in
+ * registration order. Tiers are registered as they are composed, innermost
+ * first, so an outer tier never repopulates itself from stale data below.
+ */
+public class ProductChangeDispatcher implements ProductChangeListener {
+
+    private final List<ProductChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void register(ProductChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void onProductChange(ProductChange change) {
+        listeners.forEach(listener -> listener.onProductChange(change));
+    }
+}
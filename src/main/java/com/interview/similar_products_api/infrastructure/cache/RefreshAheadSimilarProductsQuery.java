@@ -0,0 +1,354 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.model.ProductChangeType;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ResultOrder;
+import com.interview.similar_products_api.domain.model.SimilarProducts;
+import com.interview.similar_products_api.domain.model.SimilarProductsPage;
+import com.interview.similar_products_api.domain.model.SimilarProductsPageRequest;
+import com.interview.similar_products_api.domain.model.SimilarProductsResult;
+import com.interview.similar_products_api.domain.port.in.GetSimilarProductsQuery;
+import com.interview.similar_products_api.infrastructure.config.ResponseCacheProperties;
+import com.interview.similar_products_api.infrastructure.resilience.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Caches the assembled similar products list per product id. Requests are
+ * counted in a {@link FrequencySketch}; on every tick the most requested
+ * cached ids that are within {@code refreshAhead} of expiring are reloaded
+ * on the given executor, at most {@code maxRefreshesPerSecond}, so hot ids
+ * keep being served from memory. Only complete lists are cached, and a
+ * refresh that comes back incomplete keeps the current entry. Paged,
+ * streaming and batch calls pass through.
+ */
+public class RefreshAheadSimilarProductsQuery implements GetSimilarProductsQuery, AutoCloseable {
+
+    private final GetSimilarProductsQuery delegate;
+    private final Executor executor;
+    private final Ticker ticker;
+    private final Cache<String, CachedResult> results;
+    private final SingleFlight<String, SimilarProducts> loads;
+    private final FrequencySketch sketch;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, Set<String>> responsesListing = new ConcurrentHashMap<>();
+    private final long refreshAfterNanos;
+    private final int hotSetSize;
+    private final int refreshesPerTick;
+    private final ScheduledExecutorService scheduler;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refreshes;
+    private final Counter failedRefreshes;
+    private final Counter incompleteRefreshes;
+
+    public RefreshAheadSimilarProductsQuery(GetSimilarProductsQuery delegate, ResponseCacheProperties properties,
+            Executor executor, MeterRegistry meterRegistry) {
+        this(delegate, properties, executor, Ticker.systemTicker(), meterRegistry);
+        scheduler.scheduleWithFixedDelay(this::refreshHotEntries, properties.refreshInterval().toMillis(),
+                properties.refreshInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    RefreshAheadSimilarProductsQuery(GetSimilarProductsQuery delegate, ResponseCacheProperties properties,
+            Executor executor, Ticker ticker, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.ticker = ticker;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.ttl())
+                .ticker(ticker)
+                .<String, CachedResult>evictionListener((productId, cached, cause) -> unindex(productId, cached, null))
+                .build();
+        this.loads = new SingleFlight<>(Counter.builder("similar.products.response.cache.shared.loads")
+                .description("Misses served by joining a load already running for the same product")
+                .register(meterRegistry)::increment);
+        this.sketch = new FrequencySketch((int) Math.min(properties.maximumSize(), Integer.MAX_VALUE / 2));
+        this.refreshAfterNanos = properties.ttl().minus(properties.refreshAhead()).toNanos();
+        this.hotSetSize = properties.hotSetSize();
+        this.refreshesPerTick = (int) Math.max(1,
+                properties.maxRefreshesPerSecond() * properties.refreshInterval().toMillis() / 1000);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("response-cache-refresh").daemon().factory());
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.refreshes = refreshCounter(meterRegistry, "success");
+        this.failedRefreshes = refreshCounter(meterRegistry, "failure");
+        this.incompleteRefreshes = refreshCounter(meterRegistry, "incomplete");
+    }
+
+    /**
+     * Serves the cached list, or loads it once however many requests miss
+     * together. The load runs outside the cache, so it holds no lock while
+     * it fans out upstream, and requests that joined it get its result,
+     * complete or not; only complete lists are cached.
+     */
+    @Override
+    public SimilarProducts getSimilarProducts(String productId) {
+        sketch.increment(productId);
+        CachedResult cached = results.getIfPresent(productId);
+        if (cached != null) {
+            hits.increment();
+            return cached.toSimilarProducts();
+        }
+        misses.increment();
+        return loads.execute(productId, () -> load(productId));
+    }
+
+    private SimilarProducts load(String productId) {
+        // a load that ended between the lookup and joining the flight has already cached its list
+        CachedResult cached = results.getIfPresent(productId);
+        if (cached != null) {
+            return cached.toSimilarProducts();
+        }
+        SimilarProducts loaded = delegate.getSimilarProducts(productId);
+        if (loaded.complete()) {
+            store(productId, CachedResult.of(loaded, ticker.read()));
+        }
+        return loaded;
+    }
+
+    @Override
+    public SimilarProductsPage getSimilarProductsPage(String productId, SimilarProductsPageRequest pageRequest) {
+        return delegate.getSimilarProductsPage(productId, pageRequest);
+    }
+
+    @Override
+    public Stream<ProductDetail> streamSimilarProducts(String productId, ResultOrder order) {
+        return delegate.streamSimilarProducts(productId, order);
+    }
+
+    @Override
+    public Map<String, SimilarProductsResult> getSimilarProductsBatch(List<String> productIds) {
+        return delegate.getSimilarProductsBatch(productIds);
+    }
+
+    /**
+     * Whether a response for the id is cached, without counting it as a request.
+     */
+    public boolean isCached(String productId) {
+        return results.getIfPresent(productId) != null;
+    }
+
+    /**
+     * Brings cached responses in line with a product change: the product's
+     * own response is dropped when its similar ids change or it is deleted,
+     * and every response whose similar ids include it is rebuilt with the
+     * new detail, or without it when deleted. A product that had been left
+     * out of a response, because it was missing, comes back once upserted.
+     * The affected responses are found through an index from product id to
+     * the responses listing it, so a change costs the responses it touches,
+     * not a scan of the cache. Responses keep their load time, so
+     * refresh-ahead still reloads them on schedule.
+     */
+    public void apply(ProductChange change) {
+        String productId = change.productId();
+        boolean deleted = change.type() == ProductChangeType.DELETE;
+        if (deleted || change.similarIds() != null) {
+            invalidate(productId);
+        }
+        if (!deleted && change.detail() == null) {
+            return;
+        }
+        ProductDetail replacement = deleted ? null : change.detail();
+        for (String responseId : List.copyOf(responsesListing.getOrDefault(productId, Set.of()))) {
+            results.asMap().computeIfPresent(responseId, (id, cached) -> cached.withDetail(productId, replacement));
+        }
+    }
+
+    /**
+     * Picks the {@code hotSetSize} most requested cached ids and reloads the
+     * ones due for refresh, up to the per-tick budget.
+     */
+    void refreshHotEntries() {
+        Comparator<Map.Entry<String, Integer>> byFrequency = Map.Entry.comparingByValue();
+        PriorityQueue<Map.Entry<String, Integer>> hottest = new PriorityQueue<>(hotSetSize + 1, byFrequency);
+        for (String productId : results.asMap().keySet()) {
+            hottest.add(Map.entry(productId, sketch.frequency(productId)));
+            if (hottest.size() > hotSetSize) {
+                hottest.poll();
+            }
+        }
+
+        long now = ticker.read();
+        int budget = refreshesPerTick;
+        for (Map.Entry<String, Integer> hot : hottest.stream().sorted(byFrequency.reversed()).toList()) {
+            if (budget == 0) {
+                return;
+            }
+            String productId = hot.getKey();
+            if (isDue(productId, now) && refreshing.add(productId)) {
+                refresh(productId);
+                budget--;
+            }
+        }
+    }
+
+    private boolean isDue(String productId, long now) {
+        CachedResult cached = results.getIfPresent(productId);
+        return cached != null && now - cached.loadedAt() >= refreshAfterNanos;
+    }
+
+    private void refresh(String productId) {
+        try {
+            executor.execute(() -> reload(productId));
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(productId);
+        }
+    }
+
+    private void reload(String productId) {
+        try {
+            SimilarProducts similarProducts = delegate.getSimilarProducts(productId);
+            if (!similarProducts.complete()) {
+                // a degraded answer must not replace a complete one
+                incompleteRefreshes.increment();
+                return;
+            }
+            store(productId, CachedResult.of(similarProducts, ticker.read()));
+            refreshes.increment();
+        } catch (ProductNotFoundException ex) {
+            invalidate(productId);
+            failedRefreshes.increment();
+        } catch (RuntimeException ex) {
+            // keep serving the current result until it expires
+            failedRefreshes.increment();
+        } finally {
+            refreshing.remove(productId);
+        }
+    }
+
+    private void store(String productId, CachedResult result) {
+        results.asMap().compute(productId, (id, current) -> {
+            index(id, result);
+            unindex(id, current, result);
+            return result;
+        });
+    }
+
+    private void invalidate(String productId) {
+        results.asMap().computeIfPresent(productId, (id, cached) -> {
+            unindex(id, cached, null);
+            return null;
+        });
+    }
+
+    /**
+     * Records the response under each of its similar ids. Called, like
+     * {@link #unindex}, while the cache holds the response's entry, so index
+     * updates for one response never interleave.
+     */
+    private void index(String responseId, CachedResult cached) {
+        for (String similarId : cached.similarIds()) {
+            responsesListing.compute(similarId, (id, responseIds) -> {
+                Set<String> listing = responseIds == null ? ConcurrentHashMap.newKeySet() : responseIds;
+                listing.add(responseId);
+                return listing;
+            });
+        }
+    }
+
+    /**
+     * Forgets the response under the similar ids of {@code removed} that
+     * {@code kept}, its replacement if any, does not list.
+     */
+    private void unindex(String responseId, CachedResult removed, CachedResult kept) {
+        if (removed == null) {
+            return;
+        }
+        for (String similarId : removed.similarIds()) {
+            if (kept != null && kept.similarIds().contains(similarId)) {
+                continue;
+            }
+            responsesListing.computeIfPresent(similarId, (id, responseIds) -> {
+                responseIds.remove(responseId);
+                return responseIds.isEmpty() ? null : responseIds;
+            });
+        }
+    }
+
+    int indexedProductCount() {
+        return responsesListing.size();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("similar.products.response.cache")
+                .description("Lookups in the materialized similar products cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("similar.products.response.cache.refreshes")
+                .description("Background refreshes of hot similar products responses")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A cached response: its similar ids, the details found for them and the
+     * products in similar ids order, so a changed detail can be put in, or
+     * taken out, at its place.
+     */
+    private record CachedResult(
+            List<String> similarIds,
+            Map<String, ProductDetail> details,
+            List<ProductDetail> products,
+            long loadedAt) {
+
+        static CachedResult of(SimilarProducts similarProducts, long loadedAt) {
+            Map<String, ProductDetail> details = new HashMap<>();
+            similarProducts.products().forEach(product -> details.put(product.id(), product));
+            return new CachedResult(List.copyOf(similarProducts.similarIds()), details,
+                    List.copyOf(similarProducts.products()), loadedAt);
+        }
+
+        SimilarProducts toSimilarProducts() {
+            return new SimilarProducts(similarIds, products, true);
+        }
+
+        /**
+         * Copy with the product's detail replaced by {@code detail}, or
+         * removed when it is null.
+         */
+        CachedResult withDetail(String productId, ProductDetail detail) {
+            Map<String, ProductDetail> updated = new HashMap<>(details);
+            if (detail == null) {
+                updated.remove(productId);
+            } else {
+                updated.put(productId, detail);
+            }
+            List<ProductDetail> products = similarIds.stream()
+                    .map(updated::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            return new CachedResult(similarIds, updated, products, loadedAt);
+        }
+    }
+}
@@ -0,0 +1,526 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * In-memory index of product id to similar ids. Every id seen, as a product
+ * or as a neighbour, gets a dense node number; each node keeps its similar
+ * ids as an {@code int[]} of node numbers and the time they were fetched.
+ * Neighbours that were never fetched themselves are the crawl frontier.
+ *
+ * <p>Nodes wait to be crawled in a binary heap of node numbers ordered by
+ * the time they were last fetched or attempted, never attempted first, so
+ * the crawler takes the due ones without looking at the rest.
+ *
+ * <p>Writers take a write lock; lookups read optimistically and only fall
+ * back to the read lock when a write raced them. Rows are never modified in
+ * place, so a returned list is a view that stays valid after later writes.
+ *
+ * <p>The snapshot file is {@code [int magic][int version][int nodes]}
+ * followed by {@code [utf id][long fetchedAtMillis][int length][int... row]}
+ * per node and a trailing CRC32C, written to a sibling file and atomically
+ * moved over the previous snapshot.
+ */
+public final class SimilarityGraph {
+
+    private static final int MAGIC = 0x53494d47;
+    private static final int VERSION = 1;
+    private static final int UNKNOWN_ROW = -2;
+    private static final int MISSING_ROW = -1;
+    private static final int[] MISSING = new int[0];
+    /** Fetch time of a node that was never fetched. */
+    public static final long NEVER = Long.MIN_VALUE;
+
+    private final int maxNodes;
+    private final Map<String, Integer> nodes = new ConcurrentHashMap<>();
+    private final StampedLock lock = new StampedLock();
+    private String[] ids;
+    private int[][] rows;
+    private long[] fetchedAt;
+    private long[] attemptedAt;
+    private int[] queue;
+    private int[] queuePosition;
+    private int queued;
+    private int size;
+    private long edges;
+
+    public SimilarityGraph(int maxNodes) {
+        this.maxNodes = maxNodes;
+        int capacity = Math.min(maxNodes, 1024);
+        this.ids = new String[capacity];
+        this.rows = new int[capacity][];
+        this.fetchedAt = new long[capacity];
+        this.attemptedAt = new long[capacity];
+        this.queue = new int[capacity];
+        this.queuePosition = new int[capacity];
+        Arrays.fill(queuePosition, -1);
+    }
+
+    /**
+     * The similar ids of the product if they were fetched after
+     * {@code fetchedAfterMillis}, or null when they are older, have not been
+     * fetched yet or the product was not found upstream.
+     */
+    public List<String> similarIds(String productId, long fetchedAfterMillis) {
+        Integer node = nodes.get(productId);
+        if (node == null) {
+            return null;
+        }
+        long stamp = lock.tryOptimisticRead();
+        int[] row = rowOf(node);
+        long fetched = fetchedAtOf(node);
+        String[] names = ids;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                row = rowOf(node);
+                fetched = fetchedAtOf(node);
+                names = ids;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (row == null || row == MISSING || fetched <= fetchedAfterMillis) {
+            return null;
+        }
+        return new SimilarIds(row, names);
+    }
+
+    /**
+     * Whether the product was not found upstream by a fetch after
+     * {@code fetchedAfterMillis}, so it can be answered as not found without
+     * asking again.
+     */
+    public boolean isMissing(String productId, long fetchedAfterMillis) {
+        Integer node = nodes.get(productId);
+        if (node == null) {
+            return false;
+        }
+        long stamp = lock.tryOptimisticRead();
+        boolean missing = rowOf(node) == MISSING && fetchedAtOf(node) > fetchedAfterMillis;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                missing = rowOf(node) == MISSING && fetchedAtOf(node) > fetchedAfterMillis;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Stores the similar ids of a product, adding it and its neighbours as
+     * nodes. Returns false, storing nothing, when that would grow the graph
+     * past {@code maxNodes}.
+     */
+    public boolean put(String productId, List<String> similarIds, long fetchedAtMillis) {
+        long stamp = lock.writeLock();
+        try {
+            int newNodes = nodes.containsKey(productId) ? 0 : 1;
+            for (String similarId : similarIds) {
+                if (!nodes.containsKey(similarId)) {
+                    newNodes++;
+                }
+            }
+            if (size + newNodes > maxNodes) {
+                return false;
+            }
+            int node = nodeOf(productId);
+            int[] row = new int[similarIds.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = nodeOf(similarIds.get(i));
+            }
+            setRow(node, row, fetchedAtMillis);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Records that the product was not found upstream, so it is neither
+     * served nor crawled again until it is due.
+     */
+    public void markMissing(String productId, long fetchedAtMillis) {
+        long stamp = lock.writeLock();
+        try {
+            if (nodes.containsKey(productId) || size < maxNodes) {
+                setRow(nodeOf(productId), MISSING, fetchedAtMillis);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Queues the node to be crawled again as if last attempted at
+     * {@code attemptedAtMillis}, after a failed fetch or to put back a node
+     * taken by {@link #pollDue} but not fetched. The current row, if any,
+     * and its fetch time are kept.
+     */
+    public void markAttempted(String productId, long attemptedAtMillis) {
+        long stamp = lock.writeLock();
+        try {
+            Integer node = nodes.get(productId);
+            if (node != null) {
+                enqueue(node, attemptedAtMillis);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds the product as a node to crawl, unless it is already known or the
+     * graph is full.
+     */
+    public void addNode(String productId) {
+        long stamp = lock.writeLock();
+        try {
+            if (!nodes.containsKey(productId) && size < maxNodes) {
+                nodeOf(productId);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Takes up to {@code max} nodes never attempted or last attempted at or
+     * before {@code dueBeforeMillis} off the crawl queue, oldest first, and
+     * visits their ids and attempt times once the lock is released. A taken
+     * node is queued again when it is fetched, marked missing or marked
+     * attempted.
+     */
+    public void pollDue(long dueBeforeMillis, int max, ObjLongConsumer<String> action) {
+        String[] dueIds;
+        long[] dueAt;
+        int count = 0;
+        long stamp = lock.writeLock();
+        try {
+            dueIds = new String[Math.min(max, queued)];
+            dueAt = new long[dueIds.length];
+            while (count < dueIds.length && attemptedAt[queue[0]] <= dueBeforeMillis) {
+                int node = dequeueFirst();
+                dueIds[count] = ids[node];
+                dueAt[count++] = attemptedAt[node];
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        for (int i = 0; i < count; i++) {
+            action.accept(dueIds[i], dueAt[i]);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long edges() {
+        long stamp = lock.readLock();
+        try {
+            return edges;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Writes a snapshot. Only copying the arrays holds the lock; rows are
+     * immutable, so the copy is written out while lookups and crawls go on.
+     */
+    public void writeTo(Path path) {
+        String[] snapshotIds;
+        int[][] snapshotRows;
+        long[] snapshotFetchedAt;
+        long stamp = lock.readLock();
+        try {
+            snapshotIds = Arrays.copyOf(ids, size);
+            snapshotRows = Arrays.copyOf(rows, size);
+            snapshotFetchedAt = Arrays.copyOf(fetchedAt, size);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            try (OutputStream file = Files.newOutputStream(temporary)) {
+                CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32C());
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(snapshotIds.length);
+                for (int node = 0; node < snapshotIds.length; node++) {
+                    out.writeUTF(snapshotIds[node]);
+                    out.writeLong(snapshotFetchedAt[node]);
+                    writeRow(out, snapshotRows[node]);
+                }
+                out.flush();
+                out.writeLong(checked.getChecksum().getValue());
+                out.flush();
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write similarity graph snapshot " + path, ex);
+        }
+    }
+
+    /**
+     * Loads the snapshot at {@code path}, or returns an empty graph when
+     * there is none or it is truncated, corrupt or from another version.
+     */
+    public static SimilarityGraph readFrom(Path path, int maxNodes) {
+        try (InputStream file = Files.newInputStream(path)) {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(file), new CRC32C());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return new SimilarityGraph(maxNodes);
+            }
+            int count = in.readInt();
+            if (count < 0 || count > maxNodes) {
+                return new SimilarityGraph(maxNodes);
+            }
+            SimilarityGraph graph = new SimilarityGraph(maxNodes);
+            graph.ensureCapacity(count);
+            for (int node = 0; node < count; node++) {
+                graph.ids[node] = in.readUTF();
+                graph.fetchedAt[node] = in.readLong();
+                graph.rows[node] = readRow(in, count);
+                graph.edges += graph.rows[node] == null ? 0 : graph.rows[node].length;
+            }
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                return new SimilarityGraph(maxNodes);
+            }
+            graph.size = count;
+            for (int node = 0; node < count; node++) {
+                graph.nodes.put(graph.ids[node], node);
+                graph.enqueue(node, graph.fetchedAt[node]);
+            }
+            return graph;
+        } catch (NoSuchFileException | EOFException | CorruptSnapshotException ex) {
+            return new SimilarityGraph(maxNodes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read similarity graph snapshot " + path, ex);
+        }
+    }
+
+    private int[] rowOf(int node) {
+        int[][] current = rows;
+        return node < current.length ? current[node] : null;
+    }
+
+    private long fetchedAtOf(int node) {
+        long[] current = fetchedAt;
+        return node < current.length ? current[node] : NEVER;
+    }
+
+    private void setRow(int node, int[] row, long fetchedAtMillis) {
+        int[] previous = rows[node];
+        edges += row.length - (previous == null ? 0 : previous.length);
+        rows[node] = row;
+        fetchedAt[node] = fetchedAtMillis;
+        enqueue(node, fetchedAtMillis);
+    }
+
+    /**
+     * Node number of the id, adding it as an unfetched node when new. The
+     * dictionary entry is published last, so a reader that finds it also
+     * sees the arrays sized for it.
+     */
+    private int nodeOf(String productId) {
+        Integer node = nodes.get(productId);
+        if (node != null) {
+            return node;
+        }
+        ensureCapacity(size + 1);
+        int added = size++;
+        ids[added] = productId;
+        fetchedAt[added] = NEVER;
+        enqueue(added, NEVER);
+        nodes.put(productId, added);
+        return added;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = (int) Math.min(maxNodes, Math.max(capacity, ids.length * 2L));
+        int previous = ids.length;
+        ids = Arrays.copyOf(ids, grown);
+        rows = Arrays.copyOf(rows, grown);
+        fetchedAt = Arrays.copyOf(fetchedAt, grown);
+        attemptedAt = Arrays.copyOf(attemptedAt, grown);
+        queue = Arrays.copyOf(queue, grown);
+        queuePosition = Arrays.copyOf(queuePosition, grown);
+        Arrays.fill(queuePosition, previous, grown, -1);
+    }
+
+    /**
+     * Sets the node's attempt time and moves it to its place in the crawl
+     * queue, adding it when it is not queued.
+     */
+    private void enqueue(int node, long attemptedAtMillis) {
+        attemptedAt[node] = attemptedAtMillis;
+        int position = queuePosition[node];
+        if (position < 0) {
+            position = queued++;
+            queue[position] = node;
+            queuePosition[node] = position;
+        }
+        siftDown(siftUp(position));
+    }
+
+    private int dequeueFirst() {
+        int first = queue[0];
+        queuePosition[first] = -1;
+        int last = queue[--queued];
+        if (queued > 0) {
+            queue[0] = last;
+            queuePosition[last] = 0;
+            siftDown(0);
+        }
+        return first;
+    }
+
+    private int siftUp(int position) {
+        int node = queue[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!isEarlier(node, queue[parent])) {
+                break;
+            }
+            place(queue[parent], position);
+            position = parent;
+        }
+        place(node, position);
+        return position;
+    }
+
+    private void siftDown(int position) {
+        int node = queue[position];
+        int half = queued >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < queued && isEarlier(queue[child + 1], queue[child])) {
+                child++;
+            }
+            if (!isEarlier(queue[child], node)) {
+                break;
+            }
+            place(queue[child], position);
+            position = child;
+        }
+        place(node, position);
+    }
+
+    private boolean isEarlier(int node, int other) {
+        return attemptedAt[node] < attemptedAt[other]
+                || attemptedAt[node] == attemptedAt[other] && node < other;
+    }
+
+    private void place(int node, int position) {
+        queue[position] = node;
+        queuePosition[node] = position;
+    }
+
+    private static void writeRow(DataOutputStream out, int[] row) throws IOException {
+        if (row == null) {
+            out.writeInt(UNKNOWN_ROW);
+            return;
+        }
+        if (row == MISSING) {
+            out.writeInt(MISSING_ROW);
+            return;
+        }
+        out.writeInt(row.length);
+        for (int similar : row) {
+            out.writeInt(similar);
+        }
+    }
+
+    private static int[] readRow(DataInputStream in, int count) throws IOException {
+        int length = in.readInt();
+        if (length == UNKNOWN_ROW) {
+            return null;
+        }
+        if (length == MISSING_ROW) {
+            return MISSING;
+        }
+        if (length < 0 || length > count) {
+            throw new CorruptSnapshotException("Invalid row length " + length);
+        }
+        int[] row = new int[length];
+        for (int i = 0; i < length; i++) {
+            row[i] = in.readInt();
+            if (row[i] < 0 || row[i] >= count) {
+                throw new CorruptSnapshotException("Invalid node " + row[i]);
+            }
+        }
+        return row;
+    }
+
+    private static final class CorruptSnapshotException extends IOException {
+
+        private CorruptSnapshotException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Read-only view of a row; ids of existing nodes never change, so the
+     * names array it captured stays valid after the graph grows.
+     */
+    private static final class SimilarIds extends AbstractList<String> implements RandomAccess {
+
+        private final int[] row;
+        private final String[] names;
+
+        private SimilarIds(int[] row, String[] names) {
+            this.row = row;
+            this.names = names;
+        }
+
+        @Override
+        public String get(int index) {
+            return names[row[index]];
+        }
+
+        @Override
+        public int size() {
+            return row.length;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.model.ProductChangeType;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.GraphIndexProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps a {@link SimilarityGraph} filled from upstream in the background.
+ * Requests are counted in a {@link FrequencySketch}; on every tick the
+ * crawler takes the oldest nodes never fetched or older than {@code maxAge}
+ * off the graph's crawl queue, a few per fetch it may make, and fetches the
+ * most requested of them on the given executor, at most
+ * {@code maxFetchesPerSecond}; the rest go back in the queue. Since
+ * neighbours become nodes, the crawl spreads from the seed ids and requested
+ * ids over the whole reachable catalogue. Rows older than {@code ttl}, such
+ * as ones a failing crawl could not refresh, are no longer served. The graph
+ * is loaded from its snapshot at startup and written back periodically and
+ * on close.
+ */
+public class SimilarityGraphIndex implements AutoCloseable {
+
+    private static final Comparator<Candidate> MOST_URGENT_FIRST = Comparator
+            .comparingInt(Candidate::frequency).reversed()
+            .thenComparingLong(Candidate::attemptedAt);
+    /** Due nodes taken off the queue per fetch of the tick, to pick the most requested from. */
+    private static final int CANDIDATES_PER_FETCH = 4;
+
+    private final SimilarityGraph graph;
+    private final Path path;
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final FrequencySketch sketch;
+    private final Set<String> crawling = ConcurrentHashMap.newKeySet();
+    private final long maxAgeMillis;
+    private final long ttlMillis;
+    private final int fetchesPerTick;
+    private final ScheduledExecutorService scheduler;
+    private final Counter crawled;
+    private final Counter crawledNotFound;
+    private final Counter failedCrawls;
+    private final Counter snapshots;
+    private final Counter failedSnapshots;
+    private volatile ProductRepository source;
+
+    public SimilarityGraphIndex(GraphIndexProperties properties, Executor executor, MeterRegistry meterRegistry) {
+        this(SimilarityGraph.readFrom(properties.path(), properties.maxNodes()), properties, executor,
+                System::currentTimeMillis, meterRegistry);
+        scheduler.scheduleWithFixedDelay(this::crawl, properties.crawlInterval().toMillis(),
+                properties.crawlInterval().toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::snapshot, properties.snapshotInterval().toMillis(),
+                properties.snapshotInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    SimilarityGraphIndex(SimilarityGraph graph, GraphIndexProperties properties, Executor executor,
+            LongSupplier clock, MeterRegistry meterRegistry) {
+        this.graph = graph;
+        this.path = properties.path();
+        this.executor = executor;
+        this.clock = clock;
+        this.sketch = new FrequencySketch((int) Math.min(properties.maxNodes(), Integer.MAX_VALUE / 2));
+        this.maxAgeMillis = properties.maxAge().toMillis();
+        this.ttlMillis = properties.ttl().toMillis();
+        this.fetchesPerTick = (int) Math.max(1,
+                properties.maxFetchesPerSecond() * properties.crawlInterval().toMillis() / 1000);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("similarity-graph-crawler").daemon().factory());
+        this.crawled = crawlCounter(meterRegistry, "success");
+        this.crawledNotFound = crawlCounter(meterRegistry, "not_found");
+        this.failedCrawls = crawlCounter(meterRegistry, "failure");
+        this.snapshots = snapshotCounter(meterRegistry, "success");
+        this.failedSnapshots = snapshotCounter(meterRegistry, "failure");
+        Gauge.builder("similarity.graph.nodes", graph, SimilarityGraph::size)
+                .description("Products known to the similarity graph, fetched or not")
+                .register(meterRegistry);
+        Gauge.builder("similarity.graph.edges", graph, SimilarityGraph::edges)
+                .description("Similar ids stored in the similarity graph")
+                .register(meterRegistry);
+        properties.seedIds().forEach(graph::addNode);
+    }
+
+    /**
+     * Where the crawler fetches similar ids from: the repository below the
+     * graph tier. Nothing is crawled until it is set.
+     */
+    public void crawlFrom(ProductRepository source) {
+        this.source = source;
+    }
+
+    /**
+     * Counts a request for the product and returns its similar ids if the
+     * graph has them from within {@code ttl}.
+     */
+    public List<String> lookup(String productId) {
+        sketch.increment(productId);
+        return graph.similarIds(productId, clock.getAsLong() - ttlMillis);
+    }
+
+    /**
+     * Whether the product was not found upstream within {@code maxAge}, the
+     * same window after which the crawler fetches it again.
+     */
+    public boolean isKnownMissing(String productId) {
+        return graph.isMissing(productId, clock.getAsLong() - maxAgeMillis);
+    }
+
+    public void record(String productId, List<String> similarIds) {
+        long now = clock.getAsLong();
+        if (!graph.put(productId, similarIds, now)) {
+            // the graph is full, so a known node keeps its row and is queued as attempted
+            graph.markAttempted(productId, now);
+        }
+    }
+
+    public void recordNotFound(String productId) {
+        graph.markMissing(productId, clock.getAsLong());
+    }
+
+    /**
+     * Brings the graph in line with a product change: new similar ids
+     * replace the product's row, and a deleted product is marked missing.
+     */
+    public void apply(ProductChange change) {
+        if (change.type() == ProductChangeType.DELETE) {
+            recordNotFound(change.productId());
+        } else if (change.similarIds() != null) {
+            record(change.productId(), change.similarIds());
+        }
+    }
+
+    /**
+     * Takes the oldest due nodes off the crawl queue, fetches the most
+     * requested of them up to the per-tick budget and puts the rest back.
+     */
+    void crawl() {
+        ProductRepository repository = source;
+        if (repository == null) {
+            return;
+        }
+        List<Candidate> due = new ArrayList<>();
+        graph.pollDue(clock.getAsLong() - maxAgeMillis, fetchesPerTick * CANDIDATES_PER_FETCH,
+                (productId, attemptedAt) ->
+                        due.add(new Candidate(productId, sketch.frequency(productId), attemptedAt)));
+        due.sort(MOST_URGENT_FIRST);
+        int fetches = 0;
+        for (Candidate candidate : due) {
+            if (fetches < fetchesPerTick && crawling.add(candidate.productId())) {
+                fetches++;
+                fetch(repository, candidate);
+            } else {
+                graph.markAttempted(candidate.productId(), candidate.attemptedAt());
+            }
+        }
+    }
+
+    void snapshot() {
+        try {
+            graph.writeTo(path);
+            snapshots.increment();
+        } catch (UncheckedIOException ex) {
+            failedSnapshots.increment();
+        }
+    }
+
+    private void fetch(ProductRepository repository, Candidate candidate) {
+        try {
+            executor.execute(() -> crawl(repository, candidate.productId()));
+        } catch (RejectedExecutionException ex) {
+            crawling.remove(candidate.productId());
+            graph.markAttempted(candidate.productId(), candidate.attemptedAt());
+        }
+    }
+
+    private void crawl(ProductRepository repository, String productId) {
+        try {
+            List<String> similarIds = repository.getSimilarProductIds(productId);
+            if (similarIds == null) {
+                recordNotFound(productId);
+                crawledNotFound.increment();
+            } else {
+                record(productId, similarIds);
+                crawled.increment();
+            }
+        } catch (ProductNotFoundException ex) {
+            recordNotFound(productId);
+            crawledNotFound.increment();
+        } catch (RuntimeException ex) {
+            // keep the current row, if any, and try again once it is due
+            graph.markAttempted(productId, clock.getAsLong());
+            failedCrawls.increment();
+        } finally {
+            crawling.remove(productId);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        snapshot();
+    }
+
+    private static Counter crawlCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("similarity.graph.crawls")
+                .description("Similar ids fetched by the similarity graph crawler")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter snapshotCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("similarity.graph.snapshots")
+                .description("Snapshots of the similarity graph written to disk")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Candidate(String productId, int frequency, long attemptedAt) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+
+/**
+ * Serves similar ids from the {@link SimilarityGraphIndex}, which its
+ * crawler keeps filled from the crawl source. Ids the graph does not have,
+ * or only has older than its ttl, are fetched from the crawl source too and
+ * recorded, and a product not found upstream is recorded and answered as not
+ * found until it is due again. Product details pass through the delegate.
+ *
+ * <p>The crawl source is the delegate unless a cache sits in between: an
+ * answer read through a cache may be an old copy, and recording it would
+ * stamp it as fresh. Such a copy is only answered, without being recorded,
+ * when the crawl source fails.
+ */
+public class SimilarityGraphProductRepository implements ProductRepository {
+
+    private final ProductRepository delegate;
+    private final ProductRepository crawlSource;
+    private final SimilarityGraphIndex index;
+    private final Counter hits;
+    private final Counter notFound;
+    private final Counter misses;
+
+    public SimilarityGraphProductRepository(ProductRepository delegate, SimilarityGraphIndex index,
+            MeterRegistry meterRegistry) {
+        this(delegate, delegate, index, meterRegistry);
+    }
+
+    public SimilarityGraphProductRepository(ProductRepository delegate, ProductRepository crawlSource,
+            SimilarityGraphIndex index, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.crawlSource = crawlSource;
+        this.index = index;
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.notFound = lookupCounter(meterRegistry, "not_found");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        index.crawlFrom(crawlSource);
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        List<String> indexed = index.lookup(productId);
+        if (indexed != null) {
+            hits.increment();
+            return indexed;
+        }
+        if (index.isKnownMissing(productId)) {
+            notFound.increment();
+            throw new ProductNotFoundException(productId);
+        }
+        misses.increment();
+        List<String> similarIds;
+        try {
+            similarIds = crawlSource.getSimilarProductIds(productId);
+        } catch (ProductNotFoundException ex) {
+            index.recordNotFound(productId);
+            throw ex;
+        } catch (RuntimeException ex) {
+            if (crawlSource == delegate) {
+                throw ex;
+            }
+            return delegate.getSimilarProductIds(productId);
+        }
+        if (similarIds != null) {
+            index.record(productId, similarIds);
+        }
+        return similarIds;
+    }
+
+    @Override
+    public ProductLookup getProductDetail(String productId) {
+        return delegate.getProductDetail(productId);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("similarity.graph.lookups")
+                .description("Similar ids lookups answered from the similarity graph")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import com.interview.similar_products_api.domain.port.in.GetSimilarProductsQuery;
+import com.interview.similar_products_api.infrastructure.cache.RefreshAheadSimilarProductsQuery;
+import com.interview.similar_products_api.infrastructure.resilience.CoDelAdmissionLimiter;
+import com.interview.similar_products_api.infrastructure.web.AdmissionControlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.function.Predicate;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "similar-products.admission-control", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+public class AdmissionControlConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdmissionControlProperties properties, GetSimilarProductsQuery similarProductsQuery,
+            MeterRegistry meterRegistry) {
+        CoDelAdmissionLimiter limiter = new CoDelAdmissionLimiter(properties.maxConcurrentRequests(),
+                properties.target(), properties.interval());
+        Predicate<String> cachedResponseAvailable =
+                similarProductsQuery instanceof RefreshAheadSimilarProductsQuery cache
+                        ? cache::isCached
+                        : productId -> false;
+
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(limiter, cachedResponseAvailable, properties.retryAfter(), meterRegistry));
+        registration.addUrlPatterns("/product/*");
+        // ahead of the rest of the chain, so shed requests cost as little as possible
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+}
@@ -0,0 +1,15 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "similar-products.admission-control")
+public record AdmissionControlProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100") int maxConcurrentRequests,
+        @DefaultValue("20ms") Duration target,
+        @DefaultValue("500ms") Duration interval,
+        @DefaultValue("1s") Duration retryAfter) {
+}
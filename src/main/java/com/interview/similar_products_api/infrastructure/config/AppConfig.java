@@ -1,37 +1,107 @@
 package com.interview.similar_products_api.infrastructure.config;
 
+import com.interview.similar_products_api.infrastructure.rest.ProductJsonCodec;
+import com.interview.similar_products_api.infrastructure.rest.ProductJsonConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 import java.net.http.HttpClient;
-import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 @Configuration
+@EnableConfigurationProperties({ TransportProperties.class, CodecProperties.class })
+@ImportRuntimeHints(SimilarProductsRuntimeHints.class)
 public class AppConfig {
 
     @Bean
-    public RestClient restClient(@Value("${external-api.url:http://localhost:3001}") String externalApiUrl) {
-        HttpClient httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(1))
-                .build();
-
-        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
-                java.util.Objects.requireNonNull(httpClient));
-        requestFactory.setReadTimeout(java.util.Objects.requireNonNull(Duration.ofSeconds(5)));
+    public RestClient restClient(ClientHttpRequestFactory upstreamRequestFactory, CodecProperties codec,
+            @Value("${external-api.url:http://localhost:3001}") String externalApiUrl) {
+        RestClient.Builder builder = RestClient.builder()
+                .baseUrl(Objects.requireNonNull(externalApiUrl))
+                .requestFactory(upstreamRequestFactory);
+        if (codec.enabled()) {
+            // ahead of Jackson, so it wins for product details and id lists and declines everything else
+            ProductJsonConverter productJsonConverter = new ProductJsonConverter(
+                    new ProductJsonCodec(codec.idCacheSize()));
+            builder.messageConverters(converters -> converters.addFirst(productJsonConverter));
+        }
+        return builder.build();
+    }
 
-        return RestClient.builder()
-                .baseUrl(java.util.Objects.requireNonNull(externalApiUrl))
-                .requestFactory(requestFactory)
-                .build();
+    @Bean
+    public ClientHttpRequestFactory upstreamRequestFactory(TransportProperties transport,
+            ExecutorService virtualThreadExecutor, MeterRegistry meterRegistry) {
+        return switch (transport.protocol()) {
+            case HTTP_1_1 -> pooledHttp11RequestFactory(transport, meterRegistry);
+            case HTTP_2 -> http2RequestFactory(transport, virtualThreadExecutor);
+        };
     }
 
     @Bean(destroyMethod = "shutdown")
-    public ExecutorService virtualThreadExecutor() {
-        return Executors.newVirtualThreadPerTaskExecutor();
+    public ExecutorService virtualThreadExecutor(MeterRegistry meterRegistry) {
+        return ExecutorServiceMetrics.monitor(meterRegistry, Executors.newVirtualThreadPerTaskExecutor(),
+                "virtualThreadExecutor");
+    }
+
+    private static ClientHttpRequestFactory http2RequestFactory(TransportProperties transport,
+            Executor virtualThreadExecutor) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(transport.connectTimeout());
+        if (transport.executor() == TransportProperties.ClientExecutor.VIRTUAL) {
+            builder.executor(virtualThreadExecutor);
+        }
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(builder.build());
+        requestFactory.setReadTimeout(transport.readTimeout());
+        return requestFactory;
+    }
+
+    private static ClientHttpRequestFactory pooledHttp11RequestFactory(TransportProperties transport,
+            MeterRegistry meterRegistry) {
+        TransportProperties.Pool pool = transport.pool();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.maxTotal())
+                .setMaxConnPerRoute(pool.maxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(transport.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(transport.readTimeout()))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "product-service")
+                .bindTo(meterRegistry);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(pool.keepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(pool.idleTimeout()))
+                .disableAutomaticRetries()
+                .build();
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectionRequestTimeout(pool.acquireTimeout());
+        requestFactory.setReadTimeout(transport.readTimeout());
+        return requestFactory;
     }
 }
@@ -0,0 +1,24 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * The slow call threshold stays well below the request deadline
+ * ({@code similar-products.deadline}, 2s by default): calls still running at
+ * the deadline are cancelled, and only those that ran past the threshold by
+ * then are recorded as slow.
+ */
+@ConfigurationProperties(prefix = "external-api.circuit-breaker")
+public record CircuitBreakerProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("50") int slidingWindowSize,
+        @DefaultValue("20") int minimumNumberOfCalls,
+        @DefaultValue("50") float failureRateThreshold,
+        @DefaultValue("80") float slowCallRateThreshold,
+        @DefaultValue("1s") Duration slowCallDurationThreshold,
+        @DefaultValue("5s") Duration waitDurationInOpenState,
+        @DefaultValue("5") int permittedNumberOfCallsInHalfOpenState) {
+}
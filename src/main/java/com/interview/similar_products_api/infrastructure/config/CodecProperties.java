@@ -0,0 +1,10 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "external-api.codec")
+public record CodecProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("4096") int idCacheSize) {
+}
@@ -0,0 +1,56 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "external-api.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue SimilarIdsPool similarIds,
+        @DefaultValue DetailPool detail) {
+
+    /**
+     * Limits of one upstream endpoint. Each endpoint has its own record so
+     * that it can have its own defaults.
+     */
+    public sealed interface Pool permits SimilarIdsPool, DetailPool {
+
+        int initialLimit();
+
+        int minLimit();
+
+        int maxLimit();
+
+        double backoffRatio();
+
+        Duration latencyThreshold();
+
+        Duration queueTimeout();
+    }
+
+    /**
+     * One similar ids call per request.
+     */
+    public record SimilarIdsPool(
+            @DefaultValue("20") int initialLimit,
+            @DefaultValue("4") int minLimit,
+            @DefaultValue("200") int maxLimit,
+            @DefaultValue("0.9") double backoffRatio,
+            @DefaultValue("2s") Duration latencyThreshold,
+            @DefaultValue("100ms") Duration queueTimeout) implements Pool {
+    }
+
+    /**
+     * Detail calls fan out per similar id, so the pool is sized larger.
+     */
+    public record DetailPool(
+            @DefaultValue("50") int initialLimit,
+            @DefaultValue("8") int minLimit,
+            @DefaultValue("500") int maxLimit,
+            @DefaultValue("0.9") double backoffRatio,
+            @DefaultValue("2s") Duration latencyThreshold,
+            @DefaultValue("100ms") Duration queueTimeout) implements Pool {
+    }
+}
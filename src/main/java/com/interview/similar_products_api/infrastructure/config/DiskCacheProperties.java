@@ -0,0 +1,17 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "external-api.disk-cache")
+public record DiskCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("product-cache.bin") Path path,
+        @DefaultValue("64MB") DataSize maxSize,
+        @DefaultValue("1h") Duration detailTtl,
+        @DefaultValue("10m") Duration similarIdsTtl) {
+}
@@ -0,0 +1,21 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "external-api.graph-index")
+public record GraphIndexProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("similarity-graph.bin") Path path,
+        @DefaultValue("1000000") int maxNodes,
+        @DefaultValue("10m") Duration maxAge,
+        @DefaultValue("1h") Duration ttl,
+        @DefaultValue("1s") Duration crawlInterval,
+        @DefaultValue("20") int maxFetchesPerSecond,
+        @DefaultValue("5m") Duration snapshotInterval,
+        @DefaultValue List<String> seedIds) {
+}
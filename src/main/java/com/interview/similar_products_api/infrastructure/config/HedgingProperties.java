@@ -0,0 +1,17 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "external-api.hedging")
+public record HedgingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("95") double percentile,
+        @DefaultValue("200") long minSamples,
+        @DefaultValue("1s") Duration refreshInterval,
+        @DefaultValue("100ms") Duration initialDelay,
+        @DefaultValue("10ms") Duration minDelay,
+        @DefaultValue("10") double budgetPercent) {
+}
@@ -0,0 +1,15 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "external-api.cache")
+public record ProductCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("5m") Duration ttl,
+        @DefaultValue("30s") Duration notFoundTtl,
+        @DefaultValue("30s") Duration refreshAfter) {
+}
@@ -0,0 +1,122 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.cache.CachingProductRepository;
+import com.interview.similar_products_api.infrastructure.cache.DiskBackedProductRepository;
+import com.interview.similar_products_api.infrastructure.cache.ProductCacheFile;
+import com.interview.similar_products_api.infrastructure.cache.ProductChangeDispatcher;
+import com.interview.similar_products_api.infrastructure.cache.SimilarityGraphIndex;
+import com.interview.similar_products_api.infrastructure.cache.SimilarityGraphProductRepository;
+import com.interview.similar_products_api.infrastructure.metrics.MeteredProductRepository;
+import com.interview.similar_products_api.infrastructure.resilience.CircuitBreakingProductRepository;
+import com.interview.similar_products_api.infrastructure.resilience.CoalescingProductRepository;
+import com.interview.similar_products_api.infrastructure.resilience.ConcurrencyLimitedProductRepository;
+import com.interview.similar_products_api.infrastructure.resilience.HedgingProductRepository;
+import com.interview.similar_products_api.infrastructure.resilience.RetryingProductRepository;
+import com.interview.similar_products_api.infrastructure.rest.ProductRestClientAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+@EnableConfigurationProperties({
+        ProductCacheProperties.class,
+        ConcurrencyLimitProperties.class,
+        CircuitBreakerProperties.class,
+        HedgingProperties.class,
+        RetryProperties.class,
+        DiskCacheProperties.class,
+        GraphIndexProperties.class })
+public class ProductRepositoryConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "external-api.disk-cache", name = "enabled", havingValue = "true")
+    public ProductCacheFile productCacheFile(DiskCacheProperties diskCacheProperties) {
+        return ProductCacheFile.open(diskCacheProperties.path(), diskCacheProperties.maxSize().toBytes(),
+                Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "external-api.graph-index", name = "enabled", havingValue = "true")
+    public SimilarityGraphIndex similarityGraphIndex(GraphIndexProperties graphIndexProperties,
+            ExecutorService virtualThreadExecutor, MeterRegistry meterRegistry) {
+        return new SimilarityGraphIndex(graphIndexProperties, virtualThreadExecutor, meterRegistry);
+    }
+
+    @Bean
+    public ProductChangeDispatcher productChangeDispatcher() {
+        return new ProductChangeDispatcher();
+    }
+
+    @Bean
+    @Primary
+    public ProductRepository productRepository(ProductRestClientAdapter restClientAdapter,
+            ProductCacheProperties cacheProperties,
+            ConcurrencyLimitProperties concurrencyLimitProperties,
+            CircuitBreakerProperties circuitBreakerProperties,
+            HedgingProperties hedgingProperties,
+            RetryProperties retryProperties,
+            DiskCacheProperties diskCacheProperties,
+            ObjectProvider<ProductCacheFile> productCacheFile,
+            ObjectProvider<SimilarityGraphIndex> similarityGraphIndex,
+            ProductChangeDispatcher productChangeDispatcher,
+            @Value("${external-api.coalescing.enabled:true}") boolean coalescingEnabled,
+            ExecutorService virtualThreadExecutor,
+            MeterRegistry meterRegistry) {
+        ProductRepository repository = new MeteredProductRepository(restClientAdapter, meterRegistry);
+        if (concurrencyLimitProperties.enabled()) {
+            repository = new ConcurrencyLimitedProductRepository(repository, concurrencyLimitProperties, meterRegistry);
+        }
+        if (hedgingProperties.enabled()) {
+            repository = new HedgingProductRepository(repository, hedgingProperties, virtualThreadExecutor,
+                    meterRegistry);
+        }
+        if (circuitBreakerProperties.enabled()) {
+            repository = new CircuitBreakingProductRepository(repository, circuitBreakerProperties, meterRegistry);
+        }
+        if (retryProperties.enabled()) {
+            // outside the limiter and breaker, so every attempt takes its own permit and breaker sample
+            repository = new RetryingProductRepository(repository, retryProperties, meterRegistry);
+        }
+        if (coalescingEnabled) {
+            repository = new CoalescingProductRepository(repository, meterRegistry);
+        }
+        ProductRepository belowDiskCache = repository;
+        ProductCacheFile cacheFile = productCacheFile.getIfAvailable();
+        if (cacheFile != null) {
+            DiskBackedProductRepository diskBackedRepository = new DiskBackedProductRepository(repository, cacheFile,
+                    diskCacheProperties, meterRegistry);
+            productChangeDispatcher.register(diskBackedRepository::apply);
+            repository = diskBackedRepository;
+        }
+        SimilarityGraphIndex graphIndex = similarityGraphIndex.getIfAvailable();
+        if (graphIndex != null) {
+            // the crawler skips the disk cache, whose copies would be re-stamped as fresh
+            repository = new SimilarityGraphProductRepository(repository, belowDiskCache, graphIndex,
+                    meterRegistry);
+            productChangeDispatcher.register(graphIndex::apply);
+        }
+        if (cacheProperties.enabled()) {
+            CachingProductRepository cachingRepository = new CachingProductRepository(repository, cacheProperties,
+                    virtualThreadExecutor, meterRegistry);
+            if (cacheFile != null) {
+                Instant now = Instant.now();
+                cacheFile.forEachDetail((productDetail, expiresAt) ->
+                        cachingRepository.warm(productDetail, Duration.between(now, expiresAt)));
+            }
+            productChangeDispatcher.register(cachingRepository::apply);
+            repository = cachingRepository;
+        }
+        return repository;
+    }
+}
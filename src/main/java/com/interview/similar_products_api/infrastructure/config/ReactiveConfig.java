@@ -0,0 +1,65 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Objects;
+
+/**
+ * Netty server and WebClient for the {@code reactive} profile. The client is
+ * sized and timed from the same {@link TransportProperties} as the blocking one.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    /**
+     * Boot prefers Tomcat's reactive adapter while the servlet stack is on the
+     * classpath; the reactive path is meant to run on Netty's event loops.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public WebClient webClient(ConnectionProvider upstreamConnectionProvider, TransportProperties transport,
+            @Value("${external-api.url:http://localhost:3001}") String externalApiUrl) {
+        HttpClient httpClient = HttpClient.create(upstreamConnectionProvider)
+                .protocol(protocols(transport.protocol()))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) transport.connectTimeout().toMillis())
+                .responseTimeout(transport.readTimeout());
+        return WebClient.builder()
+                .baseUrl(Objects.requireNonNull(externalApiUrl))
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider upstreamConnectionProvider(TransportProperties transport) {
+        TransportProperties.Pool pool = transport.pool();
+        return ConnectionProvider.builder("product-service")
+                .maxConnections(pool.maxPerRoute())
+                .pendingAcquireTimeout(pool.acquireTimeout())
+                .maxIdleTime(pool.idleTimeout())
+                .maxLifeTime(pool.keepAlive())
+                .metrics(true)
+                .build();
+    }
+
+    private static HttpProtocol[] protocols(TransportProperties.Protocol protocol) {
+        return switch (protocol) {
+            case HTTP_1_1 -> new HttpProtocol[] { HttpProtocol.HTTP11 };
+            case HTTP_2 -> new HttpProtocol[] { HttpProtocol.HTTP11, HttpProtocol.H2C };
+        };
+    }
+}
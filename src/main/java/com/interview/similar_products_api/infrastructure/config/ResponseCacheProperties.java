@@ -0,0 +1,17 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "similar-products.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("60s") Duration ttl,
+        @DefaultValue("20s") Duration refreshAhead,
+        @DefaultValue("100") int hotSetSize,
+        @DefaultValue("1s") Duration refreshInterval,
+        @DefaultValue("50") int maxRefreshesPerSecond) {
+}
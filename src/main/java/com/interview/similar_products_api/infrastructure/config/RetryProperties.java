@@ -0,0 +1,21 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * A retry is only made when, after its backoff, the request deadline leaves
+ * at least {@code minAttemptTime}, or as long as the failed attempt took if
+ * that was longer.
+ */
+@ConfigurationProperties(prefix = "external-api.retry")
+public record RetryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("3") int maxAttempts,
+        @DefaultValue("20ms") Duration baseDelay,
+        @DefaultValue("200ms") Duration maxDelay,
+        @DefaultValue("10") double budgetPercent,
+        @DefaultValue("100ms") Duration minAttemptTime) {
+}
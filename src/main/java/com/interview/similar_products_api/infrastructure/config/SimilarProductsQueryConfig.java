@@ -0,0 +1,34 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import com.interview.similar_products_api.application.service.GetSimilarProductsService;
+import com.interview.similar_products_api.domain.port.in.GetSimilarProductsQuery;
+import com.interview.similar_products_api.infrastructure.cache.ProductChangeDispatcher;
+import com.interview.similar_products_api.infrastructure.cache.RefreshAheadSimilarProductsQuery;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class SimilarProductsQueryConfig {
+
+    @Bean
+    @Primary
+    public GetSimilarProductsQuery similarProductsQuery(GetSimilarProductsService service,
+            ResponseCacheProperties responseCacheProperties,
+            ProductChangeDispatcher productChangeDispatcher,
+            ExecutorService virtualThreadExecutor,
+            MeterRegistry meterRegistry) {
+        if (!responseCacheProperties.enabled()) {
+            return service;
+        }
+        RefreshAheadSimilarProductsQuery responseCache = new RefreshAheadSimilarProductsQuery(service,
+                responseCacheProperties, virtualThreadExecutor, meterRegistry);
+        productChangeDispatcher.register(responseCache::apply);
+        return responseCache;
+    }
+}
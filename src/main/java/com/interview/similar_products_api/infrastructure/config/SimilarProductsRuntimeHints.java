@@ -0,0 +1,65 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.SimilarProductsResult;
+import com.interview.similar_products_api.infrastructure.rest.ProductRestClientAdapter;
+import com.interview.similar_products_api.infrastructure.web.ProductChangeController;
+import com.interview.similar_products_api.infrastructure.web.ProductChangeRequest;
+import com.interview.similar_products_api.infrastructure.web.ProductChangesRequest;
+import com.interview.similar_products_api.infrastructure.web.ProductController;
+import com.interview.similar_products_api.infrastructure.web.ReactiveProductController;
+import com.interview.similar_products_api.infrastructure.web.SimilarProductsBatchRequest;
+import com.interview.similar_products_api.infrastructure.web.SimilarProductsPageParams;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection a native image cannot discover on its own. Spring's AOT
+ * processing registers the beans and the handler methods it wires, but not
+ * the JSON bodies Jackson binds when the streaming codec is off, the
+ * constraint annotations Hibernate Validator reads from the request
+ * records, or the controller methods springdoc inspects to build the API
+ * description.
+ */
+public class SimilarProductsRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] JSON_TYPES = {
+            ProductDetail.class,
+            SimilarProductsResult.class,
+            SimilarProductsPageParams.class,
+            SimilarProductsBatchRequest.class,
+            ProductChangesRequest.class,
+            ProductChangeRequest.class
+    };
+
+    private static final Class<?>[] VALIDATED_TYPES = {
+            SimilarProductsPageParams.class,
+            SimilarProductsBatchRequest.class,
+            ProductChangesRequest.class,
+            ProductChangeRequest.class
+    };
+
+    private static final Class<?>[] CONTROLLERS = {
+            ProductController.class,
+            ReactiveProductController.class,
+            ProductChangeController.class
+    };
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(), JSON_TYPES);
+        for (Class<?> type : VALIDATED_TYPES) {
+            hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        for (Class<?> controller : CONTROLLERS) {
+            hints.reflection().registerType(controller, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.reflection().registerType(ProductRestClientAdapter.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
@@ -0,0 +1,37 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "external-api.transport")
+public record TransportProperties(
+        @DefaultValue("HTTP_2") Protocol protocol,
+        @DefaultValue("1s") Duration connectTimeout,
+        @DefaultValue("5s") Duration readTimeout,
+        @DefaultValue("DEFAULT") ClientExecutor executor,
+        @DefaultValue Pool pool) {
+
+    public enum Protocol {
+        /** Apache HttpClient 5 with a bounded keep-alive connection pool. */
+        HTTP_1_1,
+        /** JDK HttpClient multiplexing requests over HTTP/2, upgrading cleartext connections to h2c. */
+        HTTP_2
+    }
+
+    public enum ClientExecutor {
+        /** The JDK HttpClient's own cached thread pool. */
+        DEFAULT,
+        /** The application's virtual thread executor. */
+        VIRTUAL
+    }
+
+    public record Pool(
+            @DefaultValue("200") int maxTotal,
+            @DefaultValue("200") int maxPerRoute,
+            @DefaultValue("30s") Duration keepAlive,
+            @DefaultValue("10s") Duration idleTimeout,
+            @DefaultValue("100ms") Duration acquireTimeout) {
+    }
+}
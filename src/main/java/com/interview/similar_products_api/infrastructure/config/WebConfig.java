@@ -0,0 +1,36 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.similar_products_api.infrastructure.web.PreSerializedProductListConverter;
+import com.interview.similar_products_api.infrastructure.web.ProductJsonCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final boolean jsonCacheEnabled;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public WebConfig(@Value("${similar-products.json-cache.enabled:false}") boolean jsonCacheEnabled,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jsonCacheEnabled = jsonCacheEnabled;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if (jsonCacheEnabled) {
+            // ahead of Jackson, so it wins for List<ProductDetail> and declines everything else
+            ProductJsonCache productJsonCache = new ProductJsonCache(objectMapper, meterRegistry);
+            converters.addFirst(new PreSerializedProductListConverter(productJsonCache));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.interview.similar_products_api.infrastructure.metrics;
+
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamTimeoutException;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every upstream call in {@code upstream.requests}, tagged by endpoint
+ * and outcome. Sits directly on top of the REST adapter so the timings are
+ * the real upstream latency, below any cache, coalescing or hedging. The
+ * endpoints and outcomes are fixed, so every timer is registered up front
+ * and a call only records into one.
+ */
+public class MeteredProductRepository implements ProductRepository {
+
+    private final ProductRepository delegate;
+    private final Map<Outcome, Timer> similarIdsTimers;
+    private final Map<Outcome, Timer> detailTimers;
+
+    public MeteredProductRepository(ProductRepository delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.similarIdsTimers = timers(meterRegistry, "similarids");
+        this.detailTimers = timers(meterRegistry, "detail");
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            List<String> similarIds = delegate.getSimilarProductIds(productId);
+            outcome = Outcome.SUCCESS;
+            return similarIds;
+        } catch (RuntimeException ex) {
+            outcome = outcomeOf(ex);
+            throw ex;
+        } finally {
+            similarIdsTimers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public ProductLookup getProductDetail(String productId) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            ProductLookup productLookup = delegate.getProductDetail(productId);
+            outcome = outcomeOf(productLookup);
+            return productLookup;
+        } catch (RuntimeException ex) {
+            outcome = outcomeOf(ex);
+            throw ex;
+        } finally {
+            detailTimers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Map<Outcome, Timer> timers(MeterRegistry meterRegistry, String endpoint) {
+        Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+        for (Outcome outcome : Outcome.values()) {
+            timers.put(outcome, Timer.builder("upstream.requests")
+                    .description("Latency of calls to the upstream product service")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome.tag)
+                    .register(meterRegistry));
+        }
+        return timers;
+    }
+
+    private static Outcome outcomeOf(ProductLookup productLookup) {
+        return switch (productLookup) {
+            case ProductLookup.Found found -> Outcome.SUCCESS;
+            case ProductLookup.NotFound notFound -> Outcome.NOT_FOUND;
+            case ProductLookup.Timeout timeout -> Outcome.TIMEOUT;
+            case ProductLookup.UpstreamError error -> Outcome.ERROR;
+            // the limiter sits above this tier, so a rejection never comes from the adapter
+            case ProductLookup.Rejected rejected -> Outcome.ERROR;
+        };
+    }
+
+    private static Outcome outcomeOf(RuntimeException ex) {
+        if (ex instanceof ProductNotFoundException) {
+            return Outcome.NOT_FOUND;
+        }
+        if (ex instanceof UpstreamTimeoutException) {
+            return Outcome.TIMEOUT;
+        }
+        return Outcome.ERROR;
+    }
+
+    private enum Outcome {
+        SUCCESS("success"),
+        NOT_FOUND("not_found"),
+        TIMEOUT("timeout"),
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD limit on concurrent calls. Each successful call that observed the pool
+ * in use grows the limit by {@code 1 / limit}, roughly one slot per round
+ * trip; a failed call or one slower than the latency threshold multiplies it
+ * by the backoff ratio. Callers above the limit queue for up to the given
+ * timeout.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitAvailable = lock.newCondition();
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+            Duration latencyThreshold) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    public boolean tryAcquire(Duration timeout) {
+        long remainingNanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = permitAvailable.awaitNanos(remainingNanos);
+            }
+            inFlight++;
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long latencyNanos, boolean dropped) {
+        lock.lock();
+        try {
+            boolean utilized = inFlight * 2 >= limit;
+            inFlight--;
+            if (dropped || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (utilized) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            if (inFlight < (int) limit) {
+                permitAvailable.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
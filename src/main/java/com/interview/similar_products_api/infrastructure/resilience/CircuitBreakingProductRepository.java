@@ -0,0 +1,125 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.UpstreamCallRejectedException;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.CircuitBreakerProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One circuit breaker per upstream endpoint. Upstream failures and slow calls
+ * open the circuit, whether thrown or returned as a failed
+ * {@link ProductLookup}. While open, detail calls answer a rejected lookup,
+ * which the service turns into an omitted product, and similar-ids calls
+ * throw {@link UpstreamCallRejectedException}, which the exception handler
+ * turns into a 502. Not found responses are ignored by the breaker, and so
+ * are calls rejected locally by the concurrency limiter below it, which never
+ * reached the upstream service.
+ */
+public class CircuitBreakingProductRepository implements ProductRepository {
+
+    private final ProductRepository delegate;
+    private final CircuitBreaker similarIds;
+    private final CircuitBreaker detail;
+
+    public CircuitBreakingProductRepository(ProductRepository delegate, CircuitBreakerProperties properties,
+            MeterRegistry meterRegistry) {
+        this(delegate, properties, Clock.systemUTC(), meterRegistry);
+    }
+
+    CircuitBreakingProductRepository(ProductRepository delegate, CircuitBreakerProperties properties, Clock clock,
+            MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .clock(clock)
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(properties.slidingWindowSize())
+                .minimumNumberOfCalls(properties.minimumNumberOfCalls())
+                .failureRateThreshold(properties.failureRateThreshold())
+                .slowCallRateThreshold(properties.slowCallRateThreshold())
+                .slowCallDurationThreshold(properties.slowCallDurationThreshold())
+                .waitDurationInOpenState(properties.waitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(properties.permittedNumberOfCallsInHalfOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(false)
+                .recordExceptions(ExternalServiceException.class)
+                .ignoreExceptions(UpstreamCallRejectedException.class)
+                .recordResult(result -> result instanceof ProductLookup lookup && lookup.isFailure())
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+
+        this.delegate = delegate;
+        this.similarIds = registry.circuitBreaker("similarids");
+        this.detail = registry.circuitBreaker("detail");
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        return call(similarIds, productId, () -> delegate.getSimilarProductIds(productId), message -> {
+            throw new UpstreamCallRejectedException(message);
+        });
+    }
+
+    @Override
+    public ProductLookup getProductDetail(String productId) {
+        return call(detail, productId, () -> delegate.getProductDetail(productId), ProductLookup::rejected);
+    }
+
+    /**
+     * Same bookkeeping as {@link CircuitBreaker#executeSupplier}, but an open
+     * circuit answers {@code whenOpen} instead of throwing
+     * {@code CallNotPermittedException}. A rejected lookup gives its permit
+     * back without being recorded, like an ignored exception, and so does a
+     * call cancelled by its caller, unless it had already run past the slow
+     * call threshold: a hanging endpoint is usually cancelled by the request
+     * deadline before it answers, and must still count as slow.
+     */
+    private static <T> T call(CircuitBreaker circuitBreaker, String productId, Supplier<T> call,
+            Function<String, T> whenOpen) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return whenOpen.apply(
+                    "Circuit " + circuitBreaker.getName() + " is open, skipping call for product " + productId);
+        }
+        long start = circuitBreaker.getCurrentTimestamp();
+        try {
+            T result = call.get();
+            long elapsed = circuitBreaker.getCurrentTimestamp() - start;
+            if (result instanceof ProductLookup.Rejected) {
+                circuitBreaker.releasePermission();
+            } else if (Thread.currentThread().isInterrupted()) {
+                onCancelled(circuitBreaker, elapsed);
+            } else {
+                circuitBreaker.onResult(elapsed, circuitBreaker.getTimestampUnit(), result);
+            }
+            return result;
+        } catch (RuntimeException ex) {
+            long elapsed = circuitBreaker.getCurrentTimestamp() - start;
+            if (Thread.currentThread().isInterrupted()) {
+                onCancelled(circuitBreaker, elapsed);
+            } else {
+                circuitBreaker.onError(elapsed, circuitBreaker.getTimestampUnit(), ex);
+            }
+            throw ex;
+        }
+    }
+
+    private static void onCancelled(CircuitBreaker circuitBreaker, long elapsed) {
+        Duration slowCallThreshold = circuitBreaker.getCircuitBreakerConfig().getSlowCallDurationThreshold();
+        if (circuitBreaker.getTimestampUnit().toNanos(elapsed) >= slowCallThreshold.toNanos()) {
+            // recorded as a success that took too long, which is a slow call
+            circuitBreaker.onSuccess(elapsed, circuitBreaker.getTimestampUnit());
+        } else {
+            circuitBreaker.releasePermission();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds concurrent requests and sheds queued ones with CoDel-style timeouts.
+ * Every caller records how long it waited for a permit. If the shortest wait
+ * seen during an {@code interval} stayed above {@code target}, the queue never
+ * drained and the limiter is considered overloaded: callers then wait at most
+ * {@code target} instead of {@code interval}, so the backlog is shed quickly
+ * and admitted requests keep a bounded queueing delay.
+ */
+public class CoDelAdmissionLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitAvailable = lock.newCondition();
+
+    private final int maxConcurrent;
+    private final long targetNanos;
+    private final long intervalNanos;
+
+    private int inFlight;
+    private int queued;
+    private boolean overloaded;
+    private long intervalStart = System.nanoTime();
+    private long minDelayInInterval = Long.MAX_VALUE;
+
+    public CoDelAdmissionLimiter(int maxConcurrent, Duration target, Duration interval) {
+        this.maxConcurrent = maxConcurrent;
+        this.targetNanos = target.toNanos();
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Waits for a permit for up to the current queue timeout.
+     *
+     * @return the time spent queueing, or {@code -1} if the caller was shed
+     */
+    public long tryAcquire() {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            long remainingNanos = overloaded ? targetNanos : intervalNanos;
+            queued++;
+            try {
+                while (inFlight >= maxConcurrent) {
+                    if (remainingNanos <= 0) {
+                        recordDelay(System.nanoTime() - start);
+                        return -1;
+                    }
+                    remainingNanos = permitAvailable.awaitNanos(remainingNanos);
+                }
+            } finally {
+                queued--;
+            }
+            inFlight++;
+            long delay = System.nanoTime() - start;
+            recordDelay(delay);
+            return delay;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isOverloaded() {
+        lock.lock();
+        try {
+            return overloaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordDelay(long delayNanos) {
+        long now = System.nanoTime();
+        minDelayInInterval = Math.min(minDelayInInterval, delayNanos);
+        if (now - intervalStart >= intervalNanos) {
+            overloaded = minDelayInInterval > targetNanos;
+            minDelayInInterval = Long.MAX_VALUE;
+            intervalStart = now;
+        }
+    }
+}
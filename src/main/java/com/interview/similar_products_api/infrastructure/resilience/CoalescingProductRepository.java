@@ -0,0 +1,38 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+
+public class CoalescingProductRepository implements ProductRepository {
+
+    private final ProductRepository delegate;
+    private final SingleFlight<String, List<String>> similarIdsCalls;
+    private final SingleFlight<String, ProductLookup> detailCalls;
+
+    public CoalescingProductRepository(ProductRepository delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.similarIdsCalls = new SingleFlight<>(coalescedCounter(meterRegistry, "similarids")::increment);
+        this.detailCalls = new SingleFlight<>(coalescedCounter(meterRegistry, "detail")::increment);
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        return similarIdsCalls.execute(productId, () -> delegate.getSimilarProductIds(productId));
+    }
+
+    @Override
+    public ProductLookup getProductDetail(String productId) {
+        return detailCalls.execute(productId, () -> delegate.getProductDetail(productId));
+    }
+
+    private static Counter coalescedCounter(MeterRegistry meterRegistry, String endpoint) {
+        return Counter.builder("upstream.requests.coalesced")
+                .description("Upstream calls served by joining an identical in-flight call")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+}
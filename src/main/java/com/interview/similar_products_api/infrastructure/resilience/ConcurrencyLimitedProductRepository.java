@@ -0,0 +1,97 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.UpstreamCallRejectedException;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class ConcurrencyLimitedProductRepository implements ProductRepository {
+
+    private final ProductRepository delegate;
+    private final Bulkhead similarIds;
+    private final Bulkhead detail;
+
+    public ConcurrencyLimitedProductRepository(ProductRepository delegate, ConcurrencyLimitProperties properties,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.similarIds = new Bulkhead("similarids", properties.similarIds(), meterRegistry);
+        this.detail = new Bulkhead("detail", properties.detail(), meterRegistry);
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        return similarIds.call(productId, () -> delegate.getSimilarProductIds(productId), ids -> false,
+                message -> {
+                    throw new UpstreamCallRejectedException(message);
+                });
+    }
+
+    @Override
+    public ProductLookup getProductDetail(String productId) {
+        return detail.call(productId, () -> delegate.getProductDetail(productId), ProductLookup::isFailure,
+                ProductLookup::rejected);
+    }
+
+    private static final class Bulkhead {
+
+        private final String endpoint;
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final Duration queueTimeout;
+        private final Counter rejected;
+
+        private Bulkhead(String endpoint, ConcurrencyLimitProperties.Pool pool, MeterRegistry meterRegistry) {
+            this.endpoint = endpoint;
+            this.limiter = new AdaptiveConcurrencyLimiter(pool.initialLimit(), pool.minLimit(), pool.maxLimit(),
+                    pool.backoffRatio(), pool.latencyThreshold());
+            this.queueTimeout = pool.queueTimeout();
+            Gauge.builder("upstream.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive limit of concurrent upstream calls")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            Gauge.builder("upstream.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Upstream calls currently in flight")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("upstream.concurrency.rejected")
+                    .description("Upstream calls rejected after waiting for the concurrency limit")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Runs the call within the limit. Failed calls, thrown or returned as
+         * a {@code failed} result, count as drops for the limiter, unless the
+         * caller cancelled them, which says nothing about upstream capacity;
+         * a call that cannot get a permit in time gets the {@code rejected}
+         * result.
+         */
+        private <T> T call(String productId, Supplier<T> call, Predicate<T> failed, Function<String, T> rejected) {
+            if (!limiter.tryAcquire(queueTimeout)) {
+                this.rejected.increment();
+                return rejected.apply("Concurrency limit reached calling " + endpoint + " for product " + productId);
+            }
+            long start = System.nanoTime();
+            boolean dropped = false;
+            try {
+                T result = call.get();
+                dropped = failed.test(result) && !Thread.currentThread().isInterrupted();
+                return result;
+            } catch (ExternalServiceException ex) {
+                dropped = !Thread.currentThread().isInterrupted();
+                throw ex;
+            } finally {
+                limiter.release(System.nanoTime() - start, dropped);
+            }
+        }
+    }
+}
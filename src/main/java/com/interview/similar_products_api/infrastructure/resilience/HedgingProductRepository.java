@@ -0,0 +1,196 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import com.interview.similar_products_api.application.service.CancellableFuture;
+import com.interview.similar_products_api.application.service.RequestDeadline;
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.HedgingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends a second, identical detail request when the first one has not
+ * answered within the tracked latency percentile, and returns whichever
+ * succeeds first; a lookup that found the product or confirmed it missing
+ * is a success. Hedges are capped by a {@link RequestBudget} so they never
+ * exceed the configured share of detail traffic.
+ */
+public class HedgingProductRepository implements ProductRepository {
+
+    private static final int BUDGET_BURST = 10;
+
+    private final ProductRepository delegate;
+    private final Executor executor;
+    private final LatencyTracker latencyTracker;
+    private final RequestBudget budget;
+    private final Duration minDelay;
+    private final Counter hedgesSent;
+    private final Counter hedgesSkipped;
+    private final Counter hedgesWon;
+
+    public HedgingProductRepository(ProductRepository delegate, HedgingProperties properties, Executor executor,
+            MeterRegistry meterRegistry) {
+        this(delegate, properties, executor, new LatencyTracker(properties.percentile(), properties.minSamples(),
+                properties.refreshInterval(), properties.initialDelay()), meterRegistry);
+    }
+
+    HedgingProductRepository(ProductRepository delegate, HedgingProperties properties, Executor executor,
+            LatencyTracker latencyTracker, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.latencyTracker = latencyTracker;
+        this.budget = new RequestBudget(properties.budgetPercent() / 100.0, BUDGET_BURST);
+        this.minDelay = properties.minDelay();
+        this.hedgesSent = hedgeCounter(meterRegistry, "sent");
+        this.hedgesSkipped = hedgeCounter(meterRegistry, "budget_exhausted");
+        this.hedgesWon = Counter.builder("upstream.hedge.wins")
+                .description("Hedged detail requests that answered before the original one")
+                .register(meterRegistry);
+        Gauge.builder("upstream.hedge.delay", this, repository -> repository.hedgeDelay().toMillis())
+                .description("Current delay before a detail request is hedged")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        return delegate.getSimilarProductIds(productId);
+    }
+
+    @Override
+    public ProductLookup getProductDetail(String productId) {
+        budget.onRequest();
+        CompletableFuture<ProductLookup> primary = attempt(productId);
+        try {
+            return primary.get(hedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            // primary is slower than usual, hedge below
+        } catch (ExecutionException ex) {
+            throw unwrap(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            primary.cancel(true);
+            return ProductLookup.upstreamError("Interrupted waiting for product detail " + productId, false);
+        }
+
+        if (!budget.tryAcquire()) {
+            hedgesSkipped.increment();
+            return await(primary, productId);
+        }
+        hedgesSent.increment();
+        CompletableFuture<ProductLookup> hedge = attempt(productId);
+        try {
+            return await(firstSuccessful(primary, hedge, hedgesWon::increment), productId);
+        } finally {
+            primary.cancel(true);
+            hedge.cancel(true);
+        }
+    }
+
+    Duration hedgeDelay() {
+        Duration percentile = latencyTracker.currentPercentile();
+        return percentile.compareTo(minDelay) < 0 ? minDelay : percentile;
+    }
+
+    /**
+     * Runs one attempt, recording its latency only when it finished on its
+     * own: an attempt cancelled because the other one won, or at the
+     * caller's deadline, returns early and would drag the percentile down.
+     */
+    private CompletableFuture<ProductLookup> attempt(String productId) {
+        return CancellableFuture.supplyAsync(RequestDeadline.propagate(() -> {
+            long start = System.nanoTime();
+            ProductLookup result = delegate.getProductDetail(productId);
+            if (!Thread.currentThread().isInterrupted()) {
+                latencyTracker.record(System.nanoTime() - start);
+            }
+            return result;
+        }), executor);
+    }
+
+    /**
+     * Completes with the first lookup that is not a failure, or with the
+     * hedge's outcome once both have failed.
+     */
+    private static CompletableFuture<ProductLookup> firstSuccessful(CompletableFuture<ProductLookup> primary,
+            CompletableFuture<ProductLookup> hedge, Runnable onHedgeWon) {
+        CompletableFuture<ProductLookup> winner = new CompletableFuture<>();
+        AtomicBoolean decided = new AtomicBoolean();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((lookup, ex) -> {
+            if (ex == null && !lookup.isFailure()) {
+                if (decided.compareAndSet(false, true)) {
+                    winner.complete(lookup);
+                }
+            } else if (failures.incrementAndGet() == 2) {
+                complete(winner, lookup, ex);
+            }
+        });
+        hedge.whenComplete((lookup, ex) -> {
+            if (ex == null && !lookup.isFailure()) {
+                // count the win before the caller can observe the result
+                if (decided.compareAndSet(false, true)) {
+                    onHedgeWon.run();
+                    winner.complete(lookup);
+                }
+            } else if (failures.incrementAndGet() == 2) {
+                complete(winner, lookup, ex);
+            }
+        });
+        return winner;
+    }
+
+    private static void complete(CompletableFuture<ProductLookup> winner, ProductLookup lookup, Throwable ex) {
+        if (ex == null) {
+            winner.complete(lookup);
+        } else {
+            winner.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Waits for the lookup, interruptibly unlike {@link CompletableFuture#join},
+     * so a caller cancelled at its deadline cancels the attempts too.
+     */
+    private static ProductLookup await(CompletableFuture<ProductLookup> future, String productId) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            throw unwrap(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return ProductLookup.upstreamError("Interrupted waiting for product detail " + productId, false);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException completion && completion.getCause() != null) {
+            cause = completion.getCause();
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new ExternalServiceException("Error calling product detail", cause);
+    }
+
+    private static Counter hedgeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("upstream.hedge.requests")
+                .description("Detail requests that exceeded the hedge delay")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
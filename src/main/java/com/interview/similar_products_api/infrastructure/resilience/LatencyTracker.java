@@ -0,0 +1,60 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks a latency percentile over recent calls. Samples go into an
+ * HdrHistogram {@link Recorder}; at most once per refresh interval the
+ * recorded interval is folded into a window that is used to recompute the
+ * percentile as soon as it holds {@code minSamples} values.
+ */
+public class LatencyTracker {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 2);
+    private final double percentile;
+    private final long minSamples;
+    private final long refreshIntervalNanos;
+
+    private Histogram interval;
+    private Histogram window = new Histogram(HIGHEST_TRACKABLE_MICROS, 2);
+    private volatile long lastRefreshNanos = System.nanoTime();
+    private volatile long percentileMicros;
+
+    public LatencyTracker(double percentile, long minSamples, Duration refreshInterval, Duration initialValue) {
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.percentileMicros = TimeUnit.NANOSECONDS.toMicros(initialValue.toNanos());
+    }
+
+    public void record(long latencyNanos) {
+        recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+    }
+
+    public Duration currentPercentile() {
+        long now = System.nanoTime();
+        if (now - lastRefreshNanos >= refreshIntervalNanos) {
+            refresh(now);
+        }
+        return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(percentileMicros));
+    }
+
+    private synchronized void refresh(long now) {
+        if (now - lastRefreshNanos < refreshIntervalNanos) {
+            return;
+        }
+        lastRefreshNanos = now;
+        interval = recorder.getIntervalHistogram(interval);
+        window.add(interval);
+        if (window.getTotalCount() >= minSamples) {
+            percentileMicros = window.getValueAtPercentile(percentile);
+            window.reset();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that caps extra calls (hedges, retries) at a fraction of
+ * primary traffic. Every primary call deposits {@code ratio} tokens up to
+ * {@code maxTokens}; every extra call spends one whole token.
+ */
+public class RequestBudget {
+
+    private static final long SCALE = 1_000;
+
+    private final long depositPerRequest;
+    private final long capacity;
+    private final AtomicLong tokens;
+
+    public RequestBudget(double ratio, int maxTokens) {
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.capacity = maxTokens * SCALE;
+        this.tokens = new AtomicLong(capacity);
+    }
+
+    public void onRequest() {
+        tokens.accumulateAndGet(depositPerRequest, (current, deposit) -> Math.min(capacity, current + deposit));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            long current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    public double availableTokens() {
+        return (double) tokens.get() / SCALE;
+    }
+}
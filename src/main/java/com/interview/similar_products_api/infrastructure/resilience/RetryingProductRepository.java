@@ -0,0 +1,166 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import com.interview.similar_products_api.application.service.RequestDeadline;
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.UpstreamCallRejectedException;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.RetryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Retries failed upstream GETs with decorrelated jitter: each backoff is
+ * drawn between the base delay and three times the previous one, capped at
+ * the max delay. A retry is skipped when the request deadline would leave
+ * less than {@code minAttemptTime} after the backoff, or less than the failed
+ * attempt took if that was longer, so fast transient failures are retried
+ * while a timed out attempt is not repeated without room for it; or when the
+ * {@link RequestBudget} shared by both endpoints is spent, so retries stay a
+ * bounded share of primary traffic and never multiply load during an
+ * outage. Client errors are not retried, and neither are local rejections
+ * from the concurrency limiter or an open circuit breaker below, since every
+ * attempt goes through them again. Detail lookups are retried on a returned
+ * timeout or retryable upstream error lookup, similar ids on a thrown
+ * {@link ExternalServiceException}.
+ */
+public class RetryingProductRepository implements ProductRepository {
+
+    private static final int BUDGET_BURST = 10;
+
+    private final ProductRepository delegate;
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final long minAttemptNanos;
+    private final RequestBudget budget;
+    private final Endpoint similarIds;
+    private final Endpoint detail;
+
+    public RetryingProductRepository(ProductRepository delegate, RetryProperties properties,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxAttempts = properties.maxAttempts();
+        this.baseDelayNanos = properties.baseDelay().toNanos();
+        this.maxDelayNanos = Math.max(baseDelayNanos, properties.maxDelay().toNanos());
+        this.minAttemptNanos = properties.minAttemptTime().toNanos();
+        this.budget = new RequestBudget(properties.budgetPercent() / 100.0, BUDGET_BURST);
+        this.similarIds = new Endpoint("similarids", meterRegistry);
+        this.detail = new Endpoint("detail", meterRegistry);
+    }
+
+    @Override
+    public List<String> getSimilarProductIds(String productId) {
+        return call(similarIds, () -> delegate.getSimilarProductIds(productId), ids -> false);
+    }
+
+    @Override
+    public ProductLookup getProductDetail(String productId) {
+        return call(detail, () -> delegate.getProductDetail(productId), RetryingProductRepository::isRetryable);
+    }
+
+    /**
+     * Calls until the result is not {@code retryable} and nothing retryable
+     * was thrown, or a retry is not allowed; then returns the last result or
+     * rethrows the last failure.
+     */
+    private <T> T call(Endpoint endpoint, Supplier<T> attempt, Predicate<T> retryable) {
+        budget.onRequest();
+        long backoffNanos = baseDelayNanos;
+        for (int attempts = 1; ; attempts++) {
+            T result = null;
+            ExternalServiceException failure = null;
+            long attemptStart = System.nanoTime();
+            try {
+                result = attempt.get();
+                if (!retryable.test(result)) {
+                    return result;
+                }
+            } catch (ExternalServiceException ex) {
+                if (!isRetryable(ex)) {
+                    throw ex;
+                }
+                failure = ex;
+            }
+            if (attempts >= maxAttempts || Thread.currentThread().isInterrupted()) {
+                return giveUp(result, failure);
+            }
+            long attemptNanos = Math.max(minAttemptNanos, System.nanoTime() - attemptStart);
+            backoffNanos = nextBackoff(backoffNanos);
+            if (RequestDeadline.remainingNanos() - backoffNanos < attemptNanos) {
+                endpoint.deadlineExceeded.increment();
+                return giveUp(result, failure);
+            }
+            if (!budget.tryAcquire()) {
+                endpoint.budgetExhausted.increment();
+                return giveUp(result, failure);
+            }
+            endpoint.retried.increment();
+            if (!sleep(backoffNanos)) {
+                return giveUp(result, failure);
+            }
+        }
+    }
+
+    private long nextBackoff(long previousNanos) {
+        long upper = Math.min(maxDelayNanos, previousNanos * 3);
+        return upper <= baseDelayNanos
+                ? baseDelayNanos
+                : ThreadLocalRandom.current().nextLong(baseDelayNanos, upper + 1);
+    }
+
+    private static boolean isRetryable(ExternalServiceException ex) {
+        return !(ex instanceof UpstreamCallRejectedException)
+                && !(ex.getCause() instanceof HttpClientErrorException);
+    }
+
+    private static boolean isRetryable(ProductLookup productLookup) {
+        return productLookup instanceof ProductLookup.Timeout
+                || productLookup instanceof ProductLookup.UpstreamError error && error.retryable();
+    }
+
+    private static <T> T giveUp(T result, ExternalServiceException failure) {
+        if (failure != null) {
+            throw failure;
+        }
+        return result;
+    }
+
+    private static boolean sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class Endpoint {
+
+        private final Counter retried;
+        private final Counter budgetExhausted;
+        private final Counter deadlineExceeded;
+
+        private Endpoint(String endpoint, MeterRegistry meterRegistry) {
+            this.retried = retryCounter(meterRegistry, endpoint, "retried");
+            this.budgetExhausted = retryCounter(meterRegistry, endpoint, "budget_exhausted");
+            this.deadlineExceeded = retryCounter(meterRegistry, endpoint, "deadline_exceeded");
+        }
+
+        private static Counter retryCounter(MeterRegistry meterRegistry, String endpoint, String outcome) {
+            return Counter.builder("upstream.retries")
+                    .description("Upstream call failures by retry decision")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import com.interview.similar_products_api.domain.exception.UpstreamCallRejectedException;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one call per key at a time. Callers arriving while a call for
+ * the same key is in flight wait for and share its outcome instead of
+ * starting their own.
+ *
+ * <p>Cancellation stays with the request it belongs to. A waiting caller
+ * that is interrupted stops waiting at once. A leader interrupted by its own
+ * request does not hand that outcome on: the flight is dropped and a
+ * waiting caller runs the call again as the new leader.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Runnable onCoalesced;
+
+    public SingleFlight(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        boolean coalesced = false;
+        while (true) {
+            CompletableFuture<V> leader = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, leader);
+            if (existing == null) {
+                return lead(key, leader, call);
+            }
+            if (!coalesced) {
+                coalesced = true;
+                onCoalesced.run();
+            }
+            try {
+                return await(key, existing);
+            } catch (CancellationException ex) {
+                // the leader was cancelled by its own request, take over
+            }
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V lead(K key, CompletableFuture<V> leader, Supplier<V> call) {
+        V value;
+        try {
+            value = call.get();
+        } catch (RuntimeException | Error ex) {
+            land(key, leader, flight -> flight.completeExceptionally(ex));
+            throw ex;
+        }
+        land(key, leader, flight -> flight.complete(value));
+        return value;
+    }
+
+    /**
+     * Ends the flight, sharing its outcome unless the leader was interrupted,
+     * in which case the outcome is that of a cancelled call and waiting
+     * callers are told to run it again.
+     */
+    private void land(K key, CompletableFuture<V> leader, Consumer<CompletableFuture<V>> outcome) {
+        inFlight.remove(key, leader);
+        if (Thread.currentThread().isInterrupted()) {
+            leader.cancel(false);
+        } else {
+            outcome.accept(leader);
+        }
+    }
+
+    private static <K, V> V await(K key, CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamCallRejectedException("Cancelled while waiting for an identical call for " + key);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.interview.similar_products_api.infrastructure.rest;
+
+/**
+ * Lossy, fixed-size cache of product id strings keyed by their characters,
+ * so an id that was decoded before is returned as the same {@code String}
+ * without allocating a new one. Colliding ids simply replace each other.
+ * Slots are written without synchronization: a reader sees either an older
+ * id or the newer one, and {@code String} is safely published either way.
+ */
+final class ProductIdInterner {
+
+    private static final int MAX_ID_LENGTH = 64;
+
+    private final String[] slots;
+    private final int mask;
+
+    ProductIdInterner(int size) {
+        int capacity = Integer.highestOneBit(Math.max(2, size) - 1) << 1;
+        this.slots = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    String intern(char[] chars, int offset, int length) {
+        if (length > MAX_ID_LENGTH) {
+            return new String(chars, offset, length);
+        }
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int index = (hash ^ (hash >>> 16)) & mask;
+        String cached = slots[index];
+        if (cached != null && matches(cached, chars, offset, length)) {
+            return cached;
+        }
+        String id = new String(chars, offset, length);
+        slots[index] = id;
+        return id;
+    }
+
+    private static boolean matches(String cached, char[] chars, int offset, int length) {
+        if (cached.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (cached.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
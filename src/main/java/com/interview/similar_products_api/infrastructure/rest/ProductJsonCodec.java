@@ -0,0 +1,149 @@
+package com.interview.similar_products_api.infrastructure.rest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decodes the product service's {@code /product/{id}} and
+ * {@code /product/{id}/similarids} bodies token by token from the response
+ * stream, without buffering the body or binding through databind.
+ *
+ * <p>Parser buffers come from Jackson's shared concurrent recycler pool
+ * rather than the default thread-local one, which does not help when every
+ * upstream call runs on a fresh virtual thread. Product ids are read from
+ * the parser's character buffer and interned, so ids seen before do not
+ * allocate a new string.
+ */
+public class ProductJsonCodec {
+
+    private final JsonFactory jsonFactory;
+    private final ProductIdInterner ids;
+
+    public ProductJsonCodec(int idCacheSize) {
+        this.jsonFactory = JsonFactory.builder()
+                .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+                // the HTTP client owns the stream and may keep the connection alive
+                .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+                .build();
+        this.ids = new ProductIdInterner(idCacheSize);
+    }
+
+    /**
+     * Reads a product detail, or returns null for an empty or {@code null}
+     * body. Unknown fields are skipped.
+     */
+    public ProductDetail readDetail(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            expect(parser, token, JsonToken.START_OBJECT);
+
+            String id = null;
+            String name = null;
+            BigDecimal price = null;
+            boolean availability = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id" -> id = readId(parser, value);
+                    case "name" -> name = readString(parser, value);
+                    case "price" -> price = readDecimal(parser, value);
+                    case "availability" -> availability = readBoolean(parser, value);
+                    default -> parser.skipChildren();
+                }
+            }
+            expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+            return new ProductDetail(id, name, price, availability);
+        }
+    }
+
+    /**
+     * Reads a list of similar product ids, or returns null for an empty or
+     * {@code null} body. {@code null} elements are dropped.
+     */
+    public List<String> readSimilarIds(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            expect(parser, token, JsonToken.START_ARRAY);
+
+            List<String> similarIds = new ArrayList<>();
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                String id = readId(parser, token);
+                if (id != null) {
+                    similarIds.add(id);
+                }
+            }
+            return Collections.unmodifiableList(similarIds);
+        }
+    }
+
+    private String readId(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.VALUE_STRING && token != JsonToken.VALUE_NUMBER_INT) {
+            throw new JsonParseException(parser, "Expected a product id but found " + token);
+        }
+        return ids.intern(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    private static String readString(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a string but found " + token);
+        }
+        return parser.getText();
+    }
+
+    private static BigDecimal readDecimal(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getDecimalValue();
+            case VALUE_STRING -> parseDecimal(parser);
+            default -> throw new JsonParseException(parser, "Expected a price but found " + token);
+        };
+    }
+
+    private static BigDecimal parseDecimal(JsonParser parser) throws IOException {
+        try {
+            return new BigDecimal(parser.getText());
+        } catch (NumberFormatException ex) {
+            throw new JsonParseException(parser, "Invalid price " + parser.getText(), ex);
+        }
+    }
+
+    private static boolean readBoolean(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_TRUE -> true;
+            case VALUE_FALSE, VALUE_NULL -> false;
+            case VALUE_STRING -> Boolean.parseBoolean(parser.getText());
+            default -> throw new JsonParseException(parser, "Expected availability but found " + token);
+        };
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.interview.similar_products_api.infrastructure.rest;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Reads upstream {@link ProductDetail} and {@code List<String>} bodies with
+ * {@link ProductJsonCodec} ahead of the Jackson converter. Read-only; every
+ * other type falls through to the default converters.
+ */
+public class ProductJsonConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final ProductJsonCodec codec;
+
+    public ProductJsonConverter(ProductJsonCodec codec) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.codec = codec;
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return (type == ProductDetail.class || isIdList(type)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == ProductDetail.class;
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException {
+        try {
+            return isIdList(type)
+                    ? codec.readSimilarIds(inputMessage.getBody())
+                    : codec.readDetail(inputMessage.getBody());
+        } catch (JacksonException ex) {
+            throw new HttpMessageNotReadableException("Invalid product JSON: " + ex.getOriginalMessage(), ex,
+                    inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("Upstream product bodies are read-only");
+    }
+
+    private static boolean isIdList(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        return resolved.toClass() == List.class && resolved.resolveGeneric(0) == String.class;
+    }
+}
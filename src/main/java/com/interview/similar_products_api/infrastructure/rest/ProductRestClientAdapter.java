@@ -2,20 +2,33 @@ package com.interview.similar_products_api.infrastructure.rest;
 
 import com.interview.similar_products_api.domain.exception.ExternalServiceException;
 import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamCallRejectedException;
+import com.interview.similar_products_api.domain.exception.UpstreamTimeoutException;
 import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
 import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 
+import java.io.InterruptedIOException;
+import java.net.http.HttpTimeoutException;
 import java.util.List;
-import java.util.Optional;
 
 @Component
 public class ProductRestClientAdapter implements ProductRepository {
 
+    /**
+     * Built from a resolved type rather than an anonymous subclass, so no
+     * generic signature has to be read reflectively in a native image.
+     */
+    private static final ParameterizedTypeReference<List<String>> SIMILAR_IDS = ParameterizedTypeReference.forType(
+            ResolvableType.forClassWithGenerics(List.class, String.class).getType());
+
     private final RestClient restClient;
 
     public ProductRestClientAdapter(RestClient restClient) {
@@ -39,36 +52,66 @@ public class ProductRestClientAdapter implements ProductRepository {
                                 throw new ExternalServiceException(
                                         "Error retrieving similar ids for product " + productId);
                             })
-                    .body(new ParameterizedTypeReference<>() {
-                    });
+                    .body(SIMILAR_IDS);
         } catch (RestClientException ex) {
-            throw new ExternalServiceException("Error calling similar ids for product " + productId, ex);
+            throw translate("Error calling similar ids for product " + productId, ex);
         }
     }
 
+    /**
+     * Reads the status from the exchange instead of a status handler, so a
+     * missing product is answered without creating an exception. Only I/O
+     * and decoding failures still arrive as exceptions from the client.
+     */
     @Override
-    public Optional<ProductDetail> getProductDetail(String productId) {
+    public ProductLookup getProductDetail(String productId) {
         try {
-            ProductDetail productDetail = restClient.get()
+            return restClient.get()
                     .uri("/product/{productId}", productId)
-                    .retrieve()
-                    .onStatus(
-                            status -> status.value() == 404,
-                            (request, response) -> {
-                                throw new ProductNotFoundException(productId);
-                            })
-                    .onStatus(
-                            HttpStatusCode::is5xxServerError,
-                            (request, response) -> {
-                                throw new ExternalServiceException("Error retrieving product detail for " + productId);
-                            })
-                    .body(ProductDetail.class);
-
-            return Optional.ofNullable(productDetail);
-        } catch (ProductNotFoundException ex) {
-            return Optional.empty();
+                    .exchange((request, response) -> {
+                        HttpStatusCode status = response.getStatusCode();
+                        if (status.value() == 404) {
+                            return ProductLookup.notFound();
+                        }
+                        if (!status.is2xxSuccessful()) {
+                            return ProductLookup.upstreamError(
+                                    "Status " + status.value() + " retrieving product detail for " + productId,
+                                    status.is5xxServerError());
+                        }
+                        ProductDetail productDetail = response.bodyTo(ProductDetail.class);
+                        // an empty success is a broken answer, not a missing product, so it must not be cached as one
+                        return productDetail == null
+                                ? ProductLookup.upstreamError("Empty product detail for " + productId, false)
+                                : ProductLookup.found(productDetail);
+                    });
         } catch (RestClientException ex) {
-            throw new ExternalServiceException("Error calling product detail for " + productId, ex);
+            String message = "Error calling product detail for " + productId;
+            if (isPoolExhausted(ex)) {
+                return ProductLookup.rejected(message + ": no pooled connection was free");
+            }
+            return isTimeout(ex) ? ProductLookup.timeout(message) : ProductLookup.upstreamError(message, true);
         }
     }
+
+    private static ExternalServiceException translate(String message, RestClientException ex) {
+        if (isPoolExhausted(ex)) {
+            return new UpstreamCallRejectedException(message + ": no pooled connection was free");
+        }
+        return isTimeout(ex) ? new UpstreamTimeoutException(message, ex) : new ExternalServiceException(message, ex);
+    }
+
+    /**
+     * Whether the HTTP/1.1 pool had no connection to lease within its
+     * acquire timeout. The request never left, so it says nothing about the
+     * upstream; the exception is an {@link InterruptedIOException} and would
+     * otherwise pass for a timeout.
+     */
+    private static boolean isPoolExhausted(RestClientException ex) {
+        return ex.getMostSpecificCause() instanceof ConnectionRequestTimeoutException;
+    }
+
+    private static boolean isTimeout(RestClientException ex) {
+        Throwable cause = ex.getMostSpecificCause();
+        return cause instanceof HttpTimeoutException || cause instanceof InterruptedIOException;
+    }
 }
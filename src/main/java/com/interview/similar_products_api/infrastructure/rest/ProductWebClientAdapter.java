@@ -0,0 +1,82 @@
+package com.interview.similar_products_api.infrastructure.rest;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamTimeoutException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.port.out.ReactiveProductRepository;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking counterpart of {@link ProductRestClientAdapter}, with the same
+ * mapping of upstream responses to domain results and exceptions.
+ */
+@Component
+@Profile("reactive")
+public class ProductWebClientAdapter implements ReactiveProductRepository {
+
+    private static final ParameterizedTypeReference<List<String>> SIMILAR_IDS = ParameterizedTypeReference.forType(
+            ResolvableType.forClassWithGenerics(List.class, String.class).getType());
+
+    private final WebClient webClient;
+
+    public ProductWebClientAdapter(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @Override
+    public Mono<List<String>> getSimilarProductIds(String productId) {
+        return webClient.get()
+                .uri("/product/{productId}/similarids", productId)
+                .retrieve()
+                .onStatus(
+                        status -> status.value() == 404,
+                        response -> Mono.error(new ProductNotFoundException(productId)))
+                .onStatus(
+                        HttpStatusCode::is5xxServerError,
+                        response -> Mono.error(new ExternalServiceException(
+                                "Error retrieving similar ids for product " + productId)))
+                .bodyToMono(SIMILAR_IDS)
+                .onErrorMap(WebClientException.class,
+                        ex -> translate("Error calling similar ids for product " + productId, ex));
+    }
+
+    @Override
+    public Mono<ProductDetail> getProductDetail(String productId) {
+        return webClient.get()
+                .uri("/product/{productId}", productId)
+                .retrieve()
+                .onStatus(
+                        status -> status.value() == 404,
+                        response -> Mono.error(new ProductNotFoundException(productId)))
+                .onStatus(
+                        HttpStatusCode::is5xxServerError,
+                        response -> Mono.error(new ExternalServiceException(
+                                "Error retrieving product detail for " + productId)))
+                .bodyToMono(ProductDetail.class)
+                .onErrorResume(ProductNotFoundException.class, ex -> Mono.empty())
+                .onErrorMap(WebClientException.class,
+                        ex -> translate("Error calling product detail for " + productId, ex));
+    }
+
+    private static ExternalServiceException translate(String message, WebClientException ex) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+        // Reactor Netty reports the response timeout as a ReadTimeoutException
+        if (cause instanceof ReadTimeoutException || cause instanceof TimeoutException) {
+            return new UpstreamTimeoutException(message, ex);
+        }
+        return new ExternalServiceException(message, ex);
+    }
+}
@@ -0,0 +1,153 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.interview.similar_products_api.infrastructure.resilience.CoDelAdmissionLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Admits product requests through a {@link CoDelAdmissionLimiter}; shed
+ * requests get 503 with {@code Retry-After}. Whole-list similar products
+ * requests that the response cache can already answer cost no upstream
+ * calls, so they skip the queue and are still served while the rest is being
+ * shed. Paged and filtered requests never use that cache, so they always
+ * queue.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Pattern SIMILAR_PRODUCTS = Pattern.compile("/product/([^/]+)/similar");
+    private static final Set<String> PAGE_PARAMETERS = Set.of("limit", "offset", "available", "minPrice",
+            "maxPrice", "continuationToken");
+
+    private final CoDelAdmissionLimiter limiter;
+    private final Predicate<String> cachedResponseAvailable;
+    private final String retryAfterSeconds;
+    private final Timer queueDelay;
+    private final Counter admitted;
+    private final Counter servedFromCache;
+    private final Counter shed;
+
+    public AdmissionControlFilter(CoDelAdmissionLimiter limiter, Predicate<String> cachedResponseAvailable,
+            Duration retryAfter, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.cachedResponseAvailable = cachedResponseAvailable;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        this.queueDelay = Timer.builder("http.admission.queue.delay")
+                .description("Time admitted requests waited for an admission permit")
+                .register(meterRegistry);
+        this.admitted = outcomeCounter(meterRegistry, "admitted");
+        this.servedFromCache = outcomeCounter(meterRegistry, "cached");
+        this.shed = outcomeCounter(meterRegistry, "shed");
+        Gauge.builder("http.admission.inflight", limiter, CoDelAdmissionLimiter::getInFlight)
+                .description("Requests holding an admission permit")
+                .register(meterRegistry);
+        Gauge.builder("http.admission.queued", limiter, CoDelAdmissionLimiter::getQueued)
+                .description("Requests waiting for an admission permit")
+                .register(meterRegistry);
+        Gauge.builder("http.admission.overloaded", limiter, l -> l.isOverloaded() ? 1 : 0)
+                .description("1 while queueing delay has stayed above the target for a whole interval")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isCachedSimilarProductsRequest(request)) {
+            servedFromCache.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+        long delayNanos = limiter.tryAcquire();
+        if (delayNanos < 0) {
+            shed.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        admitted.increment();
+        queueDelay.record(delayNanos, TimeUnit.NANOSECONDS);
+        Runnable release = releaseOnce();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // streamed responses keep their permit until the body is written
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private boolean isCachedSimilarProductsRequest(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Matcher matcher = SIMILAR_PRODUCTS.matcher(path);
+        return matcher.matches() && !isPaged(request) && cachedResponseAvailable.test(matcher.group(1));
+    }
+
+    private static boolean isPaged(HttpServletRequest request) {
+        return request.getParameterMap().keySet().stream().anyMatch(PAGE_PARAMETERS::contains);
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                limiter.release();
+            }
+        };
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("http.admission.requests")
+                .description("Product requests by admission control outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record ReleasingAsyncListener(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
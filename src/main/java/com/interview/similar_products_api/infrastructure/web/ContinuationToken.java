@@ -0,0 +1,59 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.interview.similar_products_api.domain.model.ProductFilter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque token telling the next page where in the similar ids to resume.
+ * It carries the product id and the filter it was issued for, so a token is
+ * rejected instead of silently skipping products when replayed against a
+ * different product or filter.
+ */
+final class ContinuationToken {
+
+    static final String HEADER = "Continuation-Token";
+
+    private static final char SEPARATOR = '\n';
+
+    private ContinuationToken() {
+    }
+
+    static String encode(String productId, ProductFilter filter, int start) {
+        String token = scope(productId, filter) + SEPARATOR + start;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static int decode(String token, String productId, ProductFilter filter) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidContinuationTokenException("Continuation token is not valid base64", ex);
+        }
+        int separator = decoded.lastIndexOf(SEPARATOR);
+        if (separator < 0 || !decoded.substring(0, separator).equals(scope(productId, filter))) {
+            throw new InvalidContinuationTokenException("Continuation token was issued for another request", null);
+        }
+        try {
+            int start = Integer.parseInt(decoded.substring(separator + 1));
+            if (start < 0) {
+                throw new InvalidContinuationTokenException("Continuation token has a negative position", null);
+            }
+            return start;
+        } catch (NumberFormatException ex) {
+            throw new InvalidContinuationTokenException("Continuation token has no position", ex);
+        }
+    }
+
+    private static String scope(String productId, ProductFilter filter) {
+        return productId + SEPARATOR + filter.available() + SEPARATOR + plain(filter.minPrice()) + SEPARATOR
+                + plain(filter.maxPrice());
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+}
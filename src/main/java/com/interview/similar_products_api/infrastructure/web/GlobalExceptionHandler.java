@@ -2,26 +2,57 @@ package com.interview.similar_products_api.infrastructure.web;
 
 import com.interview.similar_products_api.domain.exception.ExternalServiceException;
 import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(ProductNotFoundException.class)
     public ResponseEntity<String> handleProductNotFound(ProductNotFoundException ex) {
+        countError("not_found");
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product Not found");
     }
 
+    @ExceptionHandler(UpstreamTimeoutException.class)
+    public ResponseEntity<String> handleUpstreamTimeout(UpstreamTimeoutException ex) {
+        countError("timeout");
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body("Upstream service timeout");
+    }
+
     @ExceptionHandler(ExternalServiceException.class)
     public ResponseEntity<String> handleExternalServiceException(ExternalServiceException ex) {
+        countError("upstream_error");
         return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body("Upstream service error");
     }
 
+    @ExceptionHandler({ MethodArgumentNotValidException.class, HttpMessageNotReadableException.class,
+            HandlerMethodValidationException.class, InvalidContinuationTokenException.class })
+    public ResponseEntity<String> handleInvalidRequest(Exception ex) {
+        countError("invalid_request");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid request");
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleUnexpectedException(Exception ex) {
+        countError("unexpected");
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred");
     }
+
+    private void countError(String type) {
+        meterRegistry.counter("similar.products.errors", "type", type).increment();
+    }
 }
@@ -0,0 +1,8 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+class InvalidContinuationTokenException extends RuntimeException {
+
+    InvalidContinuationTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,64 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes {@code List<ProductDetail>} responses from the pre-rendered bytes in
+ * {@link ProductJsonCache} instead of running Jackson on every request.
+ * Write-only; every other type falls through to the Jackson converter.
+ */
+public class PreSerializedProductListConverter extends AbstractGenericHttpMessageConverter<List<ProductDetail>> {
+
+    private static final ResolvableType PRODUCT_LIST = ResolvableType.forClassWithGenerics(List.class,
+            ProductDetail.class);
+
+    private final ProductJsonCache productJsonCache;
+
+    public PreSerializedProductListConverter(ProductJsonCache productJsonCache) {
+        super(MediaType.APPLICATION_JSON);
+        this.productJsonCache = productJsonCache;
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return type != null && PRODUCT_LIST.isAssignableFrom(ResolvableType.forType(type)) && canWrite(mediaType);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(List<ProductDetail> products, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        productJsonCache.writeArray(products, outputMessage.getBody());
+    }
+
+    @Override
+    public List<ProductDetail> read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Product lists are write-only", inputMessage);
+    }
+
+    @Override
+    protected List<ProductDetail> readInternal(Class<? extends List<ProductDetail>> clazz,
+            HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Product lists are write-only", inputMessage);
+    }
+}
@@ -0,0 +1,78 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.interview.similar_products_api.domain.port.in.ApplyProductChangesCommand;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Internal change feed for the catalogue, disabled by default: pushing
+ * changes keeps the caches fresh, which is what allows their TTLs to be long.
+ * It rewrites every cache tier, so callers must send the configured
+ * {@code similar-products.product-changes.token} as a bearer token; the
+ * application does not start with the feed enabled and no token set.
+ */
+@RestController
+@RequestMapping("/internal/product-changes")
+@ConditionalOnProperty(prefix = "similar-products.product-changes", name = "enabled", havingValue = "true")
+@Tag(name = "Product Changes", description = "Internal feed of catalogue changes applied to the caches")
+public class ProductChangeController {
+
+    private static final String BEARER = "Bearer ";
+
+    private final ApplyProductChangesCommand applyProductChangesCommand;
+    private final byte[] token;
+
+    public ProductChangeController(ApplyProductChangesCommand applyProductChangesCommand,
+            @Value("${similar-products.product-changes.token:}") String token) {
+        if (token.isBlank()) {
+            throw new IllegalStateException(
+                    "similar-products.product-changes.token must be set when the product change feed is enabled");
+        }
+        this.applyProductChangesCommand = applyProductChangesCommand;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping
+    @Operation(summary = "Apply product changes", description = "Upserts or deletes products in every cache tier and in the cached similar products responses that list them")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Changes applied"),
+            @ApiResponse(responseCode = "400", description = "Invalid request"),
+            @ApiResponse(responseCode = "401", description = "Missing or wrong bearer token")
+    })
+    public ResponseEntity<Void> applyChanges(
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @Valid @RequestBody ProductChangesRequest request) {
+        if (!isAuthorized(authorization)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        applyProductChangesCommand.applyChanges(request.changes().stream()
+                .map(ProductChangeRequest::toProductChange)
+                .toList());
+        return ResponseEntity.noContent().build();
+    }
+
+    private boolean isAuthorized(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            return false;
+        }
+        // constant time, so the token cannot be guessed from response times
+        byte[] presented = authorization.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(presented, token);
+    }
+}
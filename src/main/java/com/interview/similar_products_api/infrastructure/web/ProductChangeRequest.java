@@ -0,0 +1,33 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.model.ProductChangeType;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record ProductChangeRequest(
+        @NotNull ProductChangeType type,
+        @NotBlank String productId,
+        ProductDetail detail,
+        List<@NotBlank String> similarIds) {
+
+    @JsonIgnore
+    @AssertTrue(message = "an upsert needs a detail or similar ids, and the detail id must match the product id")
+    public boolean isConsistent() {
+        if (type != ProductChangeType.UPSERT) {
+            return detail == null && similarIds == null;
+        }
+        return (detail != null || similarIds != null) && (detail == null || productId.equals(detail.id()));
+    }
+
+    ProductChange toProductChange() {
+        return type == ProductChangeType.DELETE
+                ? ProductChange.delete(productId)
+                : ProductChange.upsert(productId, detail, similarIds);
+    }
+}
@@ -0,0 +1,12 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ProductChangesRequest(
+        @NotEmpty @Size(max = 1000) List<@Valid @NotNull ProductChangeRequest> changes) {
+}
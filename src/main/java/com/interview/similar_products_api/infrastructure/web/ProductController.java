@@ -1,46 +1,170 @@
 
 package com.interview.similar_products_api.infrastructure.web;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductFilter;
+import com.interview.similar_products_api.domain.model.ResultOrder;
+import com.interview.similar_products_api.domain.model.SimilarProducts;
+import com.interview.similar_products_api.domain.model.SimilarProductsPage;
+import com.interview.similar_products_api.domain.model.SimilarProductsPageRequest;
+import com.interview.similar_products_api.domain.model.SimilarProductsResult;
 import com.interview.similar_products_api.domain.port.in.GetSimilarProductsQuery;
+import com.interview.similar_products_api.infrastructure.config.ProductCacheProperties;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
+import org.springdoc.core.annotations.ParameterObject;
 
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/product")
 @Tag(name = "Similar Products", description = "Operations related to similar products")
 public class ProductController {
 
+    private static final byte NEWLINE = '\n';
+
     private final GetSimilarProductsQuery getSimilarProductsQuery;
+    private final ObjectMapper objectMapper;
+    private final CacheControl similarProductsCacheControl;
 
-    public ProductController(GetSimilarProductsQuery getSimilarProductsQuery) {
+    public ProductController(GetSimilarProductsQuery getSimilarProductsQuery, ObjectMapper objectMapper,
+            ProductCacheProperties cacheProperties) {
         this.getSimilarProductsQuery = getSimilarProductsQuery;
+        this.objectMapper = objectMapper;
+        this.similarProductsCacheControl = cacheControl(cacheProperties);
     }
 
     @GetMapping("/{productId}/similar")
-    @Operation(summary = "Similar products", description = "Returns the list of similar products for a given productId")
+    @Operation(summary = "Similar products", description = "Returns the list of similar products for a given productId. With limit, offset, filters or a continuation token only the details needed for that page are fetched")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "OK", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductDetail.class)))),
+            @ApiResponse(responseCode = "200", description = "OK", headers = @Header(name = ContinuationToken.HEADER, description = "Token for the next page, absent on the last one"), content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductDetail.class)))),
+            @ApiResponse(responseCode = "304", description = "Not modified, the If-None-Match ETag is still current"),
+            @ApiResponse(responseCode = "400", description = "Invalid paging or filter parameters"),
             @ApiResponse(responseCode = "404", description = "Product Not found")
     })
     public ResponseEntity<List<ProductDetail>> getSimilarProducts(
-            @Parameter(description = "Product identifier", required = true) @PathVariable String productId) {
-        List<ProductDetail> similarProducts = getSimilarProductsQuery.getSimilarProducts(productId);
-        return ResponseEntity.ok(similarProducts);
+            @Parameter(description = "Product identifier", required = true) @PathVariable String productId,
+            @ParameterObject @Valid SimilarProductsPageParams page) {
+        if (!page.isPaged()) {
+            SimilarProducts similarProducts = getSimilarProductsQuery.getSimilarProducts(productId);
+            if (!similarProducts.complete()) {
+                // products were left out, so neither this body nor a validator for it should be reused
+                return ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .body(similarProducts.products());
+            }
+            return similarProductsResponse(ResponseEntity.ok(), similarProducts.products());
+        }
+        ProductFilter filter = page.filter();
+        int start = page.continuationToken() == null
+                ? 0
+                : ContinuationToken.decode(page.continuationToken(), productId, filter);
+        SimilarProductsPage similarProducts = getSimilarProductsQuery.getSimilarProductsPage(productId,
+                new SimilarProductsPageRequest(start,
+                        page.offset() == null ? 0 : page.offset(),
+                        page.limit() == null ? Integer.MAX_VALUE : page.limit(),
+                        filter));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (similarProducts.hasMore()) {
+            response.header(ContinuationToken.HEADER,
+                    ContinuationToken.encode(productId, filter, similarProducts.nextStart()));
+        }
+        if (!similarProducts.complete()) {
+            // cut short or missing failed details, the same request may get a different page next time
+            return response
+                    .cacheControl(CacheControl.noStore())
+                    .body(similarProducts.products());
+        }
+        return similarProductsResponse(response, similarProducts.products());
+    }
+
+    private ResponseEntity<List<ProductDetail>> similarProductsResponse(ResponseEntity.BodyBuilder response,
+            List<ProductDetail> similarProducts) {
+        // Spring answers 304 without serializing the body when If-None-Match matches the ETag
+        return response
+                .eTag(ProductListETag.of(similarProducts))
+                .cacheControl(similarProductsCacheControl)
+                .body(similarProducts);
+    }
+
+    @GetMapping(value = "/{productId}/similar/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Similar products stream", description = "Streams the similar products for a given productId as newline-delimited JSON, writing each product as soon as it is available")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ProductDetail.class))),
+            @ApiResponse(responseCode = "404", description = "Product Not found")
+    })
+    public ResponseEntity<StreamingResponseBody> streamSimilarProducts(
+            @Parameter(description = "Product identifier", required = true) @PathVariable String productId,
+            @Parameter(description = "COMPLETION writes products as they arrive, ORIGINAL keeps the similar ids order") @RequestParam(defaultValue = "COMPLETION") ResultOrder order) {
+        Stream<ProductDetail> similarProducts = getSimilarProductsQuery.streamSimilarProducts(productId, order);
+        StreamingResponseBody body = outputStream -> {
+            try (similarProducts) {
+                Iterator<ProductDetail> productDetails = similarProducts.iterator();
+                while (productDetails.hasNext()) {
+                    outputStream.write(objectMapper.writeValueAsBytes(productDetails.next()));
+                    outputStream.write(NEWLINE);
+                    outputStream.flush();
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PostMapping("/similar:batch")
+    @Operation(summary = "Similar products batch", description = "Returns the similar products for several productIds, fetching each distinct similar product only once")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK, with a status per productId"),
+            @ApiResponse(responseCode = "400", description = "Invalid request")
+    })
+    public ResponseEntity<Map<String, SimilarProductsResult>> getSimilarProductsBatch(
+            @Valid @RequestBody SimilarProductsBatchRequest request) {
+        return ResponseEntity.ok(getSimilarProductsQuery.getSimilarProductsBatch(request.productIds()));
+    }
+
+    /**
+     * Lets clients reuse a response for as long as the detail cache would
+     * serve it without refreshing, and serve it stale while revalidating
+     * until the cache entry itself expires.
+     */
+    private static CacheControl cacheControl(ProductCacheProperties cacheProperties) {
+        if (!cacheProperties.enabled()) {
+            return CacheControl.noCache();
+        }
+        Duration refreshAfter = cacheProperties.refreshAfter();
+        Duration ttl = cacheProperties.ttl();
+        CacheControl cacheControl = CacheControl.maxAge(refreshAfter);
+        return ttl.compareTo(refreshAfter) > 0
+                ? cacheControl.staleWhileRevalidate(ttl.minus(refreshAfter))
+                : cacheControl;
     }
 }
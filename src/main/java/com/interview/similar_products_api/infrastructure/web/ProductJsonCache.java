@@ -0,0 +1,70 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Keeps the UTF-8 JSON rendering of each {@link ProductDetail} instance.
+ * Keys are held weakly and compared by identity, so an entry lives exactly
+ * as long as the detail object itself is still cached upstream and no
+ * record equality has to be computed on lookup.
+ */
+public class ProductJsonCache {
+
+    private static final int OPEN_ARRAY = '[';
+    private static final int SEPARATOR = ',';
+    private static final int CLOSE_ARRAY = ']';
+
+    private final ObjectMapper objectMapper;
+    private final Cache<ProductDetail, byte[]> renderedProducts;
+
+    public ProductJsonCache(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.renderedProducts = Caffeine.newBuilder()
+                .weakKeys()
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, renderedProducts, "product-json");
+    }
+
+    /**
+     * Writes the products as a JSON array, byte for byte what
+     * {@code objectMapper.writeValue(outputStream, products)} would produce.
+     */
+    public void writeArray(List<ProductDetail> products, OutputStream outputStream) throws IOException {
+        outputStream.write(OPEN_ARRAY);
+        for (int i = 0; i < products.size(); i++) {
+            if (i > 0) {
+                outputStream.write(SEPARATOR);
+            }
+            outputStream.write(bytes(products.get(i)));
+        }
+        outputStream.write(CLOSE_ARRAY);
+    }
+
+    byte[] bytes(ProductDetail product) throws IOException {
+        try {
+            return renderedProducts.get(product, this::render);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private byte[] render(ProductDetail product) {
+        try {
+            return objectMapper.writeValueAsBytes(product);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
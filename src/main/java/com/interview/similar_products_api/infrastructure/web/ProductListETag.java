@@ -0,0 +1,48 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Strong ETag for a list of product details, derived from every field that
+ * ends up in the JSON body so it changes whenever the representation does,
+ * without having to serialize the list first.
+ */
+final class ProductListETag {
+
+    private static final int ETAG_BYTES = 16;
+    private static final byte SEPARATOR = 0;
+
+    private ProductListETag() {
+    }
+
+    static String of(List<ProductDetail> products) {
+        MessageDigest digest = sha256();
+        for (ProductDetail product : products) {
+            update(digest, product.id());
+            update(digest, product.name());
+            update(digest, String.valueOf(product.price()));
+            digest.update(product.availability() ? (byte) 1 : (byte) 0);
+        }
+        byte[] hash = digest.digest();
+        return '"' + HexFormat.of().formatHex(hash, 0, ETAG_BYTES) + '"';
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update(SEPARATOR);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ResultOrder;
+import com.interview.similar_products_api.domain.port.in.ReactiveGetSimilarProductsQuery;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * WebFlux endpoints served with the {@code reactive} profile in place of
+ * {@link ProductController}, so both execution models can be load tested
+ * against the same contract.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/product")
+@Tag(name = "Similar Products", description = "Operations related to similar products")
+public class ReactiveProductController {
+
+    private final ReactiveGetSimilarProductsQuery getSimilarProductsQuery;
+
+    public ReactiveProductController(ReactiveGetSimilarProductsQuery getSimilarProductsQuery) {
+        this.getSimilarProductsQuery = getSimilarProductsQuery;
+    }
+
+    @GetMapping("/{productId}/similar")
+    @Operation(summary = "Similar products", description = "Returns the list of similar products for a given productId")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ProductDetail.class)))),
+            @ApiResponse(responseCode = "404", description = "Product Not found")
+    })
+    public Mono<List<ProductDetail>> getSimilarProducts(
+            @Parameter(description = "Product identifier", required = true) @PathVariable String productId) {
+        return getSimilarProductsQuery.getSimilarProducts(productId, ResultOrder.ORIGINAL).collectList();
+    }
+
+    @GetMapping(value = "/{productId}/similar/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Similar products stream", description = "Streams the similar products for a given productId as newline-delimited JSON, writing each product as soon as it is available")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ProductDetail.class))),
+            @ApiResponse(responseCode = "404", description = "Product Not found")
+    })
+    public Flux<ProductDetail> streamSimilarProducts(
+            @Parameter(description = "Product identifier", required = true) @PathVariable String productId,
+            @Parameter(description = "COMPLETION writes products as they arrive, ORIGINAL keeps the similar ids order") @RequestParam(defaultValue = "COMPLETION") ResultOrder order) {
+        return getSimilarProductsQuery.getSimilarProducts(productId, order);
+    }
+}
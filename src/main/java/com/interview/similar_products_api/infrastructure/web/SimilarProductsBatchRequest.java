@@ -0,0 +1,11 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record SimilarProductsBatchRequest(
+        @NotEmpty @Size(max = 100) List<@NotBlank String> productIds) {
+}
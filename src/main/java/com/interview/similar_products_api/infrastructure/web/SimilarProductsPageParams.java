@@ -0,0 +1,38 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.interview.similar_products_api.domain.model.ProductFilter;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.math.BigDecimal;
+
+/**
+ * Optional paging and filter query parameters of the similar products
+ * endpoint. Without any of them the whole list is returned as before.
+ */
+public record SimilarProductsPageParams(
+        @Parameter(description = "Maximum number of products to return") @Min(1) @Max(100) Integer limit,
+        @Parameter(description = "Number of matching products to skip") @PositiveOrZero @Max(1000) Integer offset,
+        @Parameter(description = "Only products with this availability") Boolean available,
+        @Parameter(description = "Only products priced at least this") @PositiveOrZero BigDecimal minPrice,
+        @Parameter(description = "Only products priced at most this") @PositiveOrZero BigDecimal maxPrice,
+        @Parameter(description = "Continuation-Token header of the previous page") String continuationToken) {
+
+    boolean isPaged() {
+        return limit != null || offset != null || continuationToken != null || !filter().equals(ProductFilter.NONE);
+    }
+
+    ProductFilter filter() {
+        return new ProductFilter(available, minPrice, maxPrice);
+    }
+
+    @Schema(hidden = true)
+    @AssertTrue(message = "minPrice must not be greater than maxPrice")
+    public boolean isPriceRangeValid() {
+        return minPrice == null || maxPrice == null || minPrice.compareTo(maxPrice) <= 0;
+    }
+}
@@ -1,20 +1,26 @@
 package com.interview.similar_products_api;
 
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
 
 import java.io.IOException;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -25,6 +31,9 @@ class SimilarProductsApiIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     private static MockWebServer mockWebServer;
 
     @BeforeAll
@@ -43,36 +52,38 @@ class SimilarProductsApiIntegrationTest {
         registry.add("external-api.url", () -> mockWebServer.url("/").toString());
     }
 
+    @Test
+    void shouldRunOnTheServletStackByDefault() {
+        assertInstanceOf(WebApplicationContext.class, applicationContext);
+    }
+
     @Test
     void shouldReturnSimilarProducts_whenFlowIsSuccessful() throws Exception {
-        // 1. Mock similar IDs response
-        mockWebServer.enqueue(new MockResponse()
-                .setBody("[\"2\", \"3\"]")
-                .addHeader("Content-Type", "application/json"));
-
-        // 2. Mock product 2 details
-        mockWebServer.enqueue(new MockResponse()
-                .setBody("""
-                        {
-                          "id": "2",
-                          "name": "Product 2",
-                          "price": 10.00,
-                          "availability": true
-                        }
-                        """)
-                .addHeader("Content-Type", "application/json"));
-
-        // 3. Mock product 3 details
-        mockWebServer.enqueue(new MockResponse()
-                .setBody("""
-                        {
-                          "id": "3",
-                          "name": "Product 3",
-                          "price": 20.00,
-                          "availability": true
-                        }
-                        """)
-                .addHeader("Content-Type", "application/json"));
+        // details are fetched concurrently, so responses are matched by path rather than queued in order
+        respondByPath(Map.of(
+                "/product/1/similarids", new MockResponse()
+                        .setBody("[\"2\", \"3\"]")
+                        .addHeader("Content-Type", "application/json"),
+                "/product/2", new MockResponse()
+                        .setBody("""
+                                {
+                                  "id": "2",
+                                  "name": "Product 2",
+                                  "price": 10.00,
+                                  "availability": true
+                                }
+                                """)
+                        .addHeader("Content-Type", "application/json"),
+                "/product/3", new MockResponse()
+                        .setBody("""
+                                {
+                                  "id": "3",
+                                  "name": "Product 3",
+                                  "price": 20.00,
+                                  "availability": true
+                                }
+                                """)
+                        .addHeader("Content-Type", "application/json")));
 
         mockMvc.perform(get("/product/1/similar"))
                 .andExpect(status().isOk())
@@ -86,10 +97,19 @@ class SimilarProductsApiIntegrationTest {
 
     @Test
     void shouldReturnNotFound_whenUpstreamReturns404ForSimilarIds() throws Exception {
-        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+        respondByPath(Map.of("/product/999/similarids", new MockResponse().setResponseCode(404)));
 
         mockMvc.perform(get("/product/999/similar"))
                 .andExpect(status().isNotFound())
                 .andExpect(content().string("Product Not found"));
     }
+
+    private static void respondByPath(Map<String, MockResponse> responses) {
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return responses.getOrDefault(request.getPath(), new MockResponse().setResponseCode(404));
+            }
+        });
+    }
 }
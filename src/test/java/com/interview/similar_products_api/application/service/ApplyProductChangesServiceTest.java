@@ -0,0 +1,31 @@
+package com.interview.similar_products_api.application.service;
+
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApplyProductChangesServiceTest {
+
+    @Test
+    void forwardsChangesInOrderAndCountsThem() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        List<ProductChange> applied = new ArrayList<>();
+        ApplyProductChangesService service = new ApplyProductChangesService(applied::add, meterRegistry);
+        List<ProductChange> changes = List.of(
+                ProductChange.upsert("2", new ProductDetail("2", "Product 2", BigDecimal.TEN, true), null),
+                ProductChange.delete("3"));
+
+        service.applyChanges(changes);
+
+        assertEquals(changes, applied);
+        assertEquals(1.0, meterRegistry.counter("product.changes", "type", "upsert").count());
+        assertEquals(1.0, meterRegistry.counter("product.changes", "type", "delete").count());
+    }
+}
@@ -0,0 +1,84 @@
+package com.interview.similar_products_api.application.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CancellableFutureTest {
+
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void completesWithTheSuppliedValueOrFailure() {
+        IllegalStateException failure = new IllegalStateException("broken");
+
+        assertEquals("value", CancellableFuture.supplyAsync(() -> "value", executorService).join());
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> CancellableFuture.supplyAsync(() -> {
+                    throw failure;
+                }, executorService).get(1, TimeUnit.SECONDS));
+        assertEquals(failure, ex.getCause());
+    }
+
+    @Test
+    void cancellingInterruptsTheRunningTask() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> future = CancellableFuture.supplyAsync(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+            return "late";
+        }, executorService);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        assertTrue(future.cancel(true));
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, future::join);
+    }
+
+    @Test
+    void cancellingBeforeTheTaskStartsKeepsItFromRunning() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = CancellableFuture.supplyAsync(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }, executorService);
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<Boolean> queued = CancellableFuture.supplyAsync(() -> ran.getAndSet(true), executorService);
+
+        assertTrue(queued.cancel(true));
+        release.countDown();
+        blocker.get(1, TimeUnit.SECONDS);
+        CancellableFuture.supplyAsync(() -> null, executorService).get(1, TimeUnit.SECONDS);
+
+        assertFalse(ran.get());
+        assertThrows(CancellationException.class, queued::join);
+    }
+}
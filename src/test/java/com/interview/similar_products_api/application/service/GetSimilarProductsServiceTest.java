@@ -1,8 +1,18 @@
 package com.interview.similar_products_api.application.service;
 
 import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
 import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductFilter;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.model.ResultOrder;
+import com.interview.similar_products_api.domain.model.SimilarProducts;
+import com.interview.similar_products_api.domain.model.SimilarProductsPage;
+import com.interview.similar_products_api.domain.model.SimilarProductsPageRequest;
+import com.interview.similar_products_api.domain.model.SimilarProductsResult;
+import com.interview.similar_products_api.domain.model.SimilarProductsStatus;
 import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,16 +21,23 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,12 +49,16 @@ class GetSimilarProductsServiceTest {
 
     private ExecutorService executorService;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private GetSimilarProductsService service;
 
     @BeforeEach
     void setUp() {
         executorService = Executors.newSingleThreadExecutor();
-        service = new GetSimilarProductsService(productRepository, executorService);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new GetSimilarProductsService(productRepository, executorService, Duration.ofSeconds(2),
+                meterRegistry);
     }
 
     @AfterEach
@@ -50,7 +71,7 @@ class GetSimilarProductsServiceTest {
         String productId = "1";
         when(productRepository.getSimilarProductIds(productId)).thenReturn(null);
 
-        List<ProductDetail> result = service.getSimilarProducts(productId);
+        List<ProductDetail> result = service.getSimilarProducts(productId).products();
 
         assertTrue(result.isEmpty());
         verify(productRepository, never()).getProductDetail(anyString());
@@ -61,12 +82,32 @@ class GetSimilarProductsServiceTest {
         String productId = "1";
         when(productRepository.getSimilarProductIds(productId)).thenReturn(List.of());
 
-        List<ProductDetail> result = service.getSimilarProducts(productId);
+        List<ProductDetail> result = service.getSimilarProducts(productId).products();
 
         assertTrue(result.isEmpty());
         verify(productRepository, never()).getProductDetail(anyString());
     }
 
+    @Test
+    void exposesTheRequestDeadlineToRepositoryCallsOnEveryThread() {
+        ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.valueOf(10.0), true);
+        List<Long> remaining = new CopyOnWriteArrayList<>();
+        when(productRepository.getSimilarProductIds("1")).thenAnswer(invocation -> {
+            remaining.add(RequestDeadline.remainingNanos());
+            return List.of("2");
+        });
+        when(productRepository.getProductDetail("2")).thenAnswer(invocation -> {
+            remaining.add(RequestDeadline.remainingNanos());
+            return ProductLookup.found(product2);
+        });
+
+        service.getSimilarProducts("1");
+
+        assertEquals(2, remaining.size());
+        remaining.forEach(nanos -> assertTrue(nanos > 0 && nanos <= Duration.ofSeconds(2).toNanos()));
+        assertEquals(Long.MAX_VALUE, RequestDeadline.remainingNanos());
+    }
+
     @Test
     void returnsAllProductDetailsWhenRepositoryReturnsData() {
         String productId = "1";
@@ -76,10 +117,10 @@ class GetSimilarProductsServiceTest {
         ProductDetail product3 = new ProductDetail("3", "Product 3", BigDecimal.valueOf(20.0), false);
 
         when(productRepository.getSimilarProductIds(productId)).thenReturn(similarIds);
-        when(productRepository.getProductDetail("2")).thenReturn(Optional.of(product2));
-        when(productRepository.getProductDetail("3")).thenReturn(Optional.of(product3));
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
+        when(productRepository.getProductDetail("3")).thenReturn(ProductLookup.found(product3));
 
-        List<ProductDetail> result = service.getSimilarProducts(productId);
+        List<ProductDetail> result = service.getSimilarProducts(productId).products();
 
         assertEquals(2, result.size());
         assertEquals("2", result.get(0).id());
@@ -96,11 +137,11 @@ class GetSimilarProductsServiceTest {
         ProductDetail product4 = new ProductDetail("4", "Product 4", BigDecimal.valueOf(40.0), true);
 
         when(productRepository.getSimilarProductIds(productId)).thenReturn(similarIds);
-        when(productRepository.getProductDetail("3")).thenReturn(Optional.of(product3));
-        when(productRepository.getProductDetail("2")).thenReturn(Optional.of(product2));
-        when(productRepository.getProductDetail("4")).thenReturn(Optional.of(product4));
+        when(productRepository.getProductDetail("3")).thenReturn(ProductLookup.found(product3));
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
+        when(productRepository.getProductDetail("4")).thenReturn(ProductLookup.found(product4));
 
-        List<ProductDetail> result = service.getSimilarProducts(productId);
+        List<ProductDetail> result = service.getSimilarProducts(productId).products();
 
         assertEquals(3, result.size());
         assertEquals("3", result.get(0).id());
@@ -116,13 +157,31 @@ class GetSimilarProductsServiceTest {
         ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.valueOf(10.0), true);
 
         when(productRepository.getSimilarProductIds(productId)).thenReturn(similarIds);
-        when(productRepository.getProductDetail("2")).thenReturn(Optional.of(product2));
-        when(productRepository.getProductDetail("3")).thenReturn(Optional.empty());
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
+        when(productRepository.getProductDetail("3")).thenReturn(ProductLookup.notFound());
 
-        List<ProductDetail> result = service.getSimilarProducts(productId);
+        SimilarProducts similarProducts = service.getSimilarProducts(productId);
+        List<ProductDetail> result = similarProducts.products();
 
         assertEquals(1, result.size());
         assertEquals("2", result.get(0).id());
+        assertTrue(similarProducts.complete());
+        assertEquals(1.0, meterRegistry.counter("similar.products.omitted", "reason", "not_found").count());
+    }
+
+    @Test
+    void omitsFailedLookupsCountingTheirReason() {
+        ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2", "3", "4"));
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
+        when(productRepository.getProductDetail("3")).thenReturn(ProductLookup.timeout("timed out"));
+        when(productRepository.getProductDetail("4")).thenReturn(ProductLookup.upstreamError("503", true));
+
+        SimilarProducts result = service.getSimilarProducts("1");
+
+        assertEquals(new SimilarProducts(List.of("2", "3", "4"), List.of(product2), false), result);
+        assertEquals(1.0, meterRegistry.counter("similar.products.omitted", "reason", "timeout").count());
+        assertEquals(1.0, meterRegistry.counter("similar.products.omitted", "reason", "upstream_error").count());
     }
 
     @Test
@@ -134,15 +193,18 @@ class GetSimilarProductsServiceTest {
         ProductDetail product4 = new ProductDetail("4", "Product 4", BigDecimal.valueOf(40.0), true);
 
         when(productRepository.getSimilarProductIds(productId)).thenReturn(similarIds);
-        when(productRepository.getProductDetail("2")).thenReturn(Optional.of(product2));
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
         when(productRepository.getProductDetail("3")).thenThrow(new RuntimeException("pete"));
-        when(productRepository.getProductDetail("4")).thenReturn(Optional.of(product4));
+        when(productRepository.getProductDetail("4")).thenReturn(ProductLookup.found(product4));
 
-        List<ProductDetail> result = service.getSimilarProducts(productId);
+        SimilarProducts similarProducts = service.getSimilarProducts(productId);
+        List<ProductDetail> result = similarProducts.products();
 
         assertEquals(2, result.size());
         assertEquals("2", result.get(0).id());
         assertEquals("4", result.get(1).id());
+        assertFalse(similarProducts.complete());
+        assertEquals(1.0, meterRegistry.counter("similar.products.omitted", "reason", "upstream_error").count());
     }
 
     @Test
@@ -155,4 +217,299 @@ class GetSimilarProductsServiceTest {
         assertThrows(ExternalServiceException.class, () -> service.getSimilarProducts(productId));
         verify(productRepository, never()).getProductDetail(anyString());
     }
+
+    @Test
+    void returnsReadyDetailsInOrderWhenDeadlineExpires() {
+        String productId = "1";
+        List<String> similarIds = List.of("2", "3", "4");
+        service = new GetSimilarProductsService(productRepository, executorService, Duration.ofMillis(200),
+                meterRegistry);
+
+        ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.valueOf(10.0), true);
+        ProductDetail product3 = new ProductDetail("3", "Product 3", BigDecimal.valueOf(30.0), true);
+
+        when(productRepository.getSimilarProductIds(productId)).thenReturn(similarIds);
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
+        when(productRepository.getProductDetail("3")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return ProductLookup.found(product3);
+        });
+
+        SimilarProducts result = service.getSimilarProducts(productId);
+
+        assertEquals(new SimilarProducts(List.of("2", "3", "4"), List.of(product2), false), result);
+        assertEquals(1.0, meterRegistry.counter("similar.products.truncated").count());
+        assertEquals(2.0, meterRegistry.counter("similar.products.omitted", "reason", "deadline").count());
+    }
+
+    @Test
+    void interruptsDetailCallsStillRunningAtTheDeadline() throws InterruptedException {
+        service = new GetSimilarProductsService(productRepository, Executors.newVirtualThreadPerTaskExecutor(),
+                Duration.ofMillis(200), meterRegistry);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2", "3"));
+        when(productRepository.getProductDetail(anyString())).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException ex) {
+                // like the HTTP clients, keep the interrupt status
+                Thread.currentThread().interrupt();
+                interrupted.countDown();
+            }
+            return ProductLookup.timeout("cancelled");
+        });
+
+        assertTrue(service.getSimilarProducts("1").products().isEmpty());
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        assertEquals(2.0, meterRegistry.counter("similar.products.omitted", "reason", "deadline").count());
+        assertEquals(0.0, meterRegistry.counter("similar.products.omitted", "reason", "timeout").count());
+    }
+
+    @Test
+    void interruptsTheRestOfAPageStoppedByTheDeadline() throws InterruptedException {
+        service = new GetSimilarProductsService(productRepository, Executors.newVirtualThreadPerTaskExecutor(),
+                Duration.ofMillis(200), meterRegistry);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2"));
+        when(productRepository.getProductDetail("2")).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException ex) {
+                // like the HTTP clients, keep the interrupt status
+                Thread.currentThread().interrupt();
+                interrupted.countDown();
+            }
+            return ProductLookup.timeout("cancelled");
+        });
+
+        SimilarProductsPage page = service.getSimilarProductsPage("1",
+                new SimilarProductsPageRequest(0, 0, 1, ProductFilter.NONE));
+
+        assertTrue(page.products().isEmpty());
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void doesNotCountCompleteResponsesAsTruncated() {
+        String productId = "1";
+        ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.valueOf(10.0), true);
+
+        when(productRepository.getSimilarProductIds(productId)).thenReturn(List.of("2"));
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
+
+        service.getSimilarProducts(productId);
+
+        assertEquals(0.0, meterRegistry.counter("similar.products.truncated").count());
+    }
+
+    @Test
+    void streamsDetailsInCompletionOrder() {
+        String productId = "1";
+        service = new GetSimilarProductsService(productRepository, Executors.newVirtualThreadPerTaskExecutor(),
+                Duration.ofSeconds(2), meterRegistry);
+
+        ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.valueOf(10.0), true);
+        ProductDetail product3 = new ProductDetail("3", "Product 3", BigDecimal.valueOf(30.0), true);
+
+        when(productRepository.getSimilarProductIds(productId)).thenReturn(List.of("2", "3"));
+        when(productRepository.getProductDetail("2")).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return ProductLookup.found(product2);
+        });
+        when(productRepository.getProductDetail("3")).thenReturn(ProductLookup.found(product3));
+
+        try (Stream<ProductDetail> result = service.streamSimilarProducts(productId, ResultOrder.COMPLETION)) {
+            assertEquals(List.of(product3, product2), result.toList());
+        }
+    }
+
+    @Test
+    void streamInCompletionOrderStopsAtDeadline() {
+        String productId = "1";
+        service = new GetSimilarProductsService(productRepository, Executors.newVirtualThreadPerTaskExecutor(),
+                Duration.ofMillis(200), meterRegistry);
+
+        ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.valueOf(10.0), true);
+
+        when(productRepository.getSimilarProductIds(productId)).thenReturn(List.of("2", "3"));
+        when(productRepository.getProductDetail("2")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return ProductLookup.found(product2);
+        });
+        when(productRepository.getProductDetail("3")).thenReturn(ProductLookup.notFound());
+
+        try (Stream<ProductDetail> result = service.streamSimilarProducts(productId, ResultOrder.COMPLETION)) {
+            assertTrue(result.toList().isEmpty());
+        }
+        assertEquals(1.0, meterRegistry.counter("similar.products.truncated").count());
+    }
+
+    @Test
+    void batchFetchesEachDistinctSimilarProductOnlyOnce() {
+        ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.valueOf(10.0), true);
+        ProductDetail product3 = new ProductDetail("3", "Product 3", BigDecimal.valueOf(30.0), true);
+        ProductDetail product4 = new ProductDetail("4", "Product 4", BigDecimal.valueOf(40.0), true);
+
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2", "3"));
+        when(productRepository.getSimilarProductIds("5")).thenReturn(List.of("3", "4"));
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
+        when(productRepository.getProductDetail("3")).thenReturn(ProductLookup.found(product3));
+        when(productRepository.getProductDetail("4")).thenReturn(ProductLookup.found(product4));
+
+        Map<String, SimilarProductsResult> result = service.getSimilarProductsBatch(List.of("1", "5", "1"));
+
+        assertEquals(List.of("1", "5"), List.copyOf(result.keySet()));
+        assertEquals(SimilarProductsResult.ok(List.of(product2, product3)), result.get("1"));
+        assertEquals(SimilarProductsResult.ok(List.of(product3, product4)), result.get("5"));
+        verify(productRepository, times(1)).getSimilarProductIds("1");
+        verify(productRepository, times(1)).getProductDetail("3");
+    }
+
+    @Test
+    void batchOmitsASharedDetailCancelledAtTheDeadlineFromEveryEntry() {
+        service = new GetSimilarProductsService(productRepository, Executors.newVirtualThreadPerTaskExecutor(),
+                Duration.ofMillis(200), meterRegistry);
+        ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.valueOf(10.0), true);
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2", "3"));
+        when(productRepository.getSimilarProductIds("5")).thenReturn(List.of("3"));
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
+        when(productRepository.getProductDetail("3")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return ProductLookup.found(new ProductDetail("3", "Product 3", BigDecimal.ONE, true));
+        });
+
+        Map<String, SimilarProductsResult> result = service.getSimilarProductsBatch(List.of("1", "5"));
+
+        assertEquals(SimilarProductsResult.ok(List.of(product2)), result.get("1"));
+        assertEquals(SimilarProductsResult.ok(List.of()), result.get("5"));
+        assertEquals(1.0, meterRegistry.counter("similar.products.omitted", "reason", "deadline").count());
+    }
+
+    @Test
+    void batchReportsStatusPerProduct() {
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of());
+        when(productRepository.getSimilarProductIds("404")).thenThrow(new ProductNotFoundException("404"));
+        when(productRepository.getSimilarProductIds("500")).thenThrow(new ExternalServiceException("upstream"));
+
+        Map<String, SimilarProductsResult> result = service.getSimilarProductsBatch(List.of("1", "404", "500"));
+
+        assertEquals(SimilarProductsResult.ok(List.of()), result.get("1"));
+        assertEquals(SimilarProductsStatus.NOT_FOUND, result.get("404").status());
+        assertEquals(SimilarProductsStatus.UPSTREAM_ERROR, result.get("500").status());
+    }
+
+    @Test
+    void pageFetchesOnlyTheDetailsNeededToFillIt() {
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2", "3", "4", "5", "6"));
+        when(productRepository.getProductDetail(anyString())).thenAnswer(invocation -> ProductLookup.found(
+                new ProductDetail(invocation.getArgument(0), "Product", BigDecimal.TEN, true)));
+
+        SimilarProductsPage page = service.getSimilarProductsPage("1",
+                new SimilarProductsPageRequest(0, 0, 2, ProductFilter.NONE));
+
+        assertEquals(List.of("2", "3"), page.products().stream().map(ProductDetail::id).toList());
+        assertEquals(2, page.nextStart());
+        verify(productRepository, times(2)).getProductDetail(anyString());
+    }
+
+    @Test
+    void pageTopsUpFilteredOutAndMissingProductsFromLaterIds() {
+        ProductDetail unavailable = new ProductDetail("2", "Product 2", BigDecimal.TEN, false);
+        ProductDetail product4 = new ProductDetail("4", "Product 4", BigDecimal.TEN, true);
+        ProductDetail product5 = new ProductDetail("5", "Product 5", BigDecimal.TEN, true);
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2", "3", "4", "5", "6"));
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(unavailable));
+        when(productRepository.getProductDetail("3")).thenReturn(ProductLookup.notFound());
+        when(productRepository.getProductDetail("4")).thenReturn(ProductLookup.found(product4));
+        when(productRepository.getProductDetail("5")).thenReturn(ProductLookup.found(product5));
+
+        SimilarProductsPage page = service.getSimilarProductsPage("1",
+                new SimilarProductsPageRequest(0, 0, 2, new ProductFilter(true, null, null)));
+
+        assertEquals(List.of(product4, product5), page.products());
+        assertEquals(4, page.nextStart());
+        verify(productRepository, never()).getProductDetail("6");
+    }
+
+    @Test
+    void pageResumesFromStartSkipsOffsetAndEndsWithTheLastId() {
+        ProductDetail product4 = new ProductDetail("4", "Product 4", new BigDecimal("15"), true);
+        ProductDetail product5 = new ProductDetail("5", "Product 5", new BigDecimal("20"), true);
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2", "3", "4", "5"));
+        when(productRepository.getProductDetail("4")).thenReturn(ProductLookup.found(product4));
+        when(productRepository.getProductDetail("5")).thenReturn(ProductLookup.found(product5));
+
+        SimilarProductsPage page = service.getSimilarProductsPage("1", new SimilarProductsPageRequest(2, 1, 5,
+                new ProductFilter(null, new BigDecimal("10"), new BigDecimal("20"))));
+
+        assertEquals(List.of(product5), page.products());
+        assertEquals(SimilarProductsPage.END, page.nextStart());
+        verify(productRepository, never()).getProductDetail("2");
+    }
+
+    @Test
+    void pageWithAnOffsetAndNoLimitReturnsTheRestOfTheList() {
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2", "3", "4"));
+        when(productRepository.getProductDetail(anyString())).thenAnswer(invocation -> ProductLookup.found(
+                new ProductDetail(invocation.getArgument(0), "Product", BigDecimal.TEN, true)));
+
+        SimilarProductsPage page = service.getSimilarProductsPage("1",
+                new SimilarProductsPageRequest(0, 1, Integer.MAX_VALUE, ProductFilter.NONE));
+
+        assertEquals(List.of("3", "4"), page.products().stream().map(ProductDetail::id).toList());
+        assertEquals(SimilarProductsPage.END, page.nextStart());
+        assertTrue(page.complete());
+    }
+
+    @Test
+    void pageMissingAFailedDetailIsNotComplete() {
+        ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2", "3"));
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
+        when(productRepository.getProductDetail("3")).thenReturn(ProductLookup.upstreamError("503", true));
+
+        SimilarProductsPage page = service.getSimilarProductsPage("1",
+                new SimilarProductsPageRequest(0, 0, 2, ProductFilter.NONE));
+
+        assertEquals(List.of(product2), page.products());
+        assertEquals(SimilarProductsPage.END, page.nextStart());
+        assertFalse(page.complete());
+    }
+
+    @Test
+    void pageResumedFromATokenWithNoLimitReturnsTheRestOfTheList() {
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2", "3", "4"));
+        when(productRepository.getProductDetail(anyString())).thenAnswer(invocation -> ProductLookup.found(
+                new ProductDetail(invocation.getArgument(0), "Product", BigDecimal.TEN, true)));
+
+        SimilarProductsPage page = service.getSimilarProductsPage("1",
+                new SimilarProductsPageRequest(2, 0, Integer.MAX_VALUE, ProductFilter.NONE));
+
+        assertEquals(List.of("4"), page.products().stream().map(ProductDetail::id).toList());
+        assertEquals(SimilarProductsPage.END, page.nextStart());
+        verify(productRepository, never()).getProductDetail("2");
+    }
+
+    @Test
+    void pageStoppedByTheDeadlineResumesFromTheFirstUnansweredId() {
+        service = new GetSimilarProductsService(productRepository, executorService, Duration.ofMillis(200),
+                meterRegistry);
+        ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        when(productRepository.getSimilarProductIds("1")).thenReturn(List.of("2", "3", "4"));
+        when(productRepository.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
+        when(productRepository.getProductDetail("3")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return ProductLookup.notFound();
+        });
+
+        SimilarProductsPage page = service.getSimilarProductsPage("1",
+                new SimilarProductsPageRequest(0, 0, 3, ProductFilter.NONE));
+
+        assertEquals(List.of(product2), page.products());
+        assertEquals(1, page.nextStart());
+        assertFalse(page.complete());
+        assertEquals(1.0, meterRegistry.counter("similar.products.truncated").count());
+        assertEquals(0.0, meterRegistry.counter("similar.products.omitted", "reason", "deadline").count());
+    }
 }
@@ -0,0 +1,112 @@
+package com.interview.similar_products_api.application.service;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamTimeoutException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ResultOrder;
+import com.interview.similar_products_api.domain.port.out.ReactiveProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveGetSimilarProductsServiceTest {
+
+    @Mock
+    private ReactiveProductRepository productRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ReactiveGetSimilarProductsService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ReactiveGetSimilarProductsService(productRepository, Duration.ofSeconds(2), 4, meterRegistry);
+    }
+
+    @Test
+    void keepsSimilarIdsOrderForOriginalOrder() {
+        ProductDetail p2 = product("2");
+        ProductDetail p3 = product("3");
+        when(productRepository.getSimilarProductIds("1")).thenReturn(Mono.just(List.of("2", "3")));
+        when(productRepository.getProductDetail("2")).thenReturn(Mono.just(p2).delayElement(Duration.ofMillis(50)));
+        when(productRepository.getProductDetail("3")).thenReturn(Mono.just(p3));
+
+        StepVerifier.create(service.getSimilarProducts("1", ResultOrder.ORIGINAL))
+                .expectNext(p2, p3)
+                .verifyComplete();
+    }
+
+    @Test
+    void emitsInCompletionOrderForCompletionOrder() {
+        ProductDetail p2 = product("2");
+        ProductDetail p3 = product("3");
+        when(productRepository.getSimilarProductIds("1")).thenReturn(Mono.just(List.of("2", "3")));
+        when(productRepository.getProductDetail("2")).thenReturn(Mono.just(p2).delayElement(Duration.ofMillis(50)));
+        when(productRepository.getProductDetail("3")).thenReturn(Mono.just(p3));
+
+        StepVerifier.create(service.getSimilarProducts("1", ResultOrder.COMPLETION))
+                .expectNext(p3, p2)
+                .verifyComplete();
+    }
+
+    @Test
+    void omitsMissingAndFailedDetails() {
+        ProductDetail p4 = product("4");
+        when(productRepository.getSimilarProductIds("1")).thenReturn(Mono.just(List.of("2", "3", "4", "5")));
+        when(productRepository.getProductDetail("2")).thenReturn(Mono.empty());
+        when(productRepository.getProductDetail("3")).thenReturn(Mono.error(new ExternalServiceException("boom")));
+        when(productRepository.getProductDetail("4")).thenReturn(Mono.just(p4));
+        when(productRepository.getProductDetail("5"))
+                .thenReturn(Mono.error(new UpstreamTimeoutException("slow", new RuntimeException())));
+
+        StepVerifier.create(service.getSimilarProducts("1", ResultOrder.ORIGINAL))
+                .expectNext(p4)
+                .verifyComplete();
+
+        assertEquals(1.0, meterRegistry.counter("similar.products.omitted", "reason", "upstream_error").count());
+        assertEquals(1.0, meterRegistry.counter("similar.products.omitted", "reason", "timeout").count());
+    }
+
+    @Test
+    void propagatesProductNotFound() {
+        when(productRepository.getSimilarProductIds("1")).thenReturn(Mono.error(new ProductNotFoundException("1")));
+
+        StepVerifier.create(service.getSimilarProducts("1", ResultOrder.ORIGINAL))
+                .verifyError(ProductNotFoundException.class);
+    }
+
+    @Test
+    void completesWithReadyDetailsAtTheDeadline() {
+        service = new ReactiveGetSimilarProductsService(productRepository, Duration.ofMillis(100), 4, meterRegistry);
+        ProductDetail p2 = product("2");
+        when(productRepository.getSimilarProductIds("1")).thenReturn(Mono.just(List.of("2", "3")));
+        when(productRepository.getProductDetail("2")).thenReturn(Mono.just(p2));
+        when(productRepository.getProductDetail("3")).thenReturn(Mono.never());
+
+        StepVerifier.create(service.getSimilarProducts("1", ResultOrder.COMPLETION))
+                .expectNext(p2)
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(1.0, meterRegistry.counter("similar.products.truncated").count());
+    }
+
+    private static ProductDetail product(String id) {
+        return new ProductDetail(id, "Product " + id, new BigDecimal("10.00"), true);
+    }
+}
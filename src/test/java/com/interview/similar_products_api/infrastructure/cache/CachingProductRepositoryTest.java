@@ -0,0 +1,134 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.ProductCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingProductRepositoryTest {
+
+    private static final ProductCacheProperties PROPERTIES = new ProductCacheProperties(
+            true, 100, Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofSeconds(30));
+
+    @Mock
+    private ProductRepository delegate;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private CachingProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CachingProductRepository(delegate, PROPERTIES, Runnable::run, nanos::get);
+    }
+
+    @Test
+    void servesRepeatedDetailLookupsFromMemory() {
+        ProductDetail product = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.found(product));
+
+        assertEquals(ProductLookup.found(product), repository.getProductDetail("2"));
+        assertEquals(ProductLookup.found(product), repository.getProductDetail("2"));
+
+        verify(delegate, times(1)).getProductDetail("2");
+    }
+
+    @Test
+    void appliesPushedChangesWithoutCallingUpstream() {
+        ProductDetail product = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        ProductDetail repriced = new ProductDetail("2", "Product 2", BigDecimal.ONE, false);
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.found(product));
+        repository.getProductDetail("2");
+
+        repository.apply(ProductChange.upsert("2", repriced, null));
+        assertEquals(ProductLookup.found(repriced), repository.getProductDetail("2"));
+
+        repository.apply(ProductChange.delete("2"));
+        assertEquals(ProductLookup.notFound(), repository.getProductDetail("2"));
+
+        verify(delegate, times(1)).getProductDetail("2");
+    }
+
+    @Test
+    void cachesNotFoundUntilItsOwnTtlExpires() {
+        when(delegate.getProductDetail("5")).thenReturn(ProductLookup.notFound());
+
+        assertEquals(ProductLookup.notFound(), repository.getProductDetail("5"));
+        nanos.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertEquals(ProductLookup.notFound(), repository.getProductDetail("5"));
+        verify(delegate, times(1)).getProductDetail("5");
+
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals(ProductLookup.notFound(), repository.getProductDetail("5"));
+        verify(delegate, times(2)).getProductDetail("5");
+    }
+
+    @Test
+    void servesStaleValueWhileRefreshingAfterRefreshInterval() {
+        ProductDetail stale = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        ProductDetail fresh = new ProductDetail("2", "Product 2", BigDecimal.ONE, false);
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.found(stale), ProductLookup.found(fresh));
+
+        List<Runnable> pendingRefreshes = new ArrayList<>();
+        repository = new CachingProductRepository(delegate, PROPERTIES, pendingRefreshes::add, nanos::get);
+
+        repository.getProductDetail("2");
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertEquals(ProductLookup.found(stale), repository.getProductDetail("2"));
+        List.copyOf(pendingRefreshes).forEach(Runnable::run);
+        assertEquals(ProductLookup.found(fresh), repository.getProductDetail("2"));
+    }
+
+    @Test
+    void doesNotCacheUpstreamFailures() {
+        ProductDetail product = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        ProductLookup failure = ProductLookup.upstreamError("upstream error", true);
+        when(delegate.getProductDetail("2")).thenReturn(failure, ProductLookup.found(product));
+
+        assertEquals(failure, repository.getProductDetail("2"));
+        assertEquals(ProductLookup.found(product), repository.getProductDetail("2"));
+    }
+
+    @Test
+    void keepsServingTheStaleValueWhenARefreshFails() {
+        ProductDetail stale = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        when(delegate.getProductDetail("2"))
+                .thenReturn(ProductLookup.found(stale), ProductLookup.timeout("timed out"));
+
+        repository.getProductDetail("2");
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertEquals(ProductLookup.found(stale), repository.getProductDetail("2"));
+        verify(delegate, times(2)).getProductDetail("2");
+        assertEquals(ProductLookup.found(stale), repository.getProductDetail("2"));
+    }
+
+    @Test
+    void delegatesSimilarIdsWithoutCaching() {
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2", "3"));
+
+        repository.getSimilarProductIds("1");
+        repository.getSimilarProductIds("1");
+
+        verify(delegate, times(2)).getSimilarProductIds("1");
+    }
+}
@@ -0,0 +1,192 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.DiskCacheProperties;
+import com.interview.similar_products_api.infrastructure.config.ProductCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DiskBackedProductRepositoryTest {
+
+    private static final ProductDetail PRODUCT_2 = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ProductRepository delegate;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private DiskCacheProperties properties;
+    private ProductCacheFile cacheFile;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DiskCacheProperties(true, directory.resolve("products.bin"), DataSize.ofKilobytes(64),
+                Duration.ofHours(1), Duration.ofMinutes(10));
+        cacheFile = ProductCacheFile.open(properties.path(), properties.maxSize().toBytes(), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheFile.close();
+    }
+
+    @Test
+    void answersFromDiskAfterARestart() {
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.found(PRODUCT_2));
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2"));
+        repository().getProductDetail("2");
+        repository().getSimilarProductIds("1");
+
+        restart();
+        DiskBackedProductRepository restarted = repository();
+
+        assertEquals(ProductLookup.found(PRODUCT_2), restarted.getProductDetail("2"));
+        assertEquals(List.of("2"), restarted.getSimilarProductIds("1"));
+        verify(delegate, times(1)).getProductDetail("2");
+        verify(delegate, times(1)).getSimilarProductIds("1");
+    }
+
+    @Test
+    void writesPushedChangesThroughAndDropsDeletedProducts() {
+        ProductDetail repriced = new ProductDetail("2", "Product 2", BigDecimal.ONE, false);
+        DiskBackedProductRepository repository = repository();
+
+        repository.apply(ProductChange.upsert("2", repriced, List.of("3")));
+        assertEquals(ProductLookup.found(repriced), repository.getProductDetail("2"));
+        assertEquals(List.of("3"), repository.getSimilarProductIds("2"));
+
+        repository.apply(ProductChange.delete("2"));
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.notFound());
+        assertEquals(ProductLookup.notFound(), repository.getProductDetail("2"));
+        verify(delegate, times(1)).getProductDetail("2");
+    }
+
+    @Test
+    void doesNotPersistNotFound() {
+        when(delegate.getProductDetail("5")).thenReturn(ProductLookup.notFound());
+
+        assertEquals(ProductLookup.notFound(), repository().getProductDetail("5"));
+        assertEquals(ProductLookup.notFound(), repository().getProductDetail("5"));
+
+        verify(delegate, times(2)).getProductDetail("5");
+    }
+
+    @Test
+    void warmsTheInMemoryTierOnStartup() {
+        cacheFile.putDetail(PRODUCT_2, clock.instant().plus(Duration.ofMinutes(30)));
+        CachingProductRepository memory = new CachingProductRepository(delegate, new ProductCacheProperties(
+                true, 100, Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofMinutes(1)),
+                Runnable::run, () -> 0L);
+
+        cacheFile.forEachDetail((productDetail, expiresAt) ->
+                memory.warm(productDetail, Duration.between(clock.instant(), expiresAt)));
+
+        assertEquals(ProductLookup.found(PRODUCT_2), memory.getProductDetail("2"));
+        verify(delegate, never()).getProductDetail("2");
+    }
+
+    @Test
+    void fallsThroughToTheDelegateWhenTheFileFails() {
+        ProductCacheFile brokenFile = mock(ProductCacheFile.class);
+        when(brokenFile.getDetail("2")).thenThrow(new UncheckedIOException(new IOException("disk gone")));
+        when(brokenFile.tryPutDetail(any(), any())).thenThrow(new UncheckedIOException(new IOException("disk gone")));
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.found(PRODUCT_2));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        ProductLookup productLookup = new DiskBackedProductRepository(delegate, brokenFile, properties, clock,
+                meterRegistry).getProductDetail("2");
+
+        assertEquals(ProductLookup.found(PRODUCT_2), productLookup);
+        assertEquals(2.0, meterRegistry.counter("product.disk.cache.errors").count());
+    }
+
+    @Test
+    void treatsACorruptRecordAsAMiss() {
+        ProductCacheFile corruptFile = mock(ProductCacheFile.class);
+        when(corruptFile.getDetail("2")).thenThrow(new IllegalArgumentException("Invalid availability"));
+        when(corruptFile.getSimilarIds("1")).thenThrow(new BufferUnderflowException());
+        when(corruptFile.tryPutDetail(any(), any())).thenReturn(true);
+        when(corruptFile.tryPutSimilarIds(any(), any(), any())).thenReturn(true);
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.found(PRODUCT_2));
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2"));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DiskBackedProductRepository repository = new DiskBackedProductRepository(delegate, corruptFile, properties,
+                clock, meterRegistry);
+
+        assertEquals(ProductLookup.found(PRODUCT_2), repository.getProductDetail("2"));
+        assertEquals(List.of("2"), repository.getSimilarProductIds("1"));
+        assertEquals(2.0, meterRegistry.counter("product.disk.cache.errors").count());
+        assertEquals(2.0, meterRegistry.counter("product.disk.cache", "result", "miss").count());
+    }
+
+    @Test
+    void countsARemovalTheFileCouldNotLog() {
+        ProductCacheFile fullFile = mock(ProductCacheFile.class);
+        doThrow(new UncheckedIOException(new IOException("No room left after compaction")))
+                .when(fullFile).remove("2");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        new DiskBackedProductRepository(delegate, fullFile, properties, clock, meterRegistry)
+                .apply(ProductChange.delete("2"));
+
+        assertEquals(1.0, meterRegistry.counter("product.disk.cache.errors").count());
+    }
+
+    @Test
+    void countsUpstreamAnswersTheBusyFileCouldNotTake() {
+        ProductCacheFile busyFile = mock(ProductCacheFile.class);
+        when(busyFile.getSimilarIds("1")).thenReturn(null);
+        when(busyFile.tryPutSimilarIds(any(), any(), any())).thenReturn(false);
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2"));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        List<String> similarIds = new DiskBackedProductRepository(delegate, busyFile, properties, clock,
+                meterRegistry).getSimilarProductIds("1");
+
+        assertEquals(List.of("2"), similarIds);
+        assertEquals(1.0, meterRegistry.counter("product.disk.cache.writes.skipped").count());
+    }
+
+    private DiskBackedProductRepository repository() {
+        return new DiskBackedProductRepository(delegate, cacheFile, properties, clock, new SimpleMeterRegistry());
+    }
+
+    private void restart() {
+        cacheFile.close();
+        cacheFile = ProductCacheFile.open(properties.path(), properties.maxSize().toBytes(), clock);
+    }
+}
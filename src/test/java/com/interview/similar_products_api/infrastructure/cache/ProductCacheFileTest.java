@@ -0,0 +1,277 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCacheFileTest {
+
+    private static final ProductDetail PRODUCT_2 = new ProductDetail("2", "Dress \"Ñandú\"", new BigDecimal("19.990"),
+            true);
+    private static final ProductDetail PRODUCT_3 = new ProductDetail("3", null, null, false);
+
+    @TempDir
+    Path directory;
+
+    private final TestClock clock = new TestClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    private Path path;
+    private ProductCacheFile cacheFile;
+
+    @BeforeEach
+    void setUp() {
+        path = directory.resolve("products.bin");
+        cacheFile = ProductCacheFile.open(path, 4096, clock, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheFile.close();
+    }
+
+    @Test
+    void survivesReopeningTheFile() {
+        cacheFile.putDetail(PRODUCT_2, expiresIn(Duration.ofHours(1)));
+        cacheFile.putDetail(PRODUCT_3, expiresIn(Duration.ofHours(1)));
+        cacheFile.putSimilarIds("1", List.of("2", "3"), expiresIn(Duration.ofHours(1)));
+
+        reopen();
+
+        assertEquals(PRODUCT_2, cacheFile.getDetail("2"));
+        assertEquals(PRODUCT_3, cacheFile.getDetail("3"));
+        assertEquals(List.of("2", "3"), cacheFile.getSimilarIds("1"));
+        assertNull(cacheFile.getDetail("1"));
+    }
+
+    @Test
+    void removalSurvivesReopeningTheFile() {
+        cacheFile.putDetail(PRODUCT_2, expiresIn(Duration.ofHours(1)));
+        cacheFile.putSimilarIds("2", List.of("3"), expiresIn(Duration.ofHours(1)));
+        cacheFile.putDetail(PRODUCT_3, expiresIn(Duration.ofHours(1)));
+
+        cacheFile.remove("2");
+        assertNull(cacheFile.getDetail("2"));
+        reopen();
+
+        assertNull(cacheFile.getDetail("2"));
+        assertNull(cacheFile.getSimilarIds("2"));
+        assertEquals(PRODUCT_3, cacheFile.getDetail("3"));
+    }
+
+    @Test
+    void latestRecordForAKeyWins() {
+        ProductDetail repriced = new ProductDetail("2", "Dress", BigDecimal.ONE, false);
+        cacheFile.putDetail(PRODUCT_2, expiresIn(Duration.ofHours(1)));
+        cacheFile.putDetail(repriced, expiresIn(Duration.ofHours(1)));
+
+        reopen();
+
+        assertEquals(repriced, cacheFile.getDetail("2"));
+        assertEquals(1, cacheFile.size());
+    }
+
+    @Test
+    void dropsEntriesOnceTheirTtlHasPassed() {
+        cacheFile.putDetail(PRODUCT_2, expiresIn(Duration.ofMinutes(1)));
+        cacheFile.putDetail(PRODUCT_3, expiresIn(Duration.ofHours(1)));
+
+        clock.advance(Duration.ofMinutes(2));
+        reopen();
+
+        assertNull(cacheFile.getDetail("2"));
+        Map<String, Instant> warmed = new HashMap<>();
+        cacheFile.forEachDetail((productDetail, expiresAt) -> warmed.put(productDetail.id(), expiresAt));
+        assertEquals(Map.of("3", Instant.parse("2025-01-01T01:00:00Z")), warmed);
+    }
+
+    @Test
+    void ignoresATornRecordAtTheEndOfTheLog() throws IOException {
+        cacheFile.putDetail(PRODUCT_2, expiresIn(Duration.ofHours(1)));
+        int intact = cacheFile.usedBytes();
+        cacheFile.putDetail(PRODUCT_3, expiresIn(Duration.ofHours(1)));
+        cacheFile.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(intact + 12);
+            file.writeLong(-1L);
+        }
+        cacheFile = ProductCacheFile.open(path, 4096, clock, Runnable::run);
+
+        assertEquals(PRODUCT_2, cacheFile.getDetail("2"));
+        assertNull(cacheFile.getDetail("3"));
+        assertEquals(intact, cacheFile.usedBytes());
+    }
+
+    @Test
+    void compactsWhenFullKeepingOnlyLiveRecords() {
+        for (int i = 0; i < 200; i++) {
+            cacheFile.putDetail(new ProductDetail("2", "Product " + i, BigDecimal.valueOf(i), true),
+                    expiresIn(Duration.ofHours(1)));
+        }
+        cacheFile.putDetail(PRODUCT_3, expiresIn(Duration.ofHours(1)));
+
+        assertTrue(cacheFile.usedBytes() < 4096);
+        assertEquals("Product 199", cacheFile.getDetail("2").name());
+        reopen();
+        assertEquals("Product 199", cacheFile.getDetail("2").name());
+        assertEquals(PRODUCT_3, cacheFile.getDetail("3"));
+    }
+
+    @Test
+    void compactionEvictsTheEntriesThatExpireFirstToFreeHalfTheFile() {
+        int written = 0;
+        while (cacheFile.evictions() == 0) {
+            cacheFile.putDetail(new ProductDetail(Integer.toString(written), "Product", BigDecimal.ONE, true),
+                    expiresIn(Duration.ofMinutes(written + 1)));
+            written++;
+        }
+
+        assertTrue(cacheFile.usedBytes() <= 4096 / 2 + 100);
+        assertNull(cacheFile.getDetail("0"));
+        assertEquals("Product", cacheFile.getDetail(Integer.toString(written - 2)).name());
+    }
+
+    @Test
+    void dropsWritesThatDoNotFitUntilTheBackgroundCompactionRuns() {
+        List<Runnable> compactions = new ArrayList<>();
+        cacheFile.close();
+        cacheFile = ProductCacheFile.open(path, 4096, clock, compactions::add);
+        cacheFile.putDetail(PRODUCT_3, expiresIn(Duration.ofHours(1)));
+        int written = 0;
+        while (compactions.isEmpty()) {
+            cacheFile.tryPutDetail(new ProductDetail("2", "Product " + written++, BigDecimal.ONE, true),
+                    expiresIn(Duration.ofHours(1)));
+        }
+
+        assertFalse(cacheFile.tryPutDetail(PRODUCT_2, expiresIn(Duration.ofHours(1))));
+        assertNull(cacheFile.getDetail("2"));
+        assertEquals(PRODUCT_3, cacheFile.getDetail("3"));
+        assertEquals(1, compactions.size());
+
+        compactions.getFirst().run();
+
+        assertTrue(cacheFile.tryPutDetail(PRODUCT_2, expiresIn(Duration.ofHours(1))));
+        assertEquals(PRODUCT_2, cacheFile.getDetail("2"));
+        reopen();
+        assertEquals(PRODUCT_2, cacheFile.getDetail("2"));
+        assertEquals(PRODUCT_3, cacheFile.getDetail("3"));
+    }
+
+    @Test
+    void keepsServingTheCurrentLogWhenACompactionFails() throws IOException {
+        Path blocker = Files.createDirectories(path.resolveSibling("products.bin.compact")).resolve("file");
+        Files.writeString(blocker, "not empty");
+        cacheFile.putDetail(PRODUCT_3, expiresIn(Duration.ofHours(1)));
+
+        for (int i = 0; cacheFile.compactionFailures() == 0; i++) {
+            cacheFile.putDetail(new ProductDetail("2", "Product " + i, BigDecimal.ONE, true),
+                    expiresIn(Duration.ofHours(1)));
+        }
+
+        assertEquals(PRODUCT_3, cacheFile.getDetail("3"));
+        Files.delete(blocker);
+        reopen();
+        assertEquals(PRODUCT_3, cacheFile.getDetail("3"));
+    }
+
+    @Test
+    void compactsAFullFileToLogARemovalThatSurvivesReopening() {
+        List<Runnable> compactions = new ArrayList<>();
+        cacheFile.close();
+        cacheFile = ProductCacheFile.open(path, 4096, clock, compactions::add);
+        cacheFile.putDetail(PRODUCT_3, expiresIn(Duration.ofHours(2)));
+        for (int i = 0; compactions.isEmpty(); i++) {
+            cacheFile.putDetail(new ProductDetail("2", "Product " + i, BigDecimal.ONE, true),
+                    expiresIn(Duration.ofHours(1)));
+        }
+
+        cacheFile.remove("3");
+
+        assertNull(cacheFile.getDetail("3"));
+        reopen();
+        assertNull(cacheFile.getDetail("3"));
+    }
+
+    @Test
+    void keepsAnEntryWhoseRemovalCouldNotBeLogged() throws IOException {
+        List<Runnable> compactions = new ArrayList<>();
+        cacheFile.close();
+        cacheFile = ProductCacheFile.open(path, 4096, clock, compactions::add);
+        cacheFile.putDetail(PRODUCT_3, expiresIn(Duration.ofHours(2)));
+        for (int i = 0; compactions.isEmpty(); i++) {
+            cacheFile.putDetail(new ProductDetail("2", "Product " + i, BigDecimal.ONE, true),
+                    expiresIn(Duration.ofHours(1)));
+        }
+        Path blocker = Files.createDirectories(path.resolveSibling("products.bin.compact")).resolve("file");
+        Files.writeString(blocker, "not empty");
+
+        assertThrows(UncheckedIOException.class, () -> cacheFile.remove("3"));
+
+        assertEquals(PRODUCT_3, cacheFile.getDetail("3"));
+        assertEquals(1, cacheFile.compactionFailures());
+        Files.delete(blocker);
+        reopen();
+        assertEquals(PRODUCT_3, cacheFile.getDetail("3"));
+    }
+
+    private Instant expiresIn(Duration ttl) {
+        return clock.instant().plus(ttl);
+    }
+
+    private void reopen() {
+        cacheFile.close();
+        cacheFile = ProductCacheFile.open(path, 4096, clock, Runnable::run);
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant now;
+
+        private TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.SimilarProducts;
+import com.interview.similar_products_api.domain.port.in.GetSimilarProductsQuery;
+import com.interview.similar_products_api.infrastructure.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshAheadSimilarProductsQueryTest {
+
+    private static final ResponseCacheProperties PROPERTIES = new ResponseCacheProperties(
+            true, 100, Duration.ofSeconds(60), Duration.ofSeconds(20), 1, Duration.ofSeconds(1), 1);
+
+    private static final ProductDetail PRODUCT_2 = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+    private static final ProductDetail PRODUCT_3 = new ProductDetail("3", "Product 3", BigDecimal.ONE, false);
+
+    @Mock
+    private GetSimilarProductsQuery delegate;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RefreshAheadSimilarProductsQuery query;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        query = new RefreshAheadSimilarProductsQuery(delegate, PROPERTIES, Runnable::run, nanos::get, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        query.close();
+    }
+
+    @Test
+    void servesRepeatedRequestsFromTheMaterializedResult() {
+        when(delegate.getSimilarProducts("1")).thenReturn(complete(PRODUCT_2));
+
+        assertEquals(List.of(PRODUCT_2), query.getSimilarProducts("1").products());
+        assertEquals(List.of(PRODUCT_2), query.getSimilarProducts("1").products());
+
+        verify(delegate, times(1)).getSimilarProducts("1");
+        assertEquals(1.0, meterRegistry.counter("similar.products.response.cache", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("similar.products.response.cache", "result", "miss").count());
+    }
+
+    @Test
+    void reportsCachedIdsUntilTheyExpire() {
+        when(delegate.getSimilarProducts("1")).thenReturn(complete(PRODUCT_2));
+
+        assertFalse(query.isCached("1"));
+        query.getSimilarProducts("1");
+        assertTrue(query.isCached("1"));
+
+        nanos.addAndGet(Duration.ofSeconds(61).toNanos());
+        assertFalse(query.isCached("1"));
+    }
+
+    @Test
+    void updatesCachedResponsesListingAChangedProduct() {
+        ProductDetail repriced = new ProductDetail("2", "Product 2", BigDecimal.ONE, false);
+        when(delegate.getSimilarProducts("1")).thenReturn(complete(PRODUCT_2, PRODUCT_3));
+        when(delegate.getSimilarProducts("9")).thenReturn(complete(PRODUCT_3));
+        query.getSimilarProducts("1");
+        query.getSimilarProducts("9");
+
+        query.apply(ProductChange.upsert("2", repriced, null));
+        assertEquals(List.of(repriced, PRODUCT_3), query.getSimilarProducts("1").products());
+
+        query.apply(ProductChange.delete("3"));
+        assertEquals(List.of(repriced), query.getSimilarProducts("1").products());
+        assertEquals(List.of(), query.getSimilarProducts("9").products());
+
+        verify(delegate, times(1)).getSimilarProducts("1");
+        verify(delegate, times(1)).getSimilarProducts("9");
+    }
+
+    @Test
+    void addsBackAProductLeftOutAsMissingOnceItIsUpserted() {
+        ProductDetail product4 = new ProductDetail("4", "Product 4", BigDecimal.TEN, true);
+        when(delegate.getSimilarProducts("1"))
+                .thenReturn(new SimilarProducts(List.of("2", "4", "3"), List.of(PRODUCT_2, PRODUCT_3), true));
+        query.getSimilarProducts("1");
+
+        query.apply(ProductChange.upsert("4", product4, null));
+
+        assertEquals(List.of(PRODUCT_2, product4, PRODUCT_3), query.getSimilarProducts("1").products());
+        verify(delegate, times(1)).getSimilarProducts("1");
+    }
+
+    @Test
+    void forgetsTheIdsOfResponsesThatAreDroppedOrReloaded() {
+        when(delegate.getSimilarProducts("1")).thenReturn(complete(PRODUCT_2), complete(PRODUCT_3));
+        when(delegate.getSimilarProducts("9")).thenReturn(complete(PRODUCT_2));
+        for (int i = 0; i < 5; i++) {
+            query.getSimilarProducts("1");
+        }
+        query.getSimilarProducts("9");
+        assertEquals(1, query.indexedProductCount());
+
+        nanos.addAndGet(Duration.ofSeconds(45).toNanos());
+        query.refreshHotEntries();
+        assertEquals(2, query.indexedProductCount());
+
+        query.apply(ProductChange.delete("9"));
+        query.apply(ProductChange.upsert("1", null, List.of("4")));
+        assertEquals(0, query.indexedProductCount());
+    }
+
+    @Test
+    void dropsTheCachedResponseWhenTheProductsSimilarIdsChangeOrItIsDeleted() {
+        when(delegate.getSimilarProducts("1")).thenReturn(complete(PRODUCT_2));
+        query.getSimilarProducts("1");
+
+        query.apply(ProductChange.upsert("1", null, List.of("3")));
+        assertFalse(query.isCached("1"));
+
+        query.getSimilarProducts("1");
+        query.apply(ProductChange.delete("1"));
+        assertFalse(query.isCached("1"));
+    }
+
+    @Test
+    void refreshesOnlyTheHottestIdsBeforeTheyExpire() {
+        when(delegate.getSimilarProducts("1")).thenReturn(complete(PRODUCT_2), complete(PRODUCT_3));
+        when(delegate.getSimilarProducts("9")).thenReturn(complete(PRODUCT_2));
+        for (int i = 0; i < 5; i++) {
+            query.getSimilarProducts("1");
+        }
+        query.getSimilarProducts("9");
+
+        query.refreshHotEntries();
+        verify(delegate, times(1)).getSimilarProducts("1");
+
+        nanos.addAndGet(Duration.ofSeconds(45).toNanos());
+        query.refreshHotEntries();
+
+        verify(delegate, times(2)).getSimilarProducts("1");
+        verify(delegate, times(1)).getSimilarProducts("9");
+        assertEquals(List.of(PRODUCT_3), query.getSimilarProducts("1").products());
+        assertEquals(1.0, meterRegistry.counter("similar.products.response.cache.refreshes", "outcome", "success")
+                .count());
+    }
+
+    @Test
+    void keepsServingTheCurrentResultWhenARefreshFails() {
+        when(delegate.getSimilarProducts("1"))
+                .thenReturn(complete(PRODUCT_2))
+                .thenThrow(new ExternalServiceException("upstream error"));
+        query.getSimilarProducts("1");
+
+        nanos.addAndGet(Duration.ofSeconds(45).toNanos());
+        query.refreshHotEntries();
+
+        assertEquals(List.of(PRODUCT_2), query.getSimilarProducts("1").products());
+        assertEquals(1.0, meterRegistry.counter("similar.products.response.cache.refreshes", "outcome", "failure")
+                .count());
+    }
+
+    @Test
+    void returnsButDoesNotCacheAnIncompleteResult() {
+        SimilarProducts incomplete = new SimilarProducts(List.of("2", "3"), List.of(PRODUCT_2), false);
+        when(delegate.getSimilarProducts("1")).thenReturn(incomplete, complete(PRODUCT_2, PRODUCT_3));
+
+        assertEquals(incomplete, query.getSimilarProducts("1"));
+        assertFalse(query.isCached("1"));
+        assertEquals(complete(PRODUCT_2, PRODUCT_3), query.getSimilarProducts("1"));
+        assertTrue(query.isCached("1"));
+    }
+
+    @Test
+    void keepsTheCurrentResultWhenARefreshComesBackIncomplete() {
+        when(delegate.getSimilarProducts("1"))
+                .thenReturn(complete(PRODUCT_2, PRODUCT_3), new SimilarProducts(List.of("2", "3"), List.of(PRODUCT_2), false));
+        query.getSimilarProducts("1");
+
+        nanos.addAndGet(Duration.ofSeconds(45).toNanos());
+        query.refreshHotEntries();
+
+        assertEquals(complete(PRODUCT_2, PRODUCT_3), query.getSimilarProducts("1"));
+        assertEquals(1.0, meterRegistry.counter("similar.products.response.cache.refreshes", "outcome", "incomplete")
+                .count());
+    }
+
+    @Test
+    void loadsConcurrentMissesOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getSimilarProducts("1")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return complete(PRODUCT_2);
+        });
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<SimilarProducts> first = executorService.submit(() -> query.getSimilarProducts("1"));
+            assertTrue(loading.await(1, TimeUnit.SECONDS));
+            Future<SimilarProducts> second = executorService.submit(() -> query.getSimilarProducts("1"));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(complete(PRODUCT_2), first.get(1, TimeUnit.SECONDS));
+            assertEquals(complete(PRODUCT_2), second.get(1, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+        verify(delegate, times(1)).getSimilarProducts("1");
+    }
+
+    @Test
+    void sharesAnIncompleteLoadWithConcurrentMissesWithoutCachingIt() throws Exception {
+        SimilarProducts incomplete = new SimilarProducts(List.of("2", "3"), List.of(PRODUCT_2), false);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getSimilarProducts("1")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return incomplete;
+        });
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<SimilarProducts> first = executorService.submit(() -> query.getSimilarProducts("1"));
+            assertTrue(loading.await(1, TimeUnit.SECONDS));
+            Future<SimilarProducts> second = executorService.submit(() -> query.getSimilarProducts("1"));
+            while (meterRegistry.counter("similar.products.response.cache.shared.loads").count() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals(incomplete, first.get(1, TimeUnit.SECONDS));
+            assertEquals(incomplete, second.get(1, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+        verify(delegate, times(1)).getSimilarProducts("1");
+        assertFalse(query.isCached("1"));
+    }
+
+    @Test
+    void passesStreamingAndBatchCallsThrough() {
+        query.getSimilarProductsBatch(List.of("1"));
+
+        verify(delegate).getSimilarProductsBatch(List.of("1"));
+        verify(delegate, never()).getSimilarProducts("1");
+    }
+
+    @Test
+    void sketchRanksFrequentKeysAboveRareOnes() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("hot");
+        }
+        sketch.increment("cold");
+
+        assertTrue(sketch.frequency("hot") >= 20);
+        assertTrue(sketch.frequency("cold") < sketch.frequency("hot"));
+    }
+
+    @Test
+    void sketchAgesCountersSoOldPopularityFades() {
+        FrequencySketch sketch = new FrequencySketch(2);
+        for (int i = 0; i < 19; i++) {
+            sketch.increment("old");
+        }
+        int before = sketch.frequency("old");
+
+        sketch.increment("new");
+
+        assertTrue(sketch.frequency("old") < before);
+    }
+
+    private static SimilarProducts complete(ProductDetail... products) {
+        return new SimilarProducts(Stream.of(products).map(ProductDetail::id).toList(), List.of(products), true);
+    }
+}
@@ -0,0 +1,215 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.GraphIndexProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SimilarityGraphIndexTest {
+
+    private static final long MAX_AGE_MILLIS = Duration.ofMinutes(10).toMillis();
+
+    private static final long TTL_MILLIS = Duration.ofHours(1).toMillis();
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private ProductRepository source;
+
+    private final AtomicLong millis = new AtomicLong(1_000_000);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SimilarityGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        graph = new SimilarityGraph(100);
+    }
+
+    @Test
+    void crawlsFromTheSeedsAcrossTheCatalogue() {
+        SimilarityGraphIndex index = index(10, List.of("1"));
+        index.crawlFrom(source);
+        when(source.getSimilarProductIds("1")).thenReturn(List.of("2", "3"));
+        when(source.getSimilarProductIds("2")).thenReturn(List.of("1"));
+        when(source.getSimilarProductIds("3")).thenReturn(List.of("4"));
+        when(source.getSimilarProductIds("4")).thenThrow(new ProductNotFoundException("4"));
+
+        index.crawl();
+        index.crawl();
+        index.crawl();
+
+        assertEquals(List.of("2", "3"), index.lookup("1"));
+        assertEquals(List.of("1"), index.lookup("2"));
+        assertEquals(List.of("4"), index.lookup("3"));
+        assertNull(index.lookup("4"));
+        assertEquals(3, meterRegistry.get("similarity.graph.crawls").tag("outcome", "success").counter().count());
+        assertEquals(1, meterRegistry.get("similarity.graph.crawls").tag("outcome", "not_found").counter().count());
+        assertEquals(4, meterRegistry.get("similarity.graph.nodes").gauge().value());
+    }
+
+    @Test
+    void crawlsNothingUntilASourceIsSet() {
+        SimilarityGraphIndex index = index(10, List.of("1"));
+
+        index.crawl();
+
+        verify(source, never()).getSimilarProductIds(anyString());
+    }
+
+    @Test
+    void refreshesOnlyEntriesOlderThanMaxAge() {
+        SimilarityGraphIndex index = index(10, List.of());
+        index.crawlFrom(source);
+        index.record("1", List.of());
+
+        index.crawl();
+        verify(source, never()).getSimilarProductIds("1");
+
+        millis.addAndGet(MAX_AGE_MILLIS);
+        when(source.getSimilarProductIds("1")).thenReturn(List.of("2"));
+        index.crawl();
+
+        assertEquals(List.of("2"), index.lookup("1"));
+    }
+
+    @Test
+    void refreshesTheMostRequestedEntriesFirst() {
+        SimilarityGraphIndex index = index(1, List.of());
+        index.crawlFrom(source);
+        index.record("1", List.of());
+        index.record("2", List.of());
+        index.lookup("2");
+        index.lookup("2");
+        index.lookup("1");
+        millis.addAndGet(MAX_AGE_MILLIS);
+        when(source.getSimilarProductIds("2")).thenReturn(List.of("3"));
+
+        index.crawl();
+
+        verify(source, never()).getSimilarProductIds("1");
+        assertEquals(List.of("3"), index.lookup("2"));
+    }
+
+    @Test
+    void refreshesTheOldestEntryAmongEquallyRequestedOnes() {
+        SimilarityGraphIndex index = index(1, List.of());
+        index.crawlFrom(source);
+        index.record("1", List.of());
+        millis.addAndGet(1000);
+        index.record("2", List.of());
+        millis.addAndGet(MAX_AGE_MILLIS);
+        when(source.getSimilarProductIds("1")).thenReturn(List.of("3"));
+
+        index.crawl();
+
+        verify(source, never()).getSimilarProductIds("2");
+        assertEquals(List.of("3"), index.lookup("1"));
+    }
+
+    @Test
+    void keepsTheCurrentRowWhenACrawlFailsAndRetriesOnceDue() {
+        SimilarityGraphIndex index = index(10, List.of());
+        index.crawlFrom(source);
+        index.record("1", List.of("2"));
+        millis.addAndGet(MAX_AGE_MILLIS);
+        when(source.getSimilarProductIds(anyString())).thenThrow(new ExternalServiceException("boom"));
+
+        index.crawl();
+
+        assertEquals(List.of("2"), index.lookup("1"));
+        assertEquals(2, meterRegistry.get("similarity.graph.crawls").tag("outcome", "failure").counter().count());
+        index.crawl();
+        assertEquals(2, meterRegistry.get("similarity.graph.crawls").tag("outcome", "failure").counter().count());
+    }
+
+    @Test
+    void stopsServingRowsOlderThanTheTtlThatACrawlCouldNotRefresh() {
+        SimilarityGraphIndex index = index(10, List.of());
+        index.crawlFrom(source);
+        index.record("1", List.of());
+        when(source.getSimilarProductIds("1")).thenThrow(new ExternalServiceException("boom"));
+
+        millis.addAndGet(MAX_AGE_MILLIS);
+        index.crawl();
+        assertEquals(List.of(), index.lookup("1"));
+
+        millis.addAndGet(TTL_MILLIS - MAX_AGE_MILLIS);
+        assertNull(index.lookup("1"));
+    }
+
+    @Test
+    void keepsTheOldestDueEntriesNotFetchedInTheQueue() {
+        SimilarityGraphIndex index = index(1, List.of());
+        index.crawlFrom(source);
+        index.record("1", List.of());
+        millis.addAndGet(1000);
+        index.record("2", List.of());
+        millis.addAndGet(MAX_AGE_MILLIS);
+        when(source.getSimilarProductIds(anyString())).thenReturn(List.of());
+
+        index.crawl();
+        index.crawl();
+
+        verify(source).getSimilarProductIds("1");
+        verify(source).getSimilarProductIds("2");
+    }
+
+    @Test
+    void appliesProductChanges() {
+        SimilarityGraphIndex index = index(10, List.of());
+        index.record("1", List.of("2"));
+
+        index.apply(ProductChange.upsert("1", null, List.of("3")));
+        assertEquals(List.of("3"), index.lookup("1"));
+
+        index.apply(ProductChange.upsert("1", null, null));
+        assertEquals(List.of("3"), index.lookup("1"));
+
+        index.apply(ProductChange.delete("1"));
+        assertNull(index.lookup("1"));
+    }
+
+    @Test
+    void writesASnapshotOnClose() {
+        SimilarityGraphIndex index = index(10, List.of());
+        index.record("1", List.of("2"));
+
+        index.close();
+
+        assertEquals(List.of("2"), SimilarityGraph.readFrom(directory.resolve("graph.bin"), 100)
+                .similarIds("1", SimilarityGraph.NEVER));
+        assertEquals(1, meterRegistry.get("similarity.graph.snapshots").tag("outcome", "success").counter().count());
+    }
+
+    private SimilarityGraphIndex index(int maxFetchesPerSecond, List<String> seedIds) {
+        GraphIndexProperties properties = new GraphIndexProperties(true, directory.resolve("graph.bin"), 100,
+                Duration.ofMillis(MAX_AGE_MILLIS), Duration.ofMillis(TTL_MILLIS), Duration.ofSeconds(1),
+                maxFetchesPerSecond, Duration.ofMinutes(5), seedIds);
+        return new SimilarityGraphIndex(graph, properties, Runnable::run, millis::get, meterRegistry);
+    }
+}
@@ -0,0 +1,139 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.GraphIndexProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SimilarityGraphProductRepositoryTest {
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private ProductRepository delegate;
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SimilarityGraphIndex index;
+
+    private SimilarityGraphProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        GraphIndexProperties properties = new GraphIndexProperties(true, directory.resolve("graph.bin"), 100,
+                Duration.ofMinutes(10), Duration.ofHours(1), Duration.ofSeconds(1), 10, Duration.ofMinutes(5),
+                List.of());
+        index = new SimilarityGraphIndex(new SimilarityGraph(100), properties, Runnable::run, now::get,
+                meterRegistry);
+        repository = new SimilarityGraphProductRepository(delegate, index, meterRegistry);
+    }
+
+    @Test
+    void fetchesMissingIdsOnceAndServesThemFromTheGraph() {
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2", "3"));
+
+        assertEquals(List.of("2", "3"), repository.getSimilarProductIds("1"));
+        assertEquals(List.of("2", "3"), repository.getSimilarProductIds("1"));
+
+        verify(delegate, times(1)).getSimilarProductIds("1");
+        assertEquals(1, meterRegistry.get("similarity.graph.lookups").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("similarity.graph.lookups").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void answersProductsNotFoundUpstreamFromTheGraphUntilTheyAreDue() {
+        when(delegate.getSimilarProductIds("9")).thenThrow(new ProductNotFoundException("9"));
+
+        assertThrows(ProductNotFoundException.class, () -> repository.getSimilarProductIds("9"));
+        assertThrows(ProductNotFoundException.class, () -> repository.getSimilarProductIds("9"));
+        verify(delegate, times(1)).getSimilarProductIds("9");
+        assertEquals(1, meterRegistry.get("similarity.graph.lookups").tag("result", "not_found").counter().count());
+
+        now.addAndGet(Duration.ofMinutes(10).toMillis());
+        assertThrows(ProductNotFoundException.class, () -> repository.getSimilarProductIds("9"));
+        verify(delegate, times(2)).getSimilarProductIds("9");
+    }
+
+    @Test
+    void crawlsFromTheDelegate() {
+        index.record("1", List.of("2"));
+        when(delegate.getSimilarProductIds("2")).thenReturn(List.of("1"));
+
+        index.crawl();
+
+        assertEquals(List.of("1"), repository.getSimilarProductIds("2"));
+        verify(delegate, times(1)).getSimilarProductIds("2");
+    }
+
+    @Test
+    void crawlsFromTheGivenSourceInsteadOfTheDelegate() {
+        ProductRepository belowCache = mock(ProductRepository.class);
+        repository = new SimilarityGraphProductRepository(delegate, belowCache, index, meterRegistry);
+        index.record("1", List.of("2"));
+        when(belowCache.getSimilarProductIds("2")).thenReturn(List.of("1"));
+
+        index.crawl();
+
+        assertEquals(List.of("1"), repository.getSimilarProductIds("2"));
+        verify(delegate, never()).getSimilarProductIds("2");
+    }
+
+    @Test
+    void fetchesMissesFromTheCrawlSourceRatherThanTheCacheBelow() {
+        ProductRepository belowCache = mock(ProductRepository.class);
+        repository = new SimilarityGraphProductRepository(delegate, belowCache, index, meterRegistry);
+        when(belowCache.getSimilarProductIds("1")).thenReturn(List.of("2"));
+
+        assertEquals(List.of("2"), repository.getSimilarProductIds("1"));
+        assertEquals(List.of("2"), index.lookup("1"));
+        verify(delegate, never()).getSimilarProductIds("1");
+    }
+
+    @Test
+    void answersFromTheCacheBelowWithoutRecordingItWhenTheCrawlSourceFails() {
+        ProductRepository belowCache = mock(ProductRepository.class);
+        repository = new SimilarityGraphProductRepository(delegate, belowCache, index, meterRegistry);
+        when(belowCache.getSimilarProductIds("1")).thenThrow(new ExternalServiceException("boom"));
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2"));
+
+        assertEquals(List.of("2"), repository.getSimilarProductIds("1"));
+        assertNull(index.lookup("1"));
+    }
+
+    @Test
+    void passesProductDetailsThrough() {
+        ProductLookup found = ProductLookup.found(new ProductDetail("2", "Product 2", BigDecimal.TEN, true));
+        when(delegate.getProductDetail("2")).thenReturn(found);
+
+        assertEquals(found, repository.getProductDetail("2"));
+    }
+}
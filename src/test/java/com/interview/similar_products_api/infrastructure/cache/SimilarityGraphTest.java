@@ -0,0 +1,206 @@
+package com.interview.similar_products_api.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimilarityGraphTest {
+
+    private static final long ANY_TIME = SimilarityGraph.NEVER;
+
+    @TempDir
+    private Path directory;
+
+    private final SimilarityGraph graph = new SimilarityGraph(100);
+
+    @Test
+    void storesSimilarIdsAsNodesSharingTheirIds() {
+        graph.put("1", List.of("2", "3"), 1000);
+        graph.put("2", List.of("3", "1"), 2000);
+
+        assertEquals(List.of("2", "3"), graph.similarIds("1", ANY_TIME));
+        assertEquals(List.of("3", "1"), graph.similarIds("2", ANY_TIME));
+        assertSame(graph.similarIds("1", ANY_TIME).get(1), graph.similarIds("2", ANY_TIME).get(0));
+        assertNull(graph.similarIds("3", ANY_TIME));
+        assertNull(graph.similarIds("4", ANY_TIME));
+        assertEquals(3, graph.size());
+        assertEquals(4, graph.edges());
+    }
+
+    @Test
+    void returnedListsAreUnmodifiableAndKeepTheirContentsAfterUpdates() {
+        graph.put("1", List.of("2", "3"), 1000);
+        List<String> before = graph.similarIds("1", ANY_TIME);
+
+        graph.put("1", List.of("4"), 2000);
+
+        assertEquals(List.of("2", "3"), before);
+        assertEquals(List.of("4"), graph.similarIds("1", ANY_TIME));
+        assertEquals(1, graph.edges());
+        assertThrows(UnsupportedOperationException.class, () -> before.add("5"));
+    }
+
+    @Test
+    void doesNotServeRowsFetchedAtOrBeforeTheCutoff() {
+        graph.put("1", List.of("2"), 1000);
+
+        assertEquals(List.of("2"), graph.similarIds("1", 999));
+        assertNull(graph.similarIds("1", 1000));
+    }
+
+    @Test
+    void pollsNodesNeverFetchedOrFetchedBeforeTheCutoff() {
+        graph.put("1", List.of("2"), 1000);
+        graph.put("3", List.of(), 5000);
+        graph.addNode("4");
+
+        Map<String, Long> due = new HashMap<>();
+        graph.pollDue(2000, 10, due::put);
+
+        assertEquals(Map.of("1", 1000L, "2", SimilarityGraph.NEVER, "4", SimilarityGraph.NEVER), due);
+        due.clear();
+        graph.pollDue(Long.MAX_VALUE, 10, due::put);
+        assertEquals(Map.of("3", 5000L), due);
+    }
+
+    @Test
+    void pollsTheOldestDueNodesFirstUpToTheLimit() {
+        graph.put("1", List.of(), 3000);
+        graph.put("2", List.of(), 1000);
+        graph.put("3", List.of(), 2000);
+        graph.put("4", List.of(), 4000);
+        graph.put("2", List.of(), 5000);
+
+        List<String> due = new ArrayList<>();
+        graph.pollDue(4000, 2, (productId, attemptedAt) -> due.add(productId));
+        graph.pollDue(4000, 2, (productId, attemptedAt) -> due.add(productId));
+        graph.pollDue(4000, 2, (productId, attemptedAt) -> due.add(productId));
+
+        assertEquals(List.of("3", "1", "4"), due);
+    }
+
+    @Test
+    void requeuesPolledNodesWhenTheyAreMarkedAttempted() {
+        graph.put("1", List.of(), 1000);
+        List<String> due = new ArrayList<>();
+        graph.pollDue(2000, 10, (productId, attemptedAt) -> due.add(productId));
+
+        graph.pollDue(2000, 10, (productId, attemptedAt) -> due.add(productId));
+        assertEquals(List.of("1"), due);
+
+        graph.markAttempted("1", 1000);
+        graph.pollDue(2000, 10, (productId, attemptedAt) -> due.add(productId));
+        assertEquals(List.of("1", "1"), due);
+    }
+
+    @Test
+    void missingProductsAreNotServedUntilFetchedAgain() {
+        graph.put("1", List.of("2"), 1000);
+        graph.markMissing("1", 2000);
+
+        assertNull(graph.similarIds("1", ANY_TIME));
+        List<String> due = new ArrayList<>();
+        graph.pollDue(1500, 10, (productId, attemptedAt) -> due.add(productId));
+        assertEquals(List.of("2"), due);
+        assertEquals(0, graph.edges());
+    }
+
+    @Test
+    void reportsMissingProductsFetchedAfterTheCutoff() {
+        graph.put("1", List.of("2"), 1000);
+        graph.markMissing("3", 2000);
+
+        assertTrue(graph.isMissing("3", 1500));
+        assertFalse(graph.isMissing("3", 2000));
+        assertFalse(graph.isMissing("1", 0));
+        assertFalse(graph.isMissing("2", 0));
+        assertFalse(graph.isMissing("4", 0));
+    }
+
+    @Test
+    void failedAttemptsKeepTheCurrentRowAndItsFetchTime() {
+        graph.put("1", List.of("2"), 1000);
+        graph.markAttempted("1", 3000);
+
+        assertEquals(List.of("2"), graph.similarIds("1", 999));
+        assertNull(graph.similarIds("1", 1000));
+        List<String> due = new ArrayList<>();
+        graph.pollDue(2000, 10, (productId, attemptedAt) -> due.add(productId));
+        assertEquals(List.of("2"), due);
+    }
+
+    @Test
+    void refusesToGrowPastMaxNodes() {
+        SimilarityGraph small = new SimilarityGraph(3);
+
+        assertTrue(small.put("1", List.of("2", "3"), 1000));
+        assertFalse(small.put("2", List.of("4"), 1000));
+        assertTrue(small.put("2", List.of("3"), 1000));
+        small.addNode("5");
+
+        assertEquals(3, small.size());
+        assertNull(small.similarIds("5", ANY_TIME));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        SimilarityGraph large = new SimilarityGraph(10_000);
+        for (int i = 0; i < 3000; i++) {
+            large.put(String.valueOf(i), List.of(String.valueOf(i + 1)), i);
+        }
+
+        assertEquals(List.of("2999"), large.similarIds("2998", ANY_TIME));
+        assertEquals(3001, large.size());
+    }
+
+    @Test
+    void snapshotRoundTripsRowsMissingAndUnfetchedNodes() {
+        Path snapshot = directory.resolve("graph/similarity-graph.bin");
+        graph.put("1", List.of("2", "3"), 1000);
+        graph.markMissing("4", 2000);
+
+        graph.writeTo(snapshot);
+        SimilarityGraph loaded = SimilarityGraph.readFrom(snapshot, 100);
+
+        assertEquals(List.of("2", "3"), loaded.similarIds("1", ANY_TIME));
+        assertNull(loaded.similarIds("4", ANY_TIME));
+        assertEquals(4, loaded.size());
+        assertEquals(2, loaded.edges());
+        Map<String, Long> due = new HashMap<>();
+        loaded.pollDue(Long.MAX_VALUE, 10, due::put);
+        assertEquals(Map.of("1", 1000L, "2", SimilarityGraph.NEVER, "3", SimilarityGraph.NEVER, "4", 2000L), due);
+        loaded.put("5", List.of("1"), 3000);
+        assertEquals(List.of("1"), loaded.similarIds("5", ANY_TIME));
+    }
+
+    @Test
+    void startsEmptyWithoutAValidSnapshot() throws IOException {
+        Path snapshot = directory.resolve("similarity-graph.bin");
+        assertEquals(0, SimilarityGraph.readFrom(snapshot, 100).size());
+
+        graph.put("1", List.of("2", "3"), 1000);
+        graph.writeTo(snapshot);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 12] ^= 1;
+        Files.write(snapshot, bytes);
+        assertEquals(0, SimilarityGraph.readFrom(snapshot, 100).size());
+
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+        assertEquals(0, SimilarityGraph.readFrom(snapshot, 100).size());
+    }
+}
@@ -0,0 +1,76 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class AppConfigTest {
+
+    private final AppConfig appConfig = new AppConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        executor.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    void pooledHttp11ReusesConnectionsAndExposesPoolMetrics() throws Exception {
+        ClientHttpRequestFactory requestFactory = appConfig.upstreamRequestFactory(
+                transport(TransportProperties.Protocol.HTTP_1_1), executor, meterRegistry);
+        RestClient restClient = appConfig.restClient(requestFactory, new CodecProperties(true, 4096),
+                server.url("/").toString());
+        server.enqueue(new MockResponse().setBody("[\"2\"]"));
+        server.enqueue(new MockResponse().setBody("[\"3\"]"));
+
+        restClient.get().uri("/product/1/similarids").retrieve().body(String.class);
+        restClient.get().uri("/product/2/similarids").retrieve().body(String.class);
+
+        assertInstanceOf(HttpComponentsClientHttpRequestFactory.class, requestFactory);
+        assertEquals(0, server.takeRequest().getSequenceNumber());
+        assertEquals(1, server.takeRequest().getSequenceNumber());
+        assertNotNull(meterRegistry.find("httpcomponents.httpclient.pool.total.max").gauge());
+        ((DisposableBean) requestFactory).destroy();
+    }
+
+    @Test
+    void http2UsesJdkClient() {
+        ClientHttpRequestFactory requestFactory = appConfig.upstreamRequestFactory(
+                transport(TransportProperties.Protocol.HTTP_2), executor, meterRegistry);
+
+        assertInstanceOf(JdkClientHttpRequestFactory.class, requestFactory);
+    }
+
+    private static TransportProperties transport(TransportProperties.Protocol protocol) {
+        return new TransportProperties(protocol, Duration.ofSeconds(1), Duration.ofSeconds(5),
+                TransportProperties.ClientExecutor.VIRTUAL,
+                new TransportProperties.Pool(10, 10, Duration.ofSeconds(30), Duration.ofSeconds(10),
+                        Duration.ofMillis(100)));
+    }
+}
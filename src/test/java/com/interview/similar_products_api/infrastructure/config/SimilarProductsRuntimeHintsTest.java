@@ -0,0 +1,55 @@
+package com.interview.similar_products_api.infrastructure.config;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.infrastructure.rest.ProductRestClientAdapter;
+import com.interview.similar_products_api.infrastructure.web.ProductChangeRequest;
+import com.interview.similar_products_api.infrastructure.web.ProductController;
+import com.interview.similar_products_api.infrastructure.web.SimilarProductsPageParams;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.web.client.RestClient;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimilarProductsRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new SimilarProductsRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registersTheProductDetailForJsonBinding() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ProductDetail.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(ProductDetail.class.getMethod("price"))
+                .test(hints));
+    }
+
+    @Test
+    void registersTheConstraintMethodsOfTheRequestRecords() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(ProductChangeRequest.class.getMethod("isConsistent"))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(SimilarProductsPageParams.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS)
+                .test(hints));
+    }
+
+    @Test
+    void registersTheControllerAndRestClientAdapter() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(ProductController.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS)
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(ProductRestClientAdapter.class.getConstructor(RestClient.class))
+                .test(hints));
+    }
+}
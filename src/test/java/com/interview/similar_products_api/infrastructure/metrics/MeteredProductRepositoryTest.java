@@ -0,0 +1,87 @@
+package com.interview.similar_products_api.infrastructure.metrics;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.UpstreamTimeoutException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MeteredProductRepositoryTest {
+
+    @Mock
+    private ProductRepository delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MeteredProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new MeteredProductRepository(delegate, meterRegistry);
+    }
+
+    @Test
+    void timesCallsPerEndpointAndOutcome() {
+        ProductDetail product2 = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2", "3"));
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.found(product2));
+        when(delegate.getProductDetail("3")).thenReturn(ProductLookup.notFound());
+
+        repository.getSimilarProductIds("1");
+        repository.getProductDetail("2");
+        repository.getProductDetail("3");
+
+        assertEquals(1, timerCount("similarids", "success"));
+        assertEquals(1, timerCount("detail", "success"));
+        assertEquals(1, timerCount("detail", "not_found"));
+    }
+
+    @Test
+    void tagsTimeoutsSeparatelyFromOtherErrors() {
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.timeout("timed out"));
+        when(delegate.getProductDetail("3")).thenReturn(ProductLookup.upstreamError("upstream error", true));
+        when(delegate.getSimilarProductIds("1")).thenThrow(new UpstreamTimeoutException("timed out", null));
+        when(delegate.getSimilarProductIds("4")).thenThrow(new ExternalServiceException("upstream error"));
+
+        repository.getProductDetail("2");
+        repository.getProductDetail("3");
+        assertThrows(UpstreamTimeoutException.class, () -> repository.getSimilarProductIds("1"));
+        assertThrows(ExternalServiceException.class, () -> repository.getSimilarProductIds("4"));
+
+        assertEquals(1, timerCount("detail", "timeout"));
+        assertEquals(1, timerCount("detail", "error"));
+        assertEquals(1, timerCount("similarids", "timeout"));
+        assertEquals(1, timerCount("similarids", "error"));
+    }
+
+    @Test
+    void registersEveryEndpointAndOutcomeUpFront() {
+        for (String endpoint : List.of("similarids", "detail")) {
+            for (String outcome : List.of("success", "not_found", "timeout", "error")) {
+                assertEquals(0, timerCount(endpoint, outcome));
+            }
+        }
+    }
+
+    private long timerCount(String endpoint, String outcome) {
+        return meterRegistry.get("upstream.requests")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
@@ -0,0 +1,80 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(3).toNanos();
+
+    @Test
+    void rejectsCallersAboveTheLimitAfterQueueTimeout() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, Duration.ofSeconds(1));
+
+        assertTrue(limiter.tryAcquire(Duration.ZERO));
+        assertTrue(limiter.tryAcquire(Duration.ZERO));
+        assertFalse(limiter.tryAcquire(Duration.ofMillis(20)));
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void queuedCallerProceedsWhenAPermitIsReleased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0.5, Duration.ofSeconds(1));
+        assertTrue(limiter.tryAcquire(Duration.ZERO));
+
+        Thread releaser = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            limiter.release(FAST, false);
+        });
+
+        assertTrue(limiter.tryAcquire(Duration.ofSeconds(2)));
+        releaser.join();
+    }
+
+    @Test
+    void decreasesLimitMultiplicativelyOnDropsAndSlowCalls() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, 0.5, Duration.ofSeconds(1));
+
+        limiter.tryAcquire(Duration.ZERO);
+        limiter.release(FAST, true);
+        assertEquals(10, limiter.getLimit());
+
+        limiter.tryAcquire(Duration.ZERO);
+        limiter.release(SLOW, false);
+        assertEquals(5, limiter.getLimit());
+
+        limiter.tryAcquire(Duration.ZERO);
+        limiter.release(SLOW, false);
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void increasesLimitAdditivelyOnlyWhileUtilized() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, Duration.ofSeconds(1));
+
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire(Duration.ZERO);
+            limiter.tryAcquire(Duration.ZERO);
+            limiter.release(FAST, false);
+            limiter.release(FAST, false);
+        }
+        assertTrue(limiter.getLimit() > 2);
+
+        AdaptiveConcurrencyLimiter idle = new AdaptiveConcurrencyLimiter(10, 1, 20, 0.5, Duration.ofSeconds(1));
+        for (int i = 0; i < 50; i++) {
+            idle.tryAcquire(Duration.ZERO);
+            idle.release(FAST, false);
+        }
+        assertEquals(10, idle.getLimit());
+    }
+}
@@ -0,0 +1,208 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamCallRejectedException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.CircuitBreakerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakingProductRepositoryTest {
+
+    private static final CircuitBreakerProperties PROPERTIES = new CircuitBreakerProperties(
+            true, 4, 4, 50, 100, Duration.ofSeconds(2), Duration.ofMillis(100), 1);
+
+    @Mock
+    private ProductRepository delegate;
+
+    private final TestClock clock = new TestClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    private CircuitBreakingProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CircuitBreakingProductRepository(delegate, PROPERTIES, clock, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void failsFastWithoutCallingUpstreamOnceDetailCircuitIsOpen() {
+        ProductLookup failure = ProductLookup.upstreamError("upstream error", true);
+        when(delegate.getProductDetail("2")).thenReturn(failure);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(failure, repository.getProductDetail("2"));
+        }
+        ProductLookup.Rejected open = assertInstanceOf(ProductLookup.Rejected.class,
+                repository.getProductDetail("2"));
+
+        assertTrue(open.message().contains("Circuit detail is open"));
+        verify(delegate, times(4)).getProductDetail("2");
+    }
+
+    @Test
+    void countsTimeoutLookupsAsFailures() {
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.timeout("timed out"));
+
+        for (int i = 0; i < 5; i++) {
+            repository.getProductDetail("2");
+        }
+
+        verify(delegate, times(4)).getProductDetail("2");
+    }
+
+    @Test
+    void throwsOnceSimilarIdsCircuitIsOpen() {
+        when(delegate.getSimilarProductIds("1")).thenThrow(new ExternalServiceException("upstream error"));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ExternalServiceException.class, () -> repository.getSimilarProductIds("1"));
+        }
+        UpstreamCallRejectedException ex = assertThrows(UpstreamCallRejectedException.class,
+                () -> repository.getSimilarProductIds("1"));
+
+        assertTrue(ex.getMessage().contains("Circuit similarids is open"));
+        verify(delegate, times(4)).getSimilarProductIds("1");
+    }
+
+    @Test
+    void keepsEndpointsIsolated() {
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.upstreamError("upstream error", true));
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2"));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(repository.getProductDetail("2").isFailure());
+        }
+
+        assertEquals(List.of("2"), repository.getSimilarProductIds("1"));
+    }
+
+    @Test
+    void doesNotCountNotFoundAsFailure() {
+        when(delegate.getSimilarProductIds("404")).thenThrow(new ProductNotFoundException("404"));
+
+        for (int i = 0; i < 6; i++) {
+            assertThrows(ProductNotFoundException.class, () -> repository.getSimilarProductIds("404"));
+        }
+
+        verify(delegate, times(6)).getSimilarProductIds("404");
+    }
+
+    @Test
+    void doesNotCountLocalRejectionsAsUpstreamFailures() {
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.rejected("Concurrency limit reached"));
+        when(delegate.getSimilarProductIds("1")).thenThrow(new UpstreamCallRejectedException("Concurrency limit"));
+
+        for (int i = 0; i < 6; i++) {
+            assertInstanceOf(ProductLookup.Rejected.class, repository.getProductDetail("2"));
+            assertThrows(UpstreamCallRejectedException.class, () -> repository.getSimilarProductIds("1"));
+        }
+
+        verify(delegate, times(6)).getProductDetail("2");
+        verify(delegate, times(6)).getSimilarProductIds("1");
+    }
+
+    @Test
+    void countsCallsCancelledPastTheSlowCallThresholdAsSlow() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties(
+                true, 4, 4, 50, 100, Duration.ofMillis(20), Duration.ofSeconds(5), 1);
+        repository = new CircuitBreakingProductRepository(delegate, properties, clock, new SimpleMeterRegistry());
+        when(delegate.getProductDetail("2")).thenAnswer(invocation -> {
+            Thread.sleep(30);
+            // cancelled by the request deadline, like the HTTP clients keep the interrupt status
+            Thread.currentThread().interrupt();
+            return ProductLookup.timeout("cancelled");
+        });
+
+        for (int i = 0; i < 5; i++) {
+            repository.getProductDetail("2");
+            Thread.interrupted();
+        }
+
+        verify(delegate, times(4)).getProductDetail("2");
+    }
+
+    @Test
+    void ignoresCallsCancelledBeforeTheSlowCallThreshold() {
+        when(delegate.getProductDetail("2")).thenAnswer(invocation -> {
+            Thread.currentThread().interrupt();
+            return ProductLookup.timeout("cancelled");
+        });
+
+        for (int i = 0; i < 6; i++) {
+            repository.getProductDetail("2");
+            Thread.interrupted();
+        }
+
+        verify(delegate, times(6)).getProductDetail("2");
+    }
+
+    @Test
+    void closesAgainAfterSuccessfulHalfOpenProbe() {
+        ProductDetail product = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        ProductLookup failure = ProductLookup.upstreamError("upstream error", true);
+        when(delegate.getProductDetail("2"))
+                .thenReturn(failure, failure, failure, failure)
+                .thenReturn(ProductLookup.found(product));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(repository.getProductDetail("2").isFailure());
+        }
+        clock.advance(Duration.ofMillis(150));
+
+        assertEquals(ProductLookup.found(product), repository.getProductDetail("2"));
+        assertEquals(ProductLookup.found(product), repository.getProductDetail("2"));
+        verify(delegate, times(6)).getProductDetail("2");
+    }
+
+    private static final class TestClock extends Clock {
+
+        private Instant now;
+
+        private TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
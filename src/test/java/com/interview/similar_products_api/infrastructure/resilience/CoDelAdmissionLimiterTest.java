@@ -0,0 +1,82 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoDelAdmissionLimiterTest {
+
+    @Test
+    void admitsUpToTheLimitWithoutQueueing() {
+        CoDelAdmissionLimiter limiter = new CoDelAdmissionLimiter(2, Duration.ofMillis(5), Duration.ofMillis(50));
+
+        assertTrue(limiter.tryAcquire() >= 0);
+        assertTrue(limiter.tryAcquire() >= 0);
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void shedsCallersThatWaitLongerThanTheInterval() {
+        CoDelAdmissionLimiter limiter = new CoDelAdmissionLimiter(1, Duration.ofMillis(5), Duration.ofMillis(50));
+        limiter.tryAcquire();
+
+        long start = System.nanoTime();
+        assertEquals(-1, limiter.tryAcquire());
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void queuedCallerProceedsWhenAPermitIsReleased() throws Exception {
+        CoDelAdmissionLimiter limiter = new CoDelAdmissionLimiter(1, Duration.ofMillis(5), Duration.ofSeconds(2));
+        limiter.tryAcquire();
+
+        Thread releaser = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            limiter.release();
+        });
+
+        assertTrue(limiter.tryAcquire() >= Duration.ofMillis(40).toNanos());
+        releaser.join();
+    }
+
+    @Test
+    void shortensTheQueueTimeoutToTheTargetWhileOverloaded() {
+        CoDelAdmissionLimiter limiter = new CoDelAdmissionLimiter(1, Duration.ofMillis(5), Duration.ofMillis(50));
+        limiter.tryAcquire();
+
+        // a whole interval where nobody got through within the target
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        assertTrue(limiter.isOverloaded());
+
+        long start = System.nanoTime();
+        assertEquals(-1, limiter.tryAcquire());
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(40).toNanos());
+    }
+
+    @Test
+    void recoversOnceAnIntervalSeesAnEmptyQueue() throws Exception {
+        CoDelAdmissionLimiter limiter = new CoDelAdmissionLimiter(1, Duration.ofMillis(5), Duration.ofMillis(50));
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        assertTrue(limiter.isOverloaded());
+
+        limiter.release();
+        assertTrue(limiter.tryAcquire() >= 0);
+        limiter.release();
+        Thread.sleep(60);
+        assertTrue(limiter.tryAcquire() >= 0);
+
+        assertFalse(limiter.isOverloaded());
+    }
+}
@@ -0,0 +1,113 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.UpstreamCallRejectedException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitedProductRepositoryTest {
+
+    private static final ConcurrencyLimitProperties PROPERTIES = new ConcurrencyLimitProperties(true,
+            new ConcurrencyLimitProperties.SimilarIdsPool(1, 1, 1, 0.5, Duration.ofSeconds(2), Duration.ofMillis(20)),
+            new ConcurrencyLimitProperties.DetailPool(8, 1, 8, 0.5, Duration.ofSeconds(2), Duration.ofMillis(20)));
+
+    @Mock
+    private ProductRepository delegate;
+
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConcurrencyLimitedProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ConcurrencyLimitedProductRepository(delegate, PROPERTIES, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void passesCallsWithinTheLimitThrough() {
+        ProductDetail product = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        when(delegate.getSimilarProductIds("1")).thenReturn(List.of("2"));
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.found(product));
+
+        assertEquals(List.of("2"), repository.getSimilarProductIds("1"));
+        assertEquals(ProductLookup.found(product), repository.getProductDetail("2"));
+        assertEquals(0.0, rejected("similarids"));
+    }
+
+    @Test
+    void rejectsAndCountsACallThatCannotGetAPermitInTime() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getSimilarProductIds("1")).thenAnswer(invocation -> {
+            inFlight.countDown();
+            release.await();
+            return List.of("2");
+        });
+        Future<List<String>> holder = executorService.submit(() -> repository.getSimilarProductIds("1"));
+        assertTrue(inFlight.await(1, TimeUnit.SECONDS));
+
+        UpstreamCallRejectedException ex = assertThrows(UpstreamCallRejectedException.class,
+                () -> repository.getSimilarProductIds("1"));
+
+        assertTrue(ex.getMessage().contains("Concurrency limit"));
+        assertEquals(1.0, rejected("similarids"));
+        release.countDown();
+        assertEquals(List.of("2"), holder.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void countsAFailedLookupAsADrop() {
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.upstreamError("503", true));
+
+        assertInstanceOf(ProductLookup.UpstreamError.class, repository.getProductDetail("2"));
+
+        assertEquals(4.0, limit("detail"));
+    }
+
+    @Test
+    void countsAThrownUpstreamFailureAsADrop() {
+        when(delegate.getProductDetail("2")).thenThrow(new ExternalServiceException("broken"));
+
+        assertThrows(ExternalServiceException.class, () -> repository.getProductDetail("2"));
+
+        assertEquals(4.0, limit("detail"));
+    }
+
+    private double rejected(String endpoint) {
+        return meterRegistry.counter("upstream.concurrency.rejected", "endpoint", endpoint).count();
+    }
+
+    private double limit(String endpoint) {
+        return meterRegistry.get("upstream.concurrency.limit").tag("endpoint", endpoint).gauge().value();
+    }
+}
@@ -0,0 +1,145 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.HedgingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HedgingProductRepositoryTest {
+
+    private static final HedgingProperties PROPERTIES = new HedgingProperties(
+            true, 95, 200, Duration.ofSeconds(1), Duration.ofMillis(50), Duration.ofMillis(10), 10);
+
+    @Mock
+    private ProductRepository delegate;
+
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private HedgingProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new HedgingProductRepository(delegate, PROPERTIES, executorService, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void doesNotHedgeFastCalls() {
+        ProductDetail product = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.found(product));
+
+        assertEquals(ProductLookup.found(product), repository.getProductDetail("2"));
+
+        verify(delegate, times(1)).getProductDetail("2");
+        assertEquals(0.0, meterRegistry.counter("upstream.hedge.requests", "outcome", "sent").count());
+    }
+
+    @Test
+    void returnsHedgedResponseWhenOriginalIsSlow() {
+        ProductDetail slow = new ProductDetail("2", "Slow", BigDecimal.TEN, true);
+        ProductDetail fast = new ProductDetail("2", "Fast", BigDecimal.TEN, true);
+        when(delegate.getProductDetail("2"))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(2_000);
+                    return ProductLookup.found(slow);
+                })
+                .thenReturn(ProductLookup.found(fast));
+
+        assertEquals(ProductLookup.found(fast), repository.getProductDetail("2"));
+
+        assertEquals(1.0, meterRegistry.counter("upstream.hedge.requests", "outcome", "sent").count());
+        assertEquals(1.0, meterRegistry.counter("upstream.hedge.wins").count());
+    }
+
+    @Test
+    void waitsForTheOtherCallWhenTheFirstToAnswerFailed() {
+        ProductDetail slow = new ProductDetail("2", "Slow", BigDecimal.TEN, true);
+        when(delegate.getProductDetail("2"))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(200);
+                    return ProductLookup.found(slow);
+                })
+                .thenReturn(ProductLookup.upstreamError("503", true));
+
+        assertEquals(ProductLookup.found(slow), repository.getProductDetail("2"));
+
+        assertEquals(0.0, meterRegistry.counter("upstream.hedge.wins").count());
+    }
+
+    @Test
+    void interruptsTheLosingCall() throws InterruptedException {
+        ProductDetail fast = new ProductDetail("2", "Fast", BigDecimal.TEN, true);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(delegate.getProductDetail("2"))
+                .thenAnswer(invocation -> {
+                    try {
+                        Thread.sleep(5_000);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        interrupted.countDown();
+                    }
+                    return ProductLookup.timeout("cancelled");
+                })
+                .thenReturn(ProductLookup.found(fast));
+
+        assertEquals(ProductLookup.found(fast), repository.getProductDetail("2"));
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void recordsTheLatencyOfTheWinnerButNotOfTheCancelledLoser() throws InterruptedException {
+        LatencyTracker latencyTracker = spy(new LatencyTracker(95, 200, Duration.ofSeconds(1), Duration.ofMillis(50)));
+        repository = new HedgingProductRepository(delegate, PROPERTIES, executorService, latencyTracker,
+                meterRegistry);
+        ProductDetail fast = new ProductDetail("2", "Fast", BigDecimal.TEN, true);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(delegate.getProductDetail("2"))
+                .thenAnswer(invocation -> {
+                    try {
+                        Thread.sleep(5_000);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        interrupted.countDown();
+                    }
+                    return ProductLookup.timeout("cancelled");
+                })
+                .thenReturn(ProductLookup.found(fast));
+
+        assertEquals(ProductLookup.found(fast), repository.getProductDetail("2"));
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        verify(latencyTracker, after(200).times(1)).record(anyLong());
+    }
+}
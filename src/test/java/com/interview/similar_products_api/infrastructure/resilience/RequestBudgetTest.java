@@ -0,0 +1,37 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestBudgetTest {
+
+    @Test
+    void capsExtraCallsAtTheConfiguredRatio() {
+        RequestBudget budget = new RequestBudget(0.5, 1);
+
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+
+        budget.onRequest();
+        assertFalse(budget.tryAcquire());
+        budget.onRequest();
+        assertTrue(budget.tryAcquire());
+    }
+
+    @Test
+    void neverHoldsMoreThanMaxTokens() {
+        RequestBudget budget = new RequestBudget(1, 2);
+
+        for (int i = 0; i < 10; i++) {
+            budget.onRequest();
+        }
+
+        assertEquals(2.0, budget.availableTokens());
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+}
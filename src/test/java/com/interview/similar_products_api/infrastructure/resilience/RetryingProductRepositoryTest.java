@@ -0,0 +1,194 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import com.interview.similar_products_api.application.service.RequestDeadline;
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamCallRejectedException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import com.interview.similar_products_api.domain.port.out.ProductRepository;
+import com.interview.similar_products_api.infrastructure.config.RetryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RetryingProductRepositoryTest {
+
+    private static final ProductDetail PRODUCT_2 = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+
+    private static final ProductLookup UNAVAILABLE = ProductLookup.upstreamError("503", true);
+
+    private static final RetryProperties PROPERTIES = new RetryProperties(
+            true, 3, Duration.ofMillis(1), Duration.ofMillis(5), 10, Duration.ofMillis(100));
+
+    @Mock
+    private ProductRepository delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RetryingProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new RetryingProductRepository(delegate, PROPERTIES, meterRegistry);
+    }
+
+    @Test
+    void retriesTransientFailuresUntilOneSucceeds() {
+        when(delegate.getProductDetail("2"))
+                .thenReturn(ProductLookup.timeout("timed out"), UNAVAILABLE, ProductLookup.found(PRODUCT_2));
+
+        assertEquals(ProductLookup.found(PRODUCT_2), repository.getProductDetail("2"));
+
+        assertEquals(2.0, retries("detail", "retried"));
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        when(delegate.getSimilarProductIds("1")).thenThrow(new ExternalServiceException("503"));
+
+        assertThrows(ExternalServiceException.class, () -> repository.getSimilarProductIds("1"));
+
+        verify(delegate, times(3)).getSimilarProductIds("1");
+    }
+
+    @Test
+    void returnsTheLastFailedLookupAfterMaxAttempts() {
+        when(delegate.getProductDetail("2")).thenReturn(UNAVAILABLE);
+
+        assertEquals(UNAVAILABLE, repository.getProductDetail("2"));
+
+        verify(delegate, times(3)).getProductDetail("2");
+    }
+
+    @Test
+    void doesNotRetryClientErrorsOrNotFound() {
+        ProductLookup badRequest = ProductLookup.upstreamError("400", false);
+        when(delegate.getProductDetail("2")).thenReturn(badRequest);
+        when(delegate.getProductDetail("3")).thenReturn(ProductLookup.notFound());
+        when(delegate.getSimilarProductIds("1")).thenThrow(new ProductNotFoundException("1"));
+        when(delegate.getSimilarProductIds("4")).thenThrow(new ExternalServiceException("bad request",
+                HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null)));
+
+        assertEquals(badRequest, repository.getProductDetail("2"));
+        assertEquals(ProductLookup.notFound(), repository.getProductDetail("3"));
+        assertThrows(ProductNotFoundException.class, () -> repository.getSimilarProductIds("1"));
+        assertThrows(ExternalServiceException.class, () -> repository.getSimilarProductIds("4"));
+
+        verify(delegate, times(1)).getProductDetail("2");
+        verify(delegate, times(1)).getProductDetail("3");
+        verify(delegate, times(1)).getSimilarProductIds("1");
+        verify(delegate, times(1)).getSimilarProductIds("4");
+    }
+
+    @Test
+    void doesNotRetryWhenTheBackoffWouldOutliveTheRequestDeadline() {
+        when(delegate.getProductDetail("2")).thenReturn(UNAVAILABLE);
+
+        assertEquals(UNAVAILABLE, RequestDeadline.supplyWithin(
+                System.nanoTime() + Duration.ofNanos(500).toNanos(), () -> repository.getProductDetail("2")));
+
+        verify(delegate, times(1)).getProductDetail("2");
+        assertEquals(1.0, retries("detail", "deadline_exceeded"));
+    }
+
+    @Test
+    void doesNotRetryWhenAnotherAttemptCouldNotFinishBeforeTheRequestDeadline() {
+        when(delegate.getProductDetail("2")).thenReturn(UNAVAILABLE);
+
+        // enough for any backoff, not for the backoff plus min-attempt-time
+        assertEquals(UNAVAILABLE, RequestDeadline.supplyWithin(
+                System.nanoTime() + Duration.ofMillis(80).toNanos(), () -> repository.getProductDetail("2")));
+
+        verify(delegate, times(1)).getProductDetail("2");
+        assertEquals(1.0, retries("detail", "deadline_exceeded"));
+    }
+
+    @Test
+    void retriesWhenAnotherAttemptFitsBeforeTheRequestDeadline() {
+        when(delegate.getProductDetail("2")).thenReturn(UNAVAILABLE, ProductLookup.found(PRODUCT_2));
+
+        assertEquals(ProductLookup.found(PRODUCT_2), RequestDeadline.supplyWithin(
+                System.nanoTime() + Duration.ofSeconds(5).toNanos(), () -> repository.getProductDetail("2")));
+
+        assertEquals(1.0, retries("detail", "retried"));
+    }
+
+    @Test
+    void doesNotRetryWhenTheDeadlineLeavesLessThanTheFailedAttemptTook() {
+        when(delegate.getProductDetail("2")).thenAnswer(invocation -> {
+            Thread.sleep(150);
+            return ProductLookup.timeout("timed out");
+        });
+
+        assertEquals(ProductLookup.timeout("timed out"), RequestDeadline.supplyWithin(
+                System.nanoTime() + Duration.ofMillis(280).toNanos(), () -> repository.getProductDetail("2")));
+
+        verify(delegate, times(1)).getProductDetail("2");
+        assertEquals(1.0, retries("detail", "deadline_exceeded"));
+    }
+
+    @Test
+    void retriesAFastFailureWithinTheDefaultRequestDeadlineUsingTheDefaultProperties() {
+        RetryProperties defaults = new Binder(new MapConfigurationPropertySource())
+                .bindOrCreate("external-api.retry", RetryProperties.class);
+        repository = new RetryingProductRepository(delegate, defaults, meterRegistry);
+        when(delegate.getProductDetail("2")).thenReturn(UNAVAILABLE, ProductLookup.found(PRODUCT_2));
+
+        assertEquals(ProductLookup.found(PRODUCT_2), RequestDeadline.supplyWithin(
+                System.nanoTime() + Duration.ofSeconds(2).toNanos(), () -> repository.getProductDetail("2")));
+
+        assertEquals(1.0, retries("detail", "retried"));
+    }
+
+    @Test
+    void doesNotRetryLocalRejections() {
+        when(delegate.getProductDetail("2")).thenReturn(ProductLookup.rejected("Circuit breaker is open"));
+        when(delegate.getSimilarProductIds("1")).thenThrow(new UpstreamCallRejectedException("Concurrency limit"));
+
+        assertEquals(ProductLookup.rejected("Circuit breaker is open"), repository.getProductDetail("2"));
+        assertThrows(UpstreamCallRejectedException.class, () -> repository.getSimilarProductIds("1"));
+
+        verify(delegate, times(1)).getProductDetail("2");
+        verify(delegate, times(1)).getSimilarProductIds("1");
+        assertEquals(0.0, retries("detail", "retried"));
+        assertEquals(0.0, retries("similarids", "retried"));
+    }
+
+    @Test
+    void stopsRetryingOnceTheBudgetIsSpent() {
+        when(delegate.getProductDetail("2")).thenReturn(UNAVAILABLE);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(repository.getProductDetail("2").isFailure());
+        }
+
+        // the 10 token burst, then one more once ten primary calls have deposited 0.1 each
+        assertEquals(11.0, retries("detail", "retried"));
+        assertEquals(15.0, retries("detail", "budget_exhausted"));
+        verify(delegate, times(31)).getProductDetail("2");
+    }
+
+    private double retries(String endpoint, String outcome) {
+        return meterRegistry.counter("upstream.retries", "endpoint", endpoint, "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,160 @@
+package com.interview.similar_products_api.infrastructure.resilience;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.UpstreamCallRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicInteger coalesced = new AtomicInteger();
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>(coalesced::incrementAndGet);
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersForSameKeyShareOneCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        Future<String> leader = executorService.submit(() -> singleFlight.execute("1", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return "value";
+        }));
+        waitUntilInFlight();
+
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            followers.add(executorService.submit(() -> singleFlight.execute("1", () -> {
+                calls.incrementAndGet();
+                return "other";
+            })));
+        }
+        waitUntil(() -> coalesced.get() == 10);
+        release.countDown();
+
+        assertEquals("value", leader.get(1, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("value", follower.get(1, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void followersReceiveTheLeaderFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executorService.submit(() -> singleFlight.execute("1", () -> {
+            await(release);
+            throw new ExternalServiceException("upstream error");
+        }));
+        waitUntilInFlight();
+        Future<String> follower = executorService.submit(() -> singleFlight.execute("1", () -> "other"));
+        waitUntil(() -> coalesced.get() == 1);
+        release.countDown();
+
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(1, TimeUnit.SECONDS));
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(ExternalServiceException.class, leaderFailure.getCause());
+        assertInstanceOf(ExternalServiceException.class, followerFailure.getCause());
+    }
+
+    @Test
+    void anInterruptedFollowerStopsWaitingAtOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        executorService.submit(() -> singleFlight.execute("1", () -> {
+            await(release);
+            return "value";
+        }));
+        waitUntilInFlight();
+        CountDownLatch rejected = new CountDownLatch(1);
+        Thread follower = Thread.ofVirtual().start(() -> {
+            try {
+                singleFlight.execute("1", () -> "other");
+            } catch (UpstreamCallRejectedException ex) {
+                if (Thread.currentThread().isInterrupted()) {
+                    rejected.countDown();
+                }
+            }
+        });
+        waitUntil(() -> coalesced.get() == 1);
+
+        follower.interrupt();
+
+        assertTrue(rejected.await(1, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    void aFollowerRunsTheCallAgainWhenTheLeaderIsCancelled() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> leader = executorService.submit(() -> singleFlight.execute("1", () -> {
+            started.countDown();
+            await(new CountDownLatch(1));
+            return "cancelled";
+        }));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        Future<String> follower = executorService.submit(() -> singleFlight.execute("1", () -> "value"));
+        waitUntil(() -> coalesced.get() == 1);
+
+        leader.cancel(true);
+
+        assertEquals("value", follower.get(1, TimeUnit.SECONDS));
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void sequentialCallsAreNotCoalesced() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute("1", () -> "a" + calls.incrementAndGet());
+        String second = singleFlight.execute("1", () -> "a" + calls.incrementAndGet());
+
+        assertEquals("a2", second);
+        assertEquals(0, coalesced.get());
+    }
+
+    private void waitUntilInFlight() throws InterruptedException {
+        waitUntil(() -> singleFlight.inFlightCount() == 1);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.interview.similar_products_api.infrastructure.rest;
+
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductJsonCodecTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ProductJsonCodec codec = new ProductJsonCodec(64);
+
+    @Test
+    void readsDetailsLikeJackson() throws IOException {
+        for (String json : List.of(
+                "{\"id\":\"2\",\"name\":\"Dress \\\"Ñandú\\\" €\",\"price\":19.990,\"availability\":true}",
+                "{\"availability\":false,\"price\":10,\"name\":\"Shirt\",\"id\":\"3\"}",
+                "{\"id\":\"4\",\"name\":null,\"price\":null,\"availability\":null}",
+                "{\"id\":\"5\",\"price\":\"39.99\",\"tags\":[\"new\",{\"a\":1}],\"stock\":{\"s\":2}}",
+                "{\"id\":6,\"name\":\"Boots\",\"price\":1.5E+2,\"availability\":\"true\"}")) {
+            assertEquals(objectMapper.readValue(json, ProductDetail.class), codec.readDetail(body(json)), json);
+        }
+    }
+
+    @Test
+    void readsSimilarIds() throws IOException {
+        assertEquals(List.of("2", "3", "100"), codec.readSimilarIds(body("[\"2\",\"3\",100]")));
+        assertEquals(List.of(), codec.readSimilarIds(body("[]")));
+        assertEquals(List.of("2"), codec.readSimilarIds(body("[null,\"2\"]")));
+    }
+
+    @Test
+    void returnsNullForEmptyAndNullBodies() throws IOException {
+        assertNull(codec.readDetail(body("")));
+        assertNull(codec.readDetail(body("null")));
+        assertNull(codec.readSimilarIds(body("")));
+        assertNull(codec.readSimilarIds(body(" null ")));
+    }
+
+    @Test
+    void internsRepeatedIds() throws IOException {
+        List<String> first = codec.readSimilarIds(body("[\"2\",\"3\"]"));
+        List<String> second = codec.readSimilarIds(body("[\"3\",\"2\"]"));
+        ProductDetail detail = codec.readDetail(body("{\"id\":\"2\",\"name\":\"Dress\"}"));
+
+        assertSame(first.get(0), second.get(1));
+        assertSame(first.get(1), second.get(0));
+        assertSame(first.get(0), detail.id());
+    }
+
+    @Test
+    void doesNotInternOverlongIds() throws IOException {
+        String longId = "x".repeat(100);
+
+        List<String> first = codec.readSimilarIds(body("[\"" + longId + "\"]"));
+        List<String> second = codec.readSimilarIds(body("[\"" + longId + "\"]"));
+
+        assertEquals(first, second);
+        assertNotSame(first.get(0), second.get(0));
+    }
+
+    @Test
+    void rejectsMalformedBodies() {
+        assertThrows(StreamReadException.class, () -> codec.readDetail(body("[\"2\"]")));
+        assertThrows(StreamReadException.class, () -> codec.readDetail(body("{\"id\":\"2\"")));
+        assertThrows(StreamReadException.class, () -> codec.readDetail(body("{\"id\":{}}")));
+        assertThrows(StreamReadException.class, () -> codec.readDetail(body("{\"price\":\"cheap\"}")));
+        assertThrows(StreamReadException.class, () -> codec.readSimilarIds(body("{\"id\":\"2\"}")));
+        assertThrows(StreamReadException.class, () -> codec.readSimilarIds(body("[[\"2\"]]")));
+    }
+
+    @Test
+    void leavesTheStreamOpenForTheHttpClient() throws IOException {
+        ClosingTrackingInputStream stream = new ClosingTrackingInputStream("[\"2\"]");
+
+        codec.readSimilarIds(stream);
+
+        assertFalse(stream.closed);
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class ClosingTrackingInputStream extends ByteArrayInputStream {
+
+        private boolean closed;
+
+        ClosingTrackingInputStream(String json) {
+            super(json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
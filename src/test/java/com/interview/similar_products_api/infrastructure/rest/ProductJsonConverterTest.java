@@ -0,0 +1,64 @@
+package com.interview.similar_products_api.infrastructure.rest;
+
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductJsonConverterTest {
+
+    private static final Type ID_LIST = new ParameterizedTypeReference<List<String>>() {
+    }.getType();
+
+    private final ProductJsonConverter converter = new ProductJsonConverter(new ProductJsonCodec(16));
+
+    @Test
+    void readsProductDetailsAndIdListsAsJson() throws IOException {
+        assertEquals(new ProductDetail("2", "Dress", new BigDecimal("19.99"), true),
+                converter.read(ProductDetail.class, null,
+                        json("{\"id\":\"2\",\"name\":\"Dress\",\"price\":19.99,\"availability\":true}")));
+        assertEquals(List.of("2", "3"), converter.read(ID_LIST, null, json("[\"2\",\"3\"]")));
+    }
+
+    @Test
+    void onlyHandlesProductDetailsAndIdListsAsJson() {
+        Type detailList = new ParameterizedTypeReference<List<ProductDetail>>() {
+        }.getType();
+        Type idMap = new ParameterizedTypeReference<Map<String, String>>() {
+        }.getType();
+
+        assertTrue(converter.canRead(ProductDetail.class, null, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canRead(ID_LIST, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(ProductDetail.class, null, MediaType.TEXT_PLAIN));
+        assertFalse(converter.canRead(detailList, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(idMap, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(String.class, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(ProductDetail.class, ProductDetail.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void reportsMalformedJsonAsNotReadable() {
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(ProductDetail.class, null, json("{\"id\":")));
+    }
+
+    private static MockHttpInputMessage json(String body) {
+        MockHttpInputMessage inputMessage = new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8));
+        inputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return inputMessage;
+    }
+}
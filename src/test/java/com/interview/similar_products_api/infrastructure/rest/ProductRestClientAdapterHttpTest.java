@@ -0,0 +1,152 @@
+package com.interview.similar_products_api.infrastructure.rest;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamTimeoutException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductRestClientAdapterHttpTest {
+
+    private MockWebServer mockWebServer;
+
+    private ProductRestClientAdapter adapter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build());
+        requestFactory.setReadTimeout(Duration.ofSeconds(1));
+        RestClient restClient = RestClient.builder()
+                .baseUrl(mockWebServer.url("/").toString())
+                .requestFactory(requestFactory)
+                .messageConverters(converters -> converters.addFirst(
+                        new ProductJsonConverter(new ProductJsonCodec(16))))
+                .build();
+        adapter = new ProductRestClientAdapter(restClient);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void getSimilarProductIdsReturnsListOfIdsOnSuccess() throws InterruptedException {
+        mockWebServer.enqueue(json("[\"2\",\"3\",\"4\"]"));
+
+        assertEquals(List.of("2", "3", "4"), adapter.getSimilarProductIds("1"));
+        assertEquals("/product/1/similarids", mockWebServer.takeRequest().getPath());
+    }
+
+    @Test
+    void getSimilarProductIdsThrowsProductNotFoundOn404() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+        assertThrows(ProductNotFoundException.class, () -> adapter.getSimilarProductIds("unknown"));
+    }
+
+    @Test
+    void getSimilarProductIdsThrowsExternalServiceExceptionOn5xx() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+
+        ExternalServiceException ex = assertThrows(ExternalServiceException.class,
+                () -> adapter.getSimilarProductIds("1"));
+
+        assertTrue(ex.getMessage().contains("similar ids for product 1"));
+    }
+
+    @Test
+    void getProductDetailReturnsFoundOnSuccess() throws InterruptedException {
+        mockWebServer.enqueue(json("{\"id\":\"2\",\"name\":\"Dress\",\"price\":19.99,\"availability\":true}"));
+
+        assertEquals(ProductLookup.found(new ProductDetail("2", "Dress", new BigDecimal("19.99"), true)),
+                adapter.getProductDetail("2"));
+        assertEquals("/product/2", mockWebServer.takeRequest().getPath());
+    }
+
+    @Test
+    void getProductDetailReturnsNotFoundOn404() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404).setBody("Product not found"));
+
+        assertEquals(ProductLookup.notFound(), adapter.getProductDetail("5"));
+    }
+
+    @Test
+    void getProductDetailReturnsRetryableUpstreamErrorOn5xx() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503));
+
+        ProductLookup.UpstreamError error = assertInstanceOf(ProductLookup.UpstreamError.class,
+                adapter.getProductDetail("2"));
+
+        assertTrue(error.retryable());
+        assertTrue(error.message().contains("product detail for 2"));
+    }
+
+    @Test
+    void getProductDetailReturnsNonRetryableUpstreamErrorOnOtherClientErrors() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(400));
+
+        ProductLookup.UpstreamError error = assertInstanceOf(ProductLookup.UpstreamError.class,
+                adapter.getProductDetail("2"));
+
+        assertFalse(error.retryable());
+    }
+
+    @Test
+    void getProductDetailReturnsNonRetryableUpstreamErrorForAnEmptySuccessBody() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setHeader("Content-Type", "application/json"));
+
+        ProductLookup.UpstreamError error = assertInstanceOf(ProductLookup.UpstreamError.class,
+                adapter.getProductDetail("2"));
+
+        assertFalse(error.retryable());
+    }
+
+    @Test
+    void getProductDetailReturnsUpstreamErrorForAnUnreadableBody() {
+        mockWebServer.enqueue(json("{not json"));
+
+        assertInstanceOf(ProductLookup.UpstreamError.class, adapter.getProductDetail("2"));
+    }
+
+    @Test
+    void getProductDetailReturnsTimeoutWhenResponseIsLate() {
+        mockWebServer.enqueue(json("{\"id\":\"2\"}").setHeadersDelay(3, TimeUnit.SECONDS));
+
+        assertInstanceOf(ProductLookup.Timeout.class, adapter.getProductDetail("2"));
+    }
+
+    @Test
+    void getSimilarProductIdsThrowsUpstreamTimeoutWhenResponseIsLate() {
+        mockWebServer.enqueue(json("[]").setHeadersDelay(3, TimeUnit.SECONDS));
+
+        assertThrows(UpstreamTimeoutException.class, () -> adapter.getSimilarProductIds("1"));
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
@@ -2,19 +2,26 @@ package com.interview.similar_products_api.infrastructure.rest;
 
 import com.interview.similar_products_api.domain.exception.ExternalServiceException;
 import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamCallRejectedException;
 import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductLookup;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.http.HttpTimeoutException;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -39,6 +46,12 @@ class ProductRestClientAdapterTest {
     @Mock
     private RestClient.ResponseSpec responseSpec;
 
+    @Mock
+    private HttpRequest request;
+
+    @Mock
+    private RestClient.RequestHeadersSpec.ConvertibleClientHttpResponse response;
+
     private ProductRestClientAdapter adapter;
 
     @BeforeEach
@@ -46,16 +59,31 @@ class ProductRestClientAdapterTest {
         adapter = new ProductRestClientAdapter(restClient);
     }
 
-    @SuppressWarnings("unchecked")
     private void mockGetRequest(String uriTemplate, String productId) {
-        when(restClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(uriTemplate, productId)).thenReturn(requestHeadersSpec);
+        mockGetRequest(uriTemplate, productId, requestHeadersSpec);
         when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
         // onStatus devuelve siempre el mismo responseSpec (lo llamas dos veces en el
         // adapter)
         when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
     }
 
+    @SuppressWarnings("unchecked")
+    private void mockGetRequest(String uriTemplate, String productId, RestClient.RequestHeadersSpec<?> spec) {
+        when(restClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(uriTemplate, productId)).thenReturn(spec);
+    }
+
+    /**
+     * Runs the adapter's exchange function against the mocked response.
+     */
+    @SuppressWarnings("unchecked")
+    private void mockExchange(String uriTemplate, String productId) {
+        mockGetRequest(uriTemplate, productId, requestHeadersSpec);
+        when(requestHeadersSpec.exchange(ArgumentMatchers.<RestClient.RequestHeadersSpec.ExchangeFunction<ProductLookup>>any()))
+                .thenAnswer(invocation -> invocation.<RestClient.RequestHeadersSpec.ExchangeFunction<ProductLookup>>getArgument(0)
+                        .exchange(request, response));
+    }
+
     @Test
     void getSimilarProductIdsReturnsListOfIdsOnSuccess() {
         String productId = "1";
@@ -101,7 +129,7 @@ class ProductRestClientAdapterTest {
     }
 
     @Test
-    void getProductDetailReturnsOptionalWithProductOnSuccess() {
+    void getProductDetailReturnsFoundWithProductOnSuccess() throws IOException {
         String productId = "2";
         ProductDetail detail = new ProductDetail(
                 productId,
@@ -109,43 +137,74 @@ class ProductRestClientAdapterTest {
                 BigDecimal.valueOf(19.99),
                 true);
 
-        mockGetRequest("/product/{productId}", productId);
+        mockExchange("/product/{productId}", productId);
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+        when(response.bodyTo(ProductDetail.class)).thenReturn(detail);
 
-        when(responseSpec.body(ProductDetail.class)).thenReturn(detail);
+        ProductLookup result = adapter.getProductDetail(productId);
 
-        Optional<ProductDetail> result = adapter.getProductDetail(productId);
-
-        assertTrue(result.isPresent());
-        assertEquals(detail, result.get());
+        assertEquals(ProductLookup.found(detail), result);
     }
 
     @Test
-    void getProductDetailReturnsEmptyOptionalWhenProductNotFound() {
+    void getProductDetailReturnsNotFoundWhenProductNotFound() throws IOException {
         String productId = "5";
 
-        mockGetRequest("/product/{productId}", productId);
+        mockExchange("/product/{productId}", productId);
+        when(response.getStatusCode()).thenReturn(HttpStatus.NOT_FOUND);
 
-        when(responseSpec.body(ProductDetail.class))
-                .thenThrow(new ProductNotFoundException(productId));
+        ProductLookup result = adapter.getProductDetail(productId);
+
+        assertEquals(ProductLookup.notFound(), result);
+    }
+
+    @Test
+    void getProductDetailWrapsRestClientExceptionInUpstreamError() {
+        String productId = "2";
+
+        mockGetRequest("/product/{productId}", productId, requestHeadersSpec);
+        when(requestHeadersSpec.exchange(ArgumentMatchers.<RestClient.RequestHeadersSpec.ExchangeFunction<ProductLookup>>any()))
+                .thenThrow(new RestClientException("upstream error"));
 
-        Optional<ProductDetail> result = adapter.getProductDetail(productId);
+        ProductLookup.UpstreamError error = assertInstanceOf(ProductLookup.UpstreamError.class,
+                adapter.getProductDetail(productId));
 
-        assertTrue(result.isEmpty());
+        assertTrue(error.message().contains("product detail for " + productId));
     }
 
     @Test
-    void getProductDetailWrapsRestClientExceptionInExternalServiceException() {
+    void getProductDetailTranslatesTimeoutsIntoTimeout() {
         String productId = "2";
 
-        mockGetRequest("/product/{productId}", productId);
+        mockGetRequest("/product/{productId}", productId, requestHeadersSpec);
+        when(requestHeadersSpec.exchange(ArgumentMatchers.<RestClient.RequestHeadersSpec.ExchangeFunction<ProductLookup>>any()))
+                .thenThrow(new ResourceAccessException("I/O error", new HttpTimeoutException("request timed out")));
 
-        when(responseSpec.body(ProductDetail.class))
-                .thenThrow(new RestClientException("upstream error"));
+        assertInstanceOf(ProductLookup.Timeout.class, adapter.getProductDetail(productId));
+    }
 
-        ExternalServiceException ex = assertThrows(
-                ExternalServiceException.class,
-                () -> adapter.getProductDetail(productId));
+    @Test
+    void getProductDetailReportsAnExhaustedConnectionPoolAsRejected() {
+        String productId = "2";
+
+        mockGetRequest("/product/{productId}", productId, requestHeadersSpec);
+        when(requestHeadersSpec.exchange(ArgumentMatchers.<RestClient.RequestHeadersSpec.ExchangeFunction<ProductLookup>>any()))
+                .thenThrow(new ResourceAccessException("I/O error",
+                        new ConnectionRequestTimeoutException("Timeout deadline: 100 MILLISECONDS")));
+
+        assertInstanceOf(ProductLookup.Rejected.class, adapter.getProductDetail(productId));
+    }
+
+    @Test
+    void getSimilarProductIdsReportsAnExhaustedConnectionPoolAsRejected() {
+        String productId = "1";
+
+        mockGetRequest("/product/{productId}/similarids", productId);
+
+        when(responseSpec.body(ArgumentMatchers.<ParameterizedTypeReference<List<String>>>any()))
+                .thenThrow(new ResourceAccessException("I/O error",
+                        new ConnectionRequestTimeoutException("Timeout deadline: 100 MILLISECONDS")));
 
-        assertTrue(ex.getMessage().contains("product detail for " + productId));
+        assertThrows(UpstreamCallRejectedException.class, () -> adapter.getSimilarProductIds(productId));
     }
 }
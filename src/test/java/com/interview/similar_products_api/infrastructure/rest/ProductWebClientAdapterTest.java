@@ -0,0 +1,102 @@
+package com.interview.similar_products_api.infrastructure.rest;
+
+import com.interview.similar_products_api.domain.exception.ExternalServiceException;
+import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamTimeoutException;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import io.netty.channel.ChannelOption;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class ProductWebClientAdapterTest {
+
+    private MockWebServer mockWebServer;
+
+    private ProductWebClientAdapter adapter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 1000)
+                .responseTimeout(Duration.ofMillis(200));
+        WebClient webClient = WebClient.builder()
+                .baseUrl(mockWebServer.url("/").toString())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        adapter = new ProductWebClientAdapter(webClient);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void getSimilarProductIdsReturnsIds() {
+        mockWebServer.enqueue(json("[\"2\",\"3\"]"));
+
+        StepVerifier.create(adapter.getSimilarProductIds("1"))
+                .expectNext(List.of("2", "3"))
+                .verifyComplete();
+    }
+
+    @Test
+    void getSimilarProductIdsFailsWithProductNotFoundOn404() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+        StepVerifier.create(adapter.getSimilarProductIds("1"))
+                .verifyError(ProductNotFoundException.class);
+    }
+
+    @Test
+    void getSimilarProductIdsFailsWithExternalServiceExceptionOn5xx() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+
+        StepVerifier.create(adapter.getSimilarProductIds("1"))
+                .verifyError(ExternalServiceException.class);
+    }
+
+    @Test
+    void getProductDetailReturnsDetail() {
+        mockWebServer.enqueue(json("{\"id\":\"2\",\"name\":\"Product 2\",\"price\":10.00,\"availability\":true}"));
+
+        StepVerifier.create(adapter.getProductDetail("2"))
+                .expectNext(new ProductDetail("2", "Product 2", new BigDecimal("10.00"), true))
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductDetailCompletesEmptyOn404() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+        StepVerifier.create(adapter.getProductDetail("2"))
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductDetailFailsWithUpstreamTimeoutWhenResponseIsLate() {
+        mockWebServer.enqueue(json("{\"id\":\"2\"}").setHeadersDelay(1, TimeUnit.SECONDS));
+
+        StepVerifier.create(adapter.getProductDetail("2"))
+                .verifyError(UpstreamTimeoutException.class);
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setBody(body).addHeader("Content-Type", "application/json");
+    }
+}
@@ -0,0 +1,105 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.interview.similar_products_api.infrastructure.resilience.CoDelAdmissionLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdmissionControlFilterTest {
+
+    private CoDelAdmissionLimiter limiter;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new CoDelAdmissionLimiter(1, Duration.ofMillis(5), Duration.ofMillis(20));
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AdmissionControlFilter(limiter, Set.of("cached")::contains, Duration.ofSeconds(2),
+                meterRegistry);
+    }
+
+    @Test
+    void admitsAndReleasesThePermitWhenTheRequestCompletes() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(get("/product/1/similar"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1.0, meterRegistry.counter("http.admission.requests", "outcome", "admitted").count());
+    }
+
+    @Test
+    void shedsWith503AndRetryAfterWhenNoPermitFreesUp() throws Exception {
+        limiter.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(get("/product/1/similar"), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.counter("http.admission.requests", "outcome", "shed").count());
+    }
+
+    @Test
+    void servesCachedSimilarProductsWithoutAPermit() throws Exception {
+        limiter.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(get("/product/cached/similar"), response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(1.0, meterRegistry.counter("http.admission.requests", "outcome", "cached").count());
+    }
+
+    @Test
+    void queuesPagedRequestsEvenWhenTheWholeListIsCached() throws Exception {
+        limiter.tryAcquire();
+        MockHttpServletRequest request = get("/product/cached/similar");
+        request.setParameter("offset", "1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(503, response.getStatus());
+        assertEquals(0.0, meterRegistry.counter("http.admission.requests", "outcome", "cached").count());
+    }
+
+    @Test
+    void keepsThePermitUntilAnAsyncResponseCompletes() throws Exception {
+        MockHttpServletRequest request = get("/product/1/similar/stream");
+        request.setAsyncSupported(true);
+        FilterChain chain = (req, res) -> req.startAsync();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertEquals(1, limiter.getInFlight());
+
+        request.getAsyncContext().complete();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
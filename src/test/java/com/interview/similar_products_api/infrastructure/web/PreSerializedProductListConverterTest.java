@@ -0,0 +1,75 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreSerializedProductListConverterTest {
+
+    private static final Type PRODUCT_LIST = new ParameterizedTypeReference<List<ProductDetail>>() {
+    }.getType();
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ProductJsonCache productJsonCache = new ProductJsonCache(objectMapper, new SimpleMeterRegistry());
+    private final PreSerializedProductListConverter converter = new PreSerializedProductListConverter(
+            productJsonCache);
+
+    @Test
+    void writesTheSameBytesAsJackson() throws IOException {
+        List<ProductDetail> products = List.of(
+                new ProductDetail("2", "Dress \"Ñandú\" €", new BigDecimal("19.990"), true),
+                new ProductDetail("3", null, null, false));
+
+        assertArrayEquals(jacksonBytes(products), converterBytes(products));
+        assertArrayEquals(jacksonBytes(List.of()), converterBytes(List.of()));
+    }
+
+    @Test
+    void reusesTheRenderedBytesOfTheSameInstance() throws IOException {
+        ProductDetail product = new ProductDetail("2", "Product 2", BigDecimal.TEN, true);
+
+        assertSame(productJsonCache.bytes(product), productJsonCache.bytes(product));
+    }
+
+    @Test
+    void onlyHandlesProductListsAsJson() {
+        Type similarProductsBatch = new ParameterizedTypeReference<Map<String, List<ProductDetail>>>() {
+        }.getType();
+
+        assertTrue(converter.canWrite(PRODUCT_LIST, List.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(PRODUCT_LIST, List.class, MediaType.APPLICATION_XML));
+        assertFalse(converter.canWrite(similarProductsBatch, Map.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(String.class, String.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(PRODUCT_LIST, null, MediaType.APPLICATION_JSON));
+    }
+
+    private byte[] converterBytes(List<ProductDetail> products) throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(products, PRODUCT_LIST, MediaType.APPLICATION_JSON, outputMessage);
+        return outputMessage.getBodyAsBytes();
+    }
+
+    private byte[] jacksonBytes(List<ProductDetail> products) throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        new MappingJackson2HttpMessageConverter(objectMapper)
+                .write(products, PRODUCT_LIST, MediaType.APPLICATION_JSON, outputMessage);
+        return outputMessage.getBodyAsBytes();
+    }
+}
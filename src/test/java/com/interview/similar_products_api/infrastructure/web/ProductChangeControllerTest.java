@@ -0,0 +1,101 @@
+package com.interview.similar_products_api.infrastructure.web;
+
+import com.interview.similar_products_api.domain.model.ProductChange;
+import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.port.in.ApplyProductChangesCommand;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ProductChangeController.class, properties = {
+        "similar-products.product-changes.enabled=true",
+        "similar-products.product-changes.token=" + ProductChangeControllerTest.TOKEN })
+@Import(SimpleMeterRegistry.class)
+class ProductChangeControllerTest {
+
+    static final String TOKEN = "change-feed-secret";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ApplyProductChangesCommand applyProductChangesCommand;
+
+    @Test
+    void appliesUpsertsAndDeletes() throws Exception {
+        mockMvc.perform(post("/internal/product-changes")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"changes": [
+                                  {"type": "UPSERT", "productId": "2",
+                                   "detail": {"id": "2", "name": "Product 2", "price": 10.00, "availability": true},
+                                   "similarIds": ["3", "4"]},
+                                  {"type": "DELETE", "productId": "5"}
+                                ]}
+                                """))
+                .andExpect(status().isNoContent());
+
+        verify(applyProductChangesCommand).applyChanges(List.of(
+                ProductChange.upsert("2", new ProductDetail("2", "Product 2", new BigDecimal("10.00"), true),
+                        List.of("3", "4")),
+                ProductChange.delete("5")));
+    }
+
+    @Test
+    void rejectsAnUpsertWhoseDetailBelongsToAnotherProduct() throws Exception {
+        mockMvc.perform(post("/internal/product-changes")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"changes": [
+                                  {"type": "UPSERT", "productId": "2",
+                                   "detail": {"id": "3", "name": "Product 3", "price": 1, "availability": true}}
+                                ]}
+                                """))
+                .andExpect(status().isBadRequest());
+
+        verify(applyProductChangesCommand, never()).applyChanges(any());
+    }
+
+    @Test
+    void rejectsAnUpsertWithNothingToApply() throws Exception {
+        mockMvc.perform(post("/internal/product-changes")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"changes\": [{\"type\": \"UPSERT\", \"productId\": \"2\"}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rejectsCallersWithoutTheToken() throws Exception {
+        String body = "{\"changes\": [{\"type\": \"DELETE\", \"productId\": \"5\"}]}";
+
+        mockMvc.perform(post("/internal/product-changes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/internal/product-changes")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer wrong-secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isUnauthorized());
+
+        verify(applyProductChangesCommand, never()).applyChanges(any());
+    }
+}
@@ -2,23 +2,47 @@ package com.interview.similar_products_api.infrastructure.web;
 
 import com.interview.similar_products_api.domain.exception.ExternalServiceException;
 import com.interview.similar_products_api.domain.exception.ProductNotFoundException;
+import com.interview.similar_products_api.domain.exception.UpstreamTimeoutException;
 import com.interview.similar_products_api.domain.model.ProductDetail;
+import com.interview.similar_products_api.domain.model.ProductFilter;
+import com.interview.similar_products_api.domain.model.ResultOrder;
+import com.interview.similar_products_api.domain.model.SimilarProducts;
+import com.interview.similar_products_api.domain.model.SimilarProductsPage;
+import com.interview.similar_products_api.domain.model.SimilarProductsPageRequest;
+import com.interview.similar_products_api.domain.model.SimilarProductsResult;
 import com.interview.similar_products_api.domain.port.in.GetSimilarProductsQuery;
+import com.interview.similar_products_api.infrastructure.config.ProductCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProductController.class)
+@Import(SimpleMeterRegistry.class)
+@EnableConfigurationProperties(ProductCacheProperties.class)
 class ProductControllerTest {
 
     @Autowired
@@ -33,7 +57,7 @@ class ProductControllerTest {
         ProductDetail product = new ProductDetail("2", "Product 2", new BigDecimal("10.00"), true);
         List<ProductDetail> products = List.of(product);
 
-        when(getSimilarProductsQuery.getSimilarProducts(productId)).thenReturn(products);
+        when(getSimilarProductsQuery.getSimilarProducts(productId)).thenReturn(new SimilarProducts(List.of("2"), products, true));
 
         mockMvc.perform(get("/product/{productId}/similar", productId))
                 .andExpect(status().isOk())
@@ -44,10 +68,55 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[0].availability").value(true));
     }
 
+    @Test
+    void shouldReturnETagAndCacheControlDrivenByCacheTtl() throws Exception {
+        ProductDetail product = new ProductDetail("2", "Product 2", new BigDecimal("10.00"), true);
+        when(getSimilarProductsQuery.getSimilarProducts("1"))
+                .thenReturn(new SimilarProducts(List.of("2"), List.of(product), true));
+
+        mockMvc.perform(get("/product/{productId}/similar", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ProductListETag.of(List.of(product))))
+                .andExpect(header().string("Cache-Control", "max-age=30, stale-while-revalidate=270"));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWhenETagMatches() throws Exception {
+        ProductDetail product = new ProductDetail("2", "Product 2", new BigDecimal("10.00"), true);
+        when(getSimilarProductsQuery.getSimilarProducts("1"))
+                .thenReturn(new SimilarProducts(List.of("2"), List.of(product), true));
+
+        mockMvc.perform(get("/product/{productId}/similar", "1")
+                .header("If-None-Match", ProductListETag.of(List.of(product))))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldNeitherStoreNorTagAnIncompleteList() throws Exception {
+        ProductDetail product = new ProductDetail("2", "Product 2", new BigDecimal("10.00"), true);
+        when(getSimilarProductsQuery.getSimilarProducts("1"))
+                .thenReturn(new SimilarProducts(List.of("2", "3"), List.of(product), false));
+
+        mockMvc.perform(get("/product/{productId}/similar", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("2"))
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void shouldChangeETagWhenAnyDetailChanges() {
+        ProductDetail product = new ProductDetail("2", "Product 2", new BigDecimal("10.00"), true);
+        ProductDetail repriced = new ProductDetail("2", "Product 2", new BigDecimal("12.00"), true);
+
+        assertNotEquals(ProductListETag.of(List.of(product)), ProductListETag.of(List.of(repriced)));
+    }
+
     @Test
     void shouldReturnEmptyListWhenNoSimilarProducts() throws Exception {
         String productId = "1";
-        when(getSimilarProductsQuery.getSimilarProducts(productId)).thenReturn(List.of());
+        when(getSimilarProductsQuery.getSimilarProducts(productId)).thenReturn(new SimilarProducts(List.of(), List.of(), true));
 
         mockMvc.perform(get("/product/{productId}/similar", productId))
                 .andExpect(status().isOk())
@@ -80,6 +149,16 @@ class ProductControllerTest {
                 .andExpect(content().string("Upstream service error"));
     }
 
+    @Test
+    void shouldReturnGatewayTimeoutWhenUpstreamTimesOut() throws Exception {
+        when(getSimilarProductsQuery.getSimilarProducts("1"))
+                .thenThrow(new UpstreamTimeoutException("timed out", null));
+
+        mockMvc.perform(get("/product/{productId}/similar", "1"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(content().string("Upstream service timeout"));
+    }
+
     @Test
     void shouldReturnInternalServerErrorWhenUnexpectedException() throws Exception {
         String productId = "1";
@@ -91,4 +170,141 @@ class ProductControllerTest {
                 .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
                 .andExpect(content().string("An unexpected error occurred"));
     }
+
+    @Test
+    void shouldStreamSimilarProductsAsNdjson() throws Exception {
+        String productId = "1";
+        ProductDetail product2 = new ProductDetail("2", "Product 2", new BigDecimal("10.00"), true);
+        ProductDetail product3 = new ProductDetail("3", "Product 3", new BigDecimal("20.00"), false);
+        when(getSimilarProductsQuery.streamSimilarProducts(productId, ResultOrder.COMPLETION))
+                .thenReturn(Stream.of(product3, product2));
+
+        MvcResult result = mockMvc.perform(get("/product/{productId}/similar/stream", productId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("""
+                        {"id":"3","name":"Product 3","price":20.00,"availability":false}
+                        {"id":"2","name":"Product 2","price":10.00,"availability":true}
+                        """));
+    }
+
+    @Test
+    void shouldStreamInOriginalOrderWhenRequested() throws Exception {
+        String productId = "1";
+        when(getSimilarProductsQuery.streamSimilarProducts(productId, ResultOrder.ORIGINAL))
+                .thenReturn(Stream.empty());
+
+        MvcResult result = mockMvc.perform(get("/product/{productId}/similar/stream", productId)
+                        .param("order", "ORIGINAL"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldReturnNotFoundBeforeStreamingWhenProductNotFound() throws Exception {
+        String productId = "1";
+        when(getSimilarProductsQuery.streamSimilarProducts(productId, ResultOrder.COMPLETION))
+                .thenThrow(new ProductNotFoundException(productId));
+
+        mockMvc.perform(get("/product/{productId}/similar/stream", productId))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Product Not found"));
+    }
+
+    @Test
+    void shouldReturnBatchResultsKeyedByProductId() throws Exception {
+        ProductDetail product = new ProductDetail("2", "Product 2", new BigDecimal("10.00"), true);
+        Map<String, SimilarProductsResult> results = new LinkedHashMap<>();
+        results.put("1", SimilarProductsResult.ok(List.of(product)));
+        results.put("404", SimilarProductsResult.notFound());
+        when(getSimilarProductsQuery.getSimilarProductsBatch(List.of("1", "404"))).thenReturn(results);
+
+        mockMvc.perform(post("/product/similar:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productIds\":[\"1\",\"404\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['1'].status").value("OK"))
+                .andExpect(jsonPath("$['1'].products[0].id").value("2"))
+                .andExpect(jsonPath("$['404'].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$['404'].products.length()").value(0));
+    }
+
+    @Test
+    void shouldReturnBadRequestForEmptyBatch() throws Exception {
+        mockMvc.perform(post("/product/similar:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productIds\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid request"));
+    }
+
+    @Test
+    void shouldNeitherStoreNorTagAnIncompletePage() throws Exception {
+        ProductDetail product = new ProductDetail("2", "Product 2", new BigDecimal("10.00"), true);
+        when(getSimilarProductsQuery.getSimilarProductsPage("1", new SimilarProductsPageRequest(0, 0, 2, ProductFilter.NONE)))
+                .thenReturn(new SimilarProductsPage(List.of(product), 2, false));
+
+        mockMvc.perform(get("/product/{productId}/similar", "1")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("2"))
+                .andExpect(header().exists(ContinuationToken.HEADER))
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void shouldReturnAPageWithAContinuationTokenForTheNextOne() throws Exception {
+        ProductDetail product = new ProductDetail("2", "Product 2", new BigDecimal("10.00"), true);
+        ProductFilter available = new ProductFilter(true, null, null);
+        when(getSimilarProductsQuery.getSimilarProductsPage("1", new SimilarProductsPageRequest(0, 0, 1, available)))
+                .thenReturn(new SimilarProductsPage(List.of(product), 3, true));
+        when(getSimilarProductsQuery.getSimilarProductsPage("1", new SimilarProductsPageRequest(3, 0, 1, available)))
+                .thenReturn(new SimilarProductsPage(List.of(), SimilarProductsPage.END, true));
+
+        MvcResult firstPage = mockMvc.perform(get("/product/{productId}/similar", "1")
+                        .param("limit", "1")
+                        .param("available", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("2"))
+                .andExpect(header().exists(ContinuationToken.HEADER))
+                .andReturn();
+
+        mockMvc.perform(get("/product/{productId}/similar", "1")
+                        .param("limit", "1")
+                        .param("available", "true")
+                        .param("continuationToken", firstPage.getResponse().getHeader(ContinuationToken.HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist(ContinuationToken.HEADER));
+    }
+
+    @Test
+    void shouldRejectAContinuationTokenIssuedForAnotherFilter() throws Exception {
+        String token = ContinuationToken.encode("1", ProductFilter.NONE, 3);
+
+        mockMvc.perform(get("/product/{productId}/similar", "1")
+                        .param("available", "true")
+                        .param("continuationToken", token))
+                .andExpect(status().isBadRequest());
+        verify(getSimilarProductsQuery, never()).getSimilarProductsPage(anyString(), any());
+    }
+
+    @Test
+    void shouldReturnBadRequestForInvalidPagingParameters() throws Exception {
+        mockMvc.perform(get("/product/{productId}/similar", "1").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/product/{productId}/similar", "1").param("minPrice", "20").param("maxPrice", "10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/product/{productId}/similar", "1").param("continuationToken", "not base64!"))
+                .andExpect(status().isBadRequest());
+    }
 }